@@ -5,13 +5,77 @@ package com.mycompany.st10467189movieseriesapplication;
  *
  * @author ST10467189 Leonard McDermott
  */
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
 
 public class ST10467189MovieSeriesApplication {
 
-    public static void main(String[] args) {
+    // Files that keep captured, updated and deleted series between runs
+    private static final String DEFAULT_SNAPSHOT_FILE = "series.snapshot";
+    private static final String DEFAULT_LOG_FILE = "series.wal";
+
+    public static void main(String[] args) throws IOException {
+
+        // -Dseries.btree=<file> keeps the catalog on disk in a B+tree instead of in memory
+        String btreeFile = System.getProperty("series.btree");
+        SeriesService catalog = null;
+        Series seriesApp;
+        if (btreeFile != null) {
+            seriesApp = new Series(new SeriesBTreeStore(Path.of(btreeFile),
+                    Integer.getInteger("series.btree.cachePages", SeriesBTreeStore.DEFAULT_CACHE_PAGES)));
+        } else if (Boolean.getBoolean("series.offheap")) {
+            // -Dseries.offheap=true keeps records in direct memory slabs; nothing is saved on exit
+            seriesApp = new Series(new SeriesOffHeapStore(Integer.getInteger("series.offheap.slabSize", SeriesOffHeapStore.DEFAULT_SLAB_SIZE)));
+        } else if (Integer.getInteger("series.shards") != null) {
+            // -Dseries.shards=<n> splits an in-memory catalog into n shards with parallel reports; nothing is saved on exit
+            seriesApp = new Series(new SeriesShardedCatalog(Integer.getInteger("series.shards")));
+        } else if (System.getProperty("series.cluster") != null) {
+            // -Dseries.cluster=host:port,host:port routes each series to the catalog node that owns its ID;
+            // every node is this application started with its own -Dseries.http.port, snapshot and log
+            seriesApp = new Series(new SeriesClusterRouter(Arrays.asList(System.getProperty("series.cluster").trim().split("\\s*,\\s*"))));
+        } else {
+            catalog = new SeriesService(Path.of(System.getProperty("series.snapshot", DEFAULT_SNAPSHOT_FILE)),
+                    Path.of(System.getProperty("series.log", DEFAULT_LOG_FILE)));
+            seriesApp = new Series(catalog);
+        }
+
+        // -Dseries.import=<file> bulk-loads a CSV or TSV file before the menu opens
+        String importFile = System.getProperty("series.import");
+        if (importFile != null) {
+            importSeries(catalog, Path.of(importFile));
+        }
+
+        // Optional HTTP/JSON endpoint over the same catalog, e.g. -Dseries.http.port=8080
+        SeriesHttpServer httpServer = null;
+        String httpPort = System.getProperty("series.http.port");
+        if (httpPort != null && catalog != null) {
+            // Send small responses at once instead of waiting for delayed ACKs; must be set before the first
+            // server is created, and an explicit -Dsun.net.httpserver.nodelay wins
+            if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+            }
+            httpServer = new SeriesHttpServer(catalog, new InetSocketAddress(Integer.parseInt(httpPort)),
+                    Integer.getInteger("series.http.threads", 0));
+            httpServer.start();
+            System.out.println("Serving the series catalog on http://localhost:" + httpServer.getPort() + "/series");
+        }
+
+        // -Dseries.headless=true serves without the menu, e.g. as a cluster node under a service manager,
+        // until the process is stopped; the catalog is still saved and closed on the way out
+        if (Boolean.getBoolean("series.headless")) {
+            if (httpServer == null) {
+                System.out.println("Headless mode needs -Dseries.http.port and the in-memory catalog.");
+                shutDown(null, catalog, seriesApp);
+                return;
+            }
+            serveUntilStopped(httpServer, catalog, seriesApp);
+            return;
+        }
 
-        Series seriesApp = new Series();
         Scanner mainScanner = new Scanner(System.in);
         String userInput;
 
@@ -19,7 +83,7 @@ public class ST10467189MovieSeriesApplication {
             System.out.println("LATEST SERIES - 2026");
             System.out.println("***********************************");
             System.out.println("Enter (1) to launch menu or any other key to exit");
-            userInput = mainScanner.nextLine();
+            userInput = nextLine(mainScanner);
 
             if (!userInput.equals("1")) {
                 break;
@@ -34,9 +98,11 @@ public class ST10467189MovieSeriesApplication {
                 System.out.println("(4) Delete a series.");
                 System.out.println("(5) Print series report - 2025");
                 System.out.println("(6) Exit Application.");
-                System.out.println("Enter your choice (1-6): ");
+                System.out.println("(7) Search series by name.");
+                System.out.println("(8) Show catalog metrics.");
+                System.out.println("Enter your choice (1-8): ");
 
-                String choice = mainScanner.nextLine();
+                String choice = nextLine(mainScanner);
 
                 switch (choice) {
                     case "1":
@@ -57,12 +123,18 @@ public class ST10467189MovieSeriesApplication {
                     case "6":
                         seriesApp.exitSeriesApplication();
                         break;
+                    case "7":
+                        seriesApp.searchSeriesByName();
+                        break;
+                    case "8":
+                        seriesApp.showMetrics();
+                        break;
                     default:
-                        System.out.println("Invalid choice. Please enter a number between 1 and 6.");
+                        System.out.println("Invalid choice. Please enter a number between 1 and 8.");
                 }
 
                 System.out.println("Enter (1) to continue with menu or any other key to exit");
-                String continueInput = mainScanner.nextLine();
+                String continueInput = nextLine(mainScanner);
                 if (!continueInput.equals("1")) {
                     break;
                 }
@@ -71,9 +143,61 @@ public class ST10467189MovieSeriesApplication {
         
         // Clean up resources
         mainScanner.close();
-        seriesApp.closeScanner();
+        shutDown(httpServer, catalog, seriesApp);
+    }
+
+    // Closed input (e.g. started with < /dev/null) reads as a blank line, which exits the menu
+    private static String nextLine(Scanner scanner) {
+        return scanner.hasNextLine() ? scanner.nextLine() : "";
+    }
+
+    // Blocks until the JVM is asked to stop; the shutdown hook saves and closes the catalog before it exits
+    private static void serveUntilStopped(SeriesHttpServer httpServer, SeriesService catalog, Series seriesApp) {
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                shutDown(httpServer, catalog, seriesApp);
+            } catch (IOException e) {
+                // Nothing is lost, the log still holds every change
+                System.out.println("Could not save and close the series catalog: " + e.getMessage());
+            } finally {
+                stopped.countDown();
+            }
+        }, "series-shutdown"));
+        System.out.println("Running headless; stop the process to save the catalog and exit");
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void shutDown(SeriesHttpServer httpServer, SeriesService catalog, Series seriesApp) throws IOException {
+        if (httpServer != null) {
+            httpServer.stop(1);
+        }
+        if (catalog != null) {
+            seriesApp.saveSnapshot();
+        }
+        seriesApp.close();
         System.out.println("Thank you for using the Movie Series Application!");
     }
+
+    // Rejected rows go to -Dseries.import.errors, or to the source file name with ".errors" added
+    private static void importSeries(SeriesService catalog, Path source) {
+        if (catalog == null) {
+            System.out.println("Bulk import is not available with this catalog storage.");
+            return;
+        }
+        Path errorFile = Path.of(System.getProperty("series.import.errors", source + ".errors"));
+        try {
+            SeriesCsvImporter.ImportResult result = SeriesCsvImporter.forFile(source).importFile(source, errorFile, catalog);
+            System.out.println("Imported " + result.getAccepted() + " series from " + source + "; "
+                    + result.getRejected() + " rejected rows written to " + errorFile);
+        } catch (IOException e) {
+            System.out.println("Could not import " + source + ": " + e.getMessage());
+        }
+    }
 }
 
 /**
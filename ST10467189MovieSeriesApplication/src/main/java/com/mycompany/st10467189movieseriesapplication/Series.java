@@ -3,33 +3,154 @@ package com.mycompany.st10467189movieseriesapplication;
  *
  * @author ST10467189 Leonard McDermott
  */
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Scanner;
 
 public class Series {
 
-    private ArrayList<SeriesModel> seriesCollection = new ArrayList<>();
-    private Scanner scanner = new Scanner(System.in);
+    // Closest names offered when a name search finds nothing
+    static final int SUGGESTION_LIMIT = 5;
+
+    // Console front end over the catalog engine; all data handling lives in the store
+    private final SeriesStore store;
+    // The store when it is the in-memory SeriesService, else null; name, age and metrics features need it
+    private final SeriesService service;
+    private Scanner consoleScanner;
+    private InputStream scannerSource;
+
+    // In-memory catalog, lost when the application exits
+    public Series() {
+        this(new SeriesService());
+    }
+
+    // Durable catalog: replays the log file into memory and logs every later change to it
+    public Series(Path logFile) throws IOException {
+        this(new SeriesService(logFile));
+    }
+
+    // Durable catalog: loads the snapshot (when there is one), then replays the changes logged since
+    public Series(Path snapshotFile, Path logFile) throws IOException {
+        this(new SeriesService(snapshotFile, logFile));
+    }
+
+    public Series(SeriesService service) {
+        this.store = service;
+        this.service = service;
+    }
+
+    // Any storage backend, such as a SeriesBTreeStore for catalogs larger than the heap
+    public Series(SeriesStore store) {
+        this.store = store;
+        this.service = store instanceof SeriesService ? (SeriesService) store : null;
+    }
+
+    // Null when the catalog is not held by a SeriesService
+    public SeriesService getService() {
+        return service;
+    }
+
+    public SeriesStore getStore() {
+        return store;
+    }
 
     // 1.10 Minimum methods
     public void captureSeries() {
         // Implementation for capturing a new series
+        Scanner scanner = scanner();
         SeriesModel newSeries = new SeriesModel();
         System.out.println("Enter the series ID: ");
         newSeries.setSeriesId(scanner.nextLine());
         
+        // Reject duplicate IDs instead of creating a second record with the same ID
+        if (store.exists(newSeries.getSeriesId())) {
+            System.out.println("Series with Series ID: " + newSeries.getSeriesId() + " already exists!");
+            return;
+        }
+        
         System.out.println("Enter the series name: ");
         newSeries.setSeriesName(scanner.nextLine());
         
         // Handling age restriction validation
+        newSeries.setSeriesAge(readAgeRestriction(scanner, "Enter the series age restriction (2-18): "));
+
+        System.out.println("Enter the number of episodes for " + newSeries.getSeriesName() + ": ");
+        newSeries.setSeriesNumberOfEpisodes(scanner.nextLine());
+
+        store.capture(newSeries);
+        System.out.println("Series processed successfully!!!");
+    }
+
+    public void searchSeries() {
+        // Implementation for searching a series by ID
+        System.out.println("Enter the series ID to search: ");
+        String searchId = scanner().nextLine();
+        SeriesModel series = store.find(searchId).orElse(null);
+        if (series != null) {
+            System.out.println("SERIES ID: " + series.getSeriesId());
+            System.out.println("SERIES NAME: " + series.getSeriesName());
+            System.out.println("SERIES AGE RESTRICTION: " + series.getSeriesAge());
+            System.out.println("NUMBER OF EPISODES: " + series.getSeriesNumberOfEpisodes());
+        } else {
+            System.out.println("Series with Series ID: " + searchId + " was not found!");
+        }
+    }
+
+    public void searchSeriesByName() {
+        // Implementation for searching series by the start of their name
+        if (service == null) {
+            System.out.println("Searching by name is not available with this catalog storage.");
+            return;
+        }
+        System.out.println("Enter the start of the series name to search: ");
+        String prefix = scanner().nextLine();
+        List<SeriesModel> matches = findSeriesByNamePrefix(prefix);
+        if (matches.isEmpty()) {
+            System.out.println("No series found with a name starting with: " + prefix);
+            matches = searchSeriesByName(prefix, SUGGESTION_LIMIT);
+            if (matches.isEmpty()) {
+                return;
+            }
+            System.out.println("Did you mean:");
+        }
+        for (SeriesModel series : matches) {
+            System.out.println("SERIES ID: " + series.getSeriesId());
+            System.out.println("SERIES NAME: " + series.getSeriesName());
+            System.out.println("SERIES AGE RESTRICTION: " + series.getSeriesAge());
+            System.out.println("NUMBER OF EPISODES: " + series.getSeriesNumberOfEpisodes());
+            System.out.println();
+        }
+    }
+
+    // Series whose name starts with the prefix, ignoring case, in name order
+    public List<SeriesModel> findSeriesByNamePrefix(String prefix) {
+        return requireService().findByNamePrefix(prefix);
+    }
+
+    // Series whose name matches the words of the query, best match first; tolerates misspellings
+    public List<SeriesModel> searchSeriesByName(String query, int limit) {
+        return requireService().searchByName(query, limit);
+    }
+
+    // Series with from <= name < to, ignoring case, in name order
+    public List<SeriesModel> findSeriesByNameRange(String from, String to) {
+        return requireService().findByNameRange(from, to);
+    }
+
+    // Prompts until a whole number between 2 and 18 is entered
+    private String readAgeRestriction(Scanner scanner, String prompt) {
         while(true) {
             try {
-                System.out.println("Enter the series age restriction (2-18): ");
+                System.out.println(prompt);
                 String ageInput = scanner.nextLine();
                 int age = Integer.parseInt(ageInput);
-                if (age >= 2 && age <= 18) {
-                    newSeries.setSeriesAge(ageInput);
-                    break;
+                if (SeriesService.isValidAgeRestriction(age)) {
+                    return ageInput;
                 } else {
                     System.out.println("You have entered an incorrect age restriction: " + ageInput);
                     System.out.println("Please re-enter the series age (2-18): ");
@@ -39,92 +160,53 @@ public class Series {
                 System.out.println("Please re-enter the series age (2-18): ");
             }
         }
+    }
 
-        System.out.println("Enter the number of episodes for " + newSeries.getSeriesName() + ": ");
-        newSeries.setSeriesNumberOfEpisodes(scanner.nextLine());
+    // Series a viewer of the given age may watch
+    public List<SeriesModel> findSeriesSuitableForAge(int viewerAge) {
+        return requireService().findSuitableForAge(viewerAge);
+    }
 
-        seriesCollection.add(newSeries);
-        System.out.println("Series processed successfully!!!");
+    // Series restricted to the given age or older
+    public List<SeriesModel> findSeriesByMinimumAge(int age) {
+        return requireService().findByMinimumAge(age);
     }
 
-    public void searchSeries() {
-        // Implementation for searching a series by ID
-        System.out.println("Enter the series ID to search: ");
-        String searchId = scanner.nextLine();
-        boolean found = false;
-        for (SeriesModel series : seriesCollection) {
-            if (series.getSeriesId().equals(searchId)) {
-                System.out.println("SERIES ID: " + series.getSeriesId());
-                System.out.println("SERIES NAME: " + series.getSeriesName());
-                System.out.println("SERIES AGE RESTRICTION: " + series.getSeriesAge());
-                System.out.println("NUMBER OF EPISODES: " + series.getSeriesNumberOfEpisodes());
-                found = true;
-                break;
-            }
-        }
-        if (!found) {
-            System.out.println("Series with Series ID: " + searchId + " was not found!");
-        }
+    // Number of series with exactly this age restriction
+    public int countSeriesByAge(int age) {
+        return requireService().countByAge(age);
     }
 
     public void updateSeries() {
         // Implementation for updating a series by ID
+        Scanner scanner = scanner();
         System.out.println("Enter the series ID to update: ");
         String updateId = scanner.nextLine();
-        boolean found = false;
-        for (SeriesModel series : seriesCollection) {
-            if (series.getSeriesId().equals(updateId)) {
-                System.out.println("Enter the new series name: ");
-                series.setSeriesName(scanner.nextLine());
-                
-                // Handling age restriction validation
-                while(true) {
-                    try {
-                        System.out.println("Enter the new age restriction (2-18): ");
-                        String ageInput = scanner.nextLine();
-                        int age = Integer.parseInt(ageInput);
-                        if (age >= 2 && age <= 18) {
-                            series.setSeriesAge(ageInput);
-                            break;
-                        } else {
-                            System.out.println("You have entered an incorrect age restriction: " + ageInput);
-                            System.out.println("Please re-enter the series age (2-18): ");
-                        }
-                    } catch (NumberFormatException e) {
-                        System.out.println("You have entered an incorrect non-number age restriction!");
-                        System.out.println("Please re-enter the series age (2-18): ");
-                    }
-                }
-                
-                System.out.println("Enter the new number of episodes: ");
-                series.setSeriesNumberOfEpisodes(scanner.nextLine());
-                System.out.println("Series updated successfully!");
-                found = true;
-                break;
-            }
-        }
-        if (!found) {
+        if (store.exists(updateId)) {
+            System.out.println("Enter the new series name: ");
+            String newName = scanner.nextLine();
+            String newAge = readAgeRestriction(scanner, "Enter the new age restriction (2-18): ");
+            
+            System.out.println("Enter the new number of episodes: ");
+            String newEpisodes = scanner.nextLine();
+            store.update(new SeriesModel(updateId, newName, newAge, newEpisodes));
+            System.out.println("Series updated successfully!");
+        } else {
             System.out.println("Series with Series ID: " + updateId + " was not found!");
         }
     }
 
     public void deleteSeries() {
         // Implementation for deleting a series by ID
+        Scanner scanner = scanner();
         System.out.println("Enter the series ID to delete: ");
         String deleteId = scanner.nextLine();
-        SeriesModel seriesToDelete = null;
-        for (SeriesModel series : seriesCollection) {
-            if (series.getSeriesId().equals(deleteId)) {
-                seriesToDelete = series;
-                break;
-            }
-        }
 
-        if (seriesToDelete != null) {
+        if (store.exists(deleteId)) {
             System.out.println("Are you sure you want to delete series " + deleteId + " from the system? Yes (y) to delete.");
             String confirmation = scanner.nextLine();
             if (confirmation.equalsIgnoreCase("y")) {
-                seriesCollection.remove(seriesToDelete);
+                store.delete(deleteId);
                 System.out.println("Series with Series ID: " + deleteId + " WAS deleted!");
             } else {
                 System.out.println("Deletion cancelled.");
@@ -136,28 +218,91 @@ public class Series {
 
     public void seriesReport() {
         // Implementation for printing a report of all series
-        System.out.println("Sample Report Screen Shot");
-        int seriesCount = 1;
-        for (SeriesModel series : seriesCollection) {
-            System.out.println("Series " + seriesCount++);
-            System.out.println("-------------------------------------");
-            System.out.println("SERIES ID: " + series.getSeriesId());
-            System.out.println("SERIES NAME: " + series.getSeriesName());
-            System.out.println("SERIES AGE RESTRICTION: " + series.getSeriesAge());
-            System.out.println("NUMBER OF EPISODES: " + series.getSeriesNumberOfEpisodes());
-            System.out.println();
+        try {
+            store.report(System.out, 0, Integer.MAX_VALUE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
     
+    // Writes one page of the report to any output, returns the number of series written
+    public int seriesReport(Appendable out, int offset, int pageSize) throws IOException {
+        return store.report(out, offset, pageSize);
+    }
+    
+    // Writes one page of the report ordered by name, age or episodes
+    public int seriesReport(Appendable out, int offset, int pageSize, SeriesSorter sorter) throws IOException {
+        return requireService().report(out, offset, pageSize, sorter);
+    }
+    
+    // Writes the full report to a file
+    public int seriesReport(Path reportFile) throws IOException {
+        try (Writer out = Files.newBufferedWriter(reportFile)) {
+            return seriesReport(out, 0, Integer.MAX_VALUE);
+        }
+    }
+    
+    public void showMetrics() {
+        // Prints latency percentiles per operation and search hit/miss counts
+        if (service == null) {
+            System.out.println("Metrics are not available with this catalog storage.");
+            return;
+        }
+        System.out.print(service.metrics().format());
+    }
+    
+    // Writes the whole catalog to the snapshot file; the log is cleared as it is no longer needed
+    public void saveSnapshot() throws IOException {
+        requireService().saveSnapshot();
+    }
+    
     public void exitSeriesApplication() {
         // Exits the application
+        if (service != null && service.hasSnapshotFile()) {
+            try {
+                saveSnapshot();
+            } catch (IOException e) {
+                // Nothing is lost, the log still holds every change
+                System.out.println("Could not save the series snapshot: " + e.getMessage());
+            }
+        } else if (service == null) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                System.out.println("Could not close the series catalog: " + e.getMessage());
+            }
+        }
         System.out.println("Exiting the application. Goodbye!");
-        scanner.close();
+        closeScanner();
         System.exit(0);
     }
     
     // Method to close scanner when done
     public void closeScanner() {
-        scanner.close();
+        if (consoleScanner != null) {
+            consoleScanner.close();
+        }
+    }
+    
+    // Closes the scanner and the catalog behind it
+    public void close() throws IOException {
+        closeScanner();
+        store.close();
+    }
+    
+    private SeriesService requireService() {
+        if (service == null) {
+            throw new UnsupportedOperationException("This needs the in-memory catalog; the current storage backend does not support it");
+        }
+        return service;
+    }
+
+    // Scanner over the current System.in, re-created when System.in has been swapped since the last read
+    private Scanner scanner() {
+        if (consoleScanner == null || scannerSource != System.in) {
+            scannerSource = System.in;
+            consoleScanner = new Scanner(scannerSource);
+        }
+        return consoleScanner;
     }
 }
\ No newline at end of file
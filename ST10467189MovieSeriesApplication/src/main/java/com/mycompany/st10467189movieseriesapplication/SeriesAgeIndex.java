@@ -0,0 +1,88 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Secondary index with one bucket of series IDs per age restriction.
+ * Age restrictions only range from 2 to 18, so any age filter is the
+ * union of at most 17 buckets and a bucket count is a single lookup.
+ *
+ * Buckets are concurrent sets kept in ID order, with a separate counter
+ * each because counting a concurrent set walks every element.
+ */
+public class SeriesAgeIndex {
+
+    public static final int MIN_AGE = 2;
+    public static final int MAX_AGE = 18;
+
+    private final List<Set<String>> buckets = new ArrayList<>(MAX_AGE - MIN_AGE + 1);
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(MAX_AGE - MIN_AGE + 1);
+
+    public SeriesAgeIndex() {
+        for (int age = MIN_AGE; age <= MAX_AGE; age++) {
+            buckets.add(new ConcurrentSkipListSet<>());
+        }
+    }
+
+    // Ages outside 2-18 or that are not numbers are not indexed
+    public void add(String seriesAge, String seriesId) {
+        int age = parseAge(seriesAge);
+        if (age != -1 && buckets.get(age - MIN_AGE).add(seriesId)) {
+            counts.incrementAndGet(age - MIN_AGE);
+        }
+    }
+
+    public void remove(String seriesAge, String seriesId) {
+        int age = parseAge(seriesAge);
+        if (age != -1 && buckets.get(age - MIN_AGE).remove(seriesId)) {
+            counts.decrementAndGet(age - MIN_AGE);
+        }
+    }
+
+    // Number of series with exactly this age restriction
+    public int count(int age) {
+        if (age < MIN_AGE || age > MAX_AGE) {
+            return 0;
+        }
+        return counts.get(age - MIN_AGE);
+    }
+
+    // IDs of all series a viewer of the given age may watch (restriction <= viewerAge)
+    public List<String> findSuitableFor(int viewerAge) {
+        return union(MIN_AGE, Math.min(viewerAge, MAX_AGE));
+    }
+
+    // IDs of all series restricted to the given age or older (restriction >= age)
+    public List<String> findAtLeast(int age) {
+        return union(Math.max(age, MIN_AGE), MAX_AGE);
+    }
+
+    private List<String> union(int fromAge, int toAge) {
+        int total = 0;
+        for (int age = fromAge; age <= toAge; age++) {
+            total += counts.get(age - MIN_AGE);
+        }
+        List<String> ids = new ArrayList<>(Math.max(total, 0));
+        for (int age = fromAge; age <= toAge; age++) {
+            ids.addAll(buckets.get(age - MIN_AGE));
+        }
+        return ids;
+    }
+
+    // Returns the age as a number, or -1 when it is not a valid age restriction
+    static int parseAge(String seriesAge) {
+        try {
+            int age = Integer.parseInt(seriesAge);
+            return age >= MIN_AGE && age <= MAX_AGE ? age : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
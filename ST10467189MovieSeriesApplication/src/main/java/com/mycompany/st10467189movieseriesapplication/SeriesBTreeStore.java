@@ -0,0 +1,873 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Catalog stored as a B+tree in a page file, keyed by series ID, for
+ * catalogs larger than the heap.
+ *
+ * The file is a run of fixed-size pages. Page 0 is the header; every
+ * other page is one tree node. Leaves hold whole series in ID order and
+ * link to the next leaf, so a range scan or the report walks the leaves
+ * left to right. Internal nodes hold separator keys and child page
+ * numbers. A node that outgrows its page is split in two by bytes, and a
+ * split of the root grows the tree by one level.
+ *
+ * Only an LRU cache of cachePages decoded nodes lives in memory; a dirty
+ * node is written back when it is evicted, on flush() and on close(). An
+ * update rewrites the series in its leaf, splitting it only when the new
+ * values no longer fit. Deletes take the series out of its leaf and do
+ * not merge pages; the space is reused by later IDs that sort there.
+ *
+ * A dirty node can reach the file before the header that makes it
+ * reachable, when it is evicted. So the file is only consistent as of
+ * the last flush(). Before a page of that flushed tree is overwritten for
+ * the first time, its flushed image is appended to a rollback journal
+ * next to the file ("<file>.journal") and forced to disk. flush() writes
+ * the dirty pages, forces them, writes the header, forces it, and then
+ * deletes the journal; that deletion is the commit. Opening a file that
+ * still has a journal puts the saved images and the flushed header back,
+ * and cuts off pages added since. A crash therefore loses the changes
+ * since the last flush but never leaves a torn tree. Pages added since
+ * the last flush are not journaled; cutting them off is enough.
+ *
+ * A Bloom filter over the IDs, sized like SeriesColumnCatalog's, answers
+ * lookups, updates and deletes for missing IDs without reading a page. It
+ * is built from a walk of the leaves when the file is opened, takes every
+ * captured ID, and is rebuilt from the leaves once it holds more IDs than
+ * it was sized for, which also clears out deleted IDs.
+ *
+ * One lock serializes operations, since even a lookup reorders the cache.
+ */
+public class SeriesBTreeStore implements SeriesStore {
+
+    public static final int DEFAULT_PAGE_SIZE = 4096;
+    public static final int DEFAULT_CACHE_PAGES = 1024;
+    static final int MIN_PAGE_SIZE = 256;
+    static final int MAX_PAGE_SIZE = 1 << 16;
+    static final int MIN_CACHE_PAGES = 8;
+
+    private static final int MAGIC = 0x53425452;
+    private static final int JOURNAL_MAGIC = 0x5342544a;
+    private static final int HEADER_BYTES = 20;
+    private static final int JOURNAL_HEADER_BYTES = 24;
+    private static final int NODE_HEADER_BYTES = 7;
+    private static final byte LEAF = 0;
+    private static final byte INTERNAL = 1;
+
+    private final FileChannel channel;
+    private final Path journalFile;
+    private final int pageSize;
+    private final int maxRecordBytes;
+    private final PageCache cache;
+    private final ByteBuffer pageBuffer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int rootPage;
+    private int pageCount;
+    private int size;
+    private long pageReads;
+    private long pageWrites;
+    private SeriesBloomFilter filter;
+    private long filterMisses;
+    // Header values as of the last flush; pages at or past committedPageCount are new since
+    private int committedRoot;
+    private int committedPageCount;
+    private int committedSize;
+    // Open from the first write after a flush until the next flush commits
+    private FileChannel journal;
+    private final Set<Integer> journaled = new HashSet<>();
+
+    // Opens the file, creating it with the default page size when it does not exist
+    public SeriesBTreeStore(Path file, int cachePages) throws IOException {
+        this(file, cachePages, DEFAULT_PAGE_SIZE);
+    }
+
+    // pageSize only applies to a new file; an existing file keeps the page size it was created with
+    public SeriesBTreeStore(Path file, int cachePages, int pageSize) throws IOException {
+        if (cachePages < MIN_CACHE_PAGES) {
+            throw new IllegalArgumentException("The page cache needs at least " + MIN_CACHE_PAGES + " pages: " + cachePages);
+        }
+        if (pageSize < MIN_PAGE_SIZE || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Pages must be between " + MIN_PAGE_SIZE + " and " + MAX_PAGE_SIZE + " bytes: " + pageSize);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.journalFile = file.resolveSibling(file.getFileName() + ".journal");
+        try {
+            rollBack();
+            if (channel.size() == 0) {
+                this.pageSize = pageSize;
+                this.rootPage = 1;
+                this.pageCount = 2;
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                channel.read(header, 0);
+                header.flip();
+                if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                    throw new IOException("Not a series B+tree file: " + file);
+                }
+                this.pageSize = header.getInt();
+                this.rootPage = header.getInt();
+                this.pageCount = header.getInt();
+                this.size = header.getInt();
+                this.committedRoot = rootPage;
+                this.committedPageCount = pageCount;
+                this.committedSize = size;
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        // Any four records fit in a page, so a split always leaves both halves within a page
+        this.maxRecordBytes = (this.pageSize - NODE_HEADER_BYTES) / 4;
+        this.pageBuffer = ByteBuffer.allocate(this.pageSize);
+        this.cache = new PageCache(cachePages);
+        if (channel.size() == 0) {
+            Node root = new Node(rootPage, true);
+            cache.put(rootPage, root);
+            root.dirty = true;
+            flush();
+        }
+        this.filter = buildFilter();
+    }
+
+    @Override
+    public boolean capture(SeriesModel series) {
+        SeriesService.checkAge(series.getSeriesAge());
+        checkRecord(series);
+        lock.lock();
+        try {
+            if (filter.mightContain(series.getSeriesId()) && lookup(series.getSeriesId()) != null) {
+                return false;
+            }
+            put(series);
+            size++;
+            filter.add(series.getSeriesId());
+            if (filter.isSaturated()) {
+                filter = buildFilter();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // A new SeriesModel decoded from the leaf
+    @Override
+    public Optional<SeriesModel> find(String seriesId) {
+        lock.lock();
+        try {
+            return Optional.ofNullable(ruledOut(seriesId) ? null : lookup(seriesId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean exists(String seriesId) {
+        return find(seriesId).isPresent();
+    }
+
+    // Rewrites the series in its leaf
+    @Override
+    public boolean update(SeriesModel series) {
+        SeriesService.checkAge(series.getSeriesAge());
+        checkRecord(series);
+        lock.lock();
+        try {
+            if (ruledOut(series.getSeriesId()) || lookup(series.getSeriesId()) == null) {
+                return false;
+            }
+            put(series);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(String seriesId) {
+        lock.lock();
+        try {
+            if (ruledOut(seriesId)) {
+                return false;
+            }
+            Node leaf = findLeaf(seriesId);
+            int index = Collections.binarySearch(leaf.keys, seriesId);
+            if (index < 0) {
+                return false;
+            }
+            leaf.keys.remove(index);
+            leaf.values.remove(index);
+            markDirty(leaf);
+            size--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Series with fromId <= ID < toId in ID order, at most limit of them; null bounds are open
+    public List<SeriesModel> scan(String fromId, String toId, int limit) {
+        lock.lock();
+        try {
+            List<SeriesModel> result = new ArrayList<>(Math.min(limit, 1024));
+            Iterator<SeriesModel> iterator = new LeafIterator(fromId, toId);
+            while (result.size() < limit && iterator.hasNext()) {
+                result.add(iterator.next());
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Report in series ID order, streamed leaf by leaf; writers wait until it is written
+    @Override
+    public int report(Appendable out, int offset, int pageSize) throws IOException {
+        lock.lock();
+        try {
+            return SeriesReport.write(() -> new LeafIterator(null, null), out, offset, pageSize);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Writes every dirty page, then the header, and commits them by deleting the journal
+    public void flush() {
+        lock.lock();
+        try {
+            List<Node> dirty = new ArrayList<>();
+            for (Node node : cache.values()) {
+                if (node.dirty) {
+                    dirty.add(node);
+                }
+            }
+            if (journal == null && dirty.isEmpty() && rootPage == committedRoot
+                    && pageCount == committedPageCount && size == committedSize) {
+                return;
+            }
+            // One force covers the images of every page this flush overwrites
+            openJournal();
+            for (Node node : dirty) {
+                saveImage(node.page);
+            }
+            journal.force(false);
+            for (Node node : dirty) {
+                writeNode(node);
+            }
+            channel.force(false);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(pageSize).putInt(rootPage).putInt(pageCount).putInt(size).flip();
+            channel.write(header, 0);
+            channel.force(false);
+            journal.close();
+            journal = null;
+            Files.delete(journalFile);
+            journaled.clear();
+            committedRoot = rootPage;
+            committedPageCount = pageCount;
+            committedSize = size;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the series B+tree", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getPageSize() { return pageSize; }
+
+    // Pages in the file, including the header
+    public int getPageCount() {
+        lock.lock();
+        try {
+            return pageCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Levels from the root to the leaves, 1 while the root is a leaf
+    public int height() {
+        lock.lock();
+        try {
+            int height = 1;
+            for (Node node = load(rootPage); !node.leaf; node = load(node.children.get(0))) {
+                height++;
+            }
+            return height;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Nodes held in memory right now; never more than the cache size
+    public int getCachedPageCount() {
+        lock.lock();
+        try {
+            return cache.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Pages read from and written to the file since it was opened
+    public long getPageReads() {
+        lock.lock();
+        try {
+            return pageReads;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Lookups, updates and deletes the Bloom filter answered without reading a page
+    public long getFilterMisses() {
+        lock.lock();
+        try {
+            return filterMisses;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getPageWrites() {
+        lock.lock();
+        try {
+            return pageWrites;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (!channel.isOpen()) {
+                return;
+            }
+            flush();
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Closes the files without flushing, as a crash would leave them
+    void abandon() throws IOException {
+        lock.lock();
+        try {
+            if (journal != null) {
+                journal.close();
+            }
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // True when the Bloom filter shows the ID is not in the tree
+    private boolean ruledOut(String seriesId) {
+        if (filter.mightContain(seriesId)) {
+            return false;
+        }
+        filterMisses++;
+        return true;
+    }
+
+    // Adds every ID in the leaves to a new filter sized for twice the catalog
+    private SeriesBloomFilter buildFilter() {
+        SeriesBloomFilter built = new SeriesBloomFilter(Math.max(SeriesColumnCatalog.MIN_FILTER_SIZE, 2L * size),
+                SeriesColumnCatalog.DEFAULT_FALSE_POSITIVE_RATE);
+        for (Node leaf = firstLeaf(); ; leaf = load(leaf.next)) {
+            for (String seriesId : leaf.keys) {
+                built.add(seriesId);
+            }
+            if (leaf.next == 0) {
+                return built;
+            }
+        }
+    }
+
+    private Node firstLeaf() {
+        Node node = load(rootPage);
+        while (!node.leaf) {
+            node = load(node.children.get(0));
+        }
+        return node;
+    }
+
+    private SeriesModel lookup(String seriesId) {
+        Node leaf = findLeaf(seriesId);
+        int index = Collections.binarySearch(leaf.keys, seriesId);
+        return index < 0 ? null : toSeries(leaf.keys.get(index), leaf.values.get(index));
+    }
+
+    private Node findLeaf(String seriesId) {
+        Node node = load(rootPage);
+        while (!node.leaf) {
+            node = load(node.children.get(childIndex(node, seriesId)));
+        }
+        return node;
+    }
+
+    // Inserts or replaces the series, growing a new root when the old one splits
+    private void put(SeriesModel series) {
+        String[] value = {series.getSeriesName(), series.getSeriesAge(), series.getSeriesNumberOfEpisodes()};
+        Split split = put(load(rootPage), series.getSeriesId(), value);
+        if (split != null) {
+            Node root = new Node(allocatePage(), false);
+            root.children.add(rootPage);
+            root.keys.add(split.key);
+            root.children.add(split.page);
+            rootPage = root.page;
+            markDirty(root);
+        }
+    }
+
+    // Returns the split the parent has to take in, or null
+    private Split put(Node node, String seriesId, String[] value) {
+        if (node.leaf) {
+            int index = Collections.binarySearch(node.keys, seriesId);
+            if (index >= 0) {
+                node.values.set(index, value);
+            } else {
+                node.keys.add(-index - 1, seriesId);
+                node.values.add(-index - 1, value);
+            }
+            markDirty(node);
+            return node.bytes() > pageSize ? splitLeaf(node) : null;
+        }
+        int child = childIndex(node, seriesId);
+        Split split = put(load(node.children.get(child)), seriesId, value);
+        if (split == null) {
+            return null;
+        }
+        node.keys.add(child, split.key);
+        node.children.add(child + 1, split.page);
+        markDirty(node);
+        return node.bytes() > pageSize ? splitInternal(node) : null;
+    }
+
+    // Moves the upper half of the bytes to a new leaf linked after this one
+    private Split splitLeaf(Node node) {
+        int half = node.bytes() / 2;
+        int bytes = NODE_HEADER_BYTES;
+        int at = 0;
+        while (at < node.keys.size() - 1 && bytes < half) {
+            bytes += recordBytes(node.keys.get(at), node.values.get(at));
+            at++;
+        }
+        Node right = new Node(allocatePage(), true);
+        right.keys.addAll(node.keys.subList(at, node.keys.size()));
+        right.values.addAll(node.values.subList(at, node.values.size()));
+        node.keys.subList(at, node.keys.size()).clear();
+        node.values.subList(at, node.values.size()).clear();
+        right.next = node.next;
+        node.next = right.page;
+        markDirty(node);
+        markDirty(right);
+        return new Split(right.keys.get(0), right.page);
+    }
+
+    // The middle key moves up to the parent; keys and children above it go to a new node
+    private Split splitInternal(Node node) {
+        int half = node.bytes() / 2;
+        int bytes = NODE_HEADER_BYTES + 4;
+        int at = 0;
+        while (at < node.keys.size() - 2 && bytes < half) {
+            bytes += stringBytes(node.keys.get(at)) + 4;
+            at++;
+        }
+        String separator = node.keys.get(at);
+        Node right = new Node(allocatePage(), false);
+        right.keys.addAll(node.keys.subList(at + 1, node.keys.size()));
+        right.children.addAll(node.children.subList(at + 1, node.children.size()));
+        node.keys.subList(at, node.keys.size()).clear();
+        node.children.subList(at + 1, node.children.size()).clear();
+        markDirty(node);
+        markDirty(right);
+        return new Split(separator, right.page);
+    }
+
+    // Child i holds keys from keys[i - 1] up to but not including keys[i]
+    private static int childIndex(Node node, String seriesId) {
+        int index = Collections.binarySearch(node.keys, seriesId);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private int allocatePage() {
+        return pageCount++;
+    }
+
+    // Puts the node back at the head of the cache as dirty; it may have been evicted while in use
+    private void markDirty(Node node) {
+        node.dirty = true;
+        cache.put(node.page, node);
+    }
+
+    private Node load(int page) {
+        Node node = cache.get(page);
+        if (node == null) {
+            node = readNode(page);
+            cache.put(page, node);
+        }
+        return node;
+    }
+
+    private Node readNode(int page) {
+        try {
+            pageBuffer.clear();
+            while (pageBuffer.hasRemaining()) {
+                if (channel.read(pageBuffer, (long) page * pageSize + pageBuffer.position()) < 0) {
+                    throw new IOException("Page " + page + " is past the end of the file");
+                }
+            }
+            pageReads++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the series B+tree", e);
+        }
+        pageBuffer.flip();
+        Node node = new Node(page, pageBuffer.get() == LEAF);
+        int count = pageBuffer.getShort() & 0xffff;
+        int link = pageBuffer.getInt();
+        if (node.leaf) {
+            node.next = link;
+            for (int i = 0; i < count; i++) {
+                node.keys.add(readString(pageBuffer));
+                node.values.add(new String[] {readString(pageBuffer), readString(pageBuffer), readString(pageBuffer)});
+            }
+        } else {
+            node.children.add(link);
+            for (int i = 0; i < count; i++) {
+                node.keys.add(readString(pageBuffer));
+                node.children.add(pageBuffer.getInt());
+            }
+        }
+        return node;
+    }
+
+    // Journal header: magic, page size, then root, page count and size as of the last flush
+    private void openJournal() throws IOException {
+        if (journal != null) {
+            return;
+        }
+        journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER_BYTES);
+        header.putInt(JOURNAL_MAGIC).putInt(pageSize).putInt(committedRoot).putInt(committedPageCount).putInt(committedSize);
+        header.putInt(crc(header.array(), 0, JOURNAL_HEADER_BYTES - Integer.BYTES)).flip();
+        writeFully(journal, header);
+        journal.force(false);
+    }
+
+    // Appends the flushed image of a page before its first overwrite; pages new since the flush have none
+    private void saveImage(int page) throws IOException {
+        if (page >= committedPageCount || !journaled.add(page)) {
+            return;
+        }
+        ByteBuffer entry = ByteBuffer.allocate(Integer.BYTES + pageSize + Integer.BYTES);
+        entry.putInt(page);
+        entry.limit(Integer.BYTES + pageSize);
+        while (entry.hasRemaining()) {
+            if (channel.read(entry, (long) page * pageSize + entry.position() - Integer.BYTES) < 0) {
+                throw new IOException("Page " + page + " is past the end of the file");
+            }
+        }
+        entry.limit(entry.capacity());
+        entry.putInt(crc(entry.array(), 0, Integer.BYTES + pageSize));
+        entry.flip();
+        writeFully(journal, entry);
+    }
+
+    // Puts back what the journal saved, if a journal was left behind, and cuts off pages added since
+    private void rollBack() throws IOException {
+        if (!Files.exists(journalFile)) {
+            return;
+        }
+        try (FileChannel saved = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER_BYTES);
+            readFully(saved, header, 0);
+            // A journal header that never reached the disk means nothing was written under it
+            if (!header.hasRemaining() && header.getInt(0) == JOURNAL_MAGIC
+                    && header.getInt(JOURNAL_HEADER_BYTES - Integer.BYTES) == crc(header.array(), 0, JOURNAL_HEADER_BYTES - Integer.BYTES)) {
+                int savedPageSize = header.getInt(4);
+                int root = header.getInt(8);
+                int count = header.getInt(12);
+                int savedSize = header.getInt(16);
+                ByteBuffer entry = ByteBuffer.allocate(Integer.BYTES + savedPageSize + Integer.BYTES);
+                for (long position = JOURNAL_HEADER_BYTES; ; position += entry.capacity()) {
+                    entry.clear();
+                    readFully(saved, entry, position);
+                    // A torn last entry was being written when the crash came; its page was not touched yet
+                    if (entry.hasRemaining() || entry.getInt(entry.capacity() - Integer.BYTES)
+                            != crc(entry.array(), 0, Integer.BYTES + savedPageSize)) {
+                        break;
+                    }
+                    ByteBuffer image = ByteBuffer.wrap(entry.array(), Integer.BYTES, savedPageSize);
+                    long offset = (long) entry.getInt(0) * savedPageSize;
+                    while (image.hasRemaining()) {
+                        channel.write(image, offset + image.position() - Integer.BYTES);
+                    }
+                }
+                if (count == 0) {
+                    channel.truncate(0);
+                } else {
+                    ByteBuffer restored = ByteBuffer.allocate(HEADER_BYTES);
+                    restored.putInt(MAGIC).putInt(savedPageSize).putInt(root).putInt(count).putInt(savedSize).flip();
+                    writeFully(channel, restored, 0);
+                    channel.truncate((long) count * savedPageSize);
+                }
+                channel.force(true);
+            }
+        }
+        Files.delete(journalFile);
+    }
+
+    private static void writeFully(FileChannel target, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+
+    private static void writeFully(FileChannel target, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            target.write(buffer, position + buffer.position());
+        }
+    }
+
+    // Reads until the buffer is full or the file ends
+    private static void readFully(FileChannel source, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (source.read(buffer, position + buffer.position()) < 0) {
+                return;
+            }
+        }
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private void writeNode(Node node) {
+        pageBuffer.clear();
+        pageBuffer.put(node.leaf ? LEAF : INTERNAL);
+        pageBuffer.putShort((short) node.keys.size());
+        pageBuffer.putInt(node.leaf ? node.next : node.children.get(0));
+        for (int i = 0; i < node.keys.size(); i++) {
+            writeString(pageBuffer, node.keys.get(i));
+            if (node.leaf) {
+                String[] value = node.values.get(i);
+                writeString(pageBuffer, value[0]);
+                writeString(pageBuffer, value[1]);
+                writeString(pageBuffer, value[2]);
+            } else {
+                pageBuffer.putInt(node.children.get(i + 1));
+            }
+        }
+        pageBuffer.position(pageSize);
+        pageBuffer.flip();
+        try {
+            while (pageBuffer.hasRemaining()) {
+                channel.write(pageBuffer, (long) node.page * pageSize + pageBuffer.position());
+            }
+            pageWrites++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the series B+tree", e);
+        }
+        node.dirty = false;
+    }
+
+    private void checkRecord(SeriesModel series) {
+        if (series.getSeriesId() == null) {
+            throw new IllegalArgumentException("Series ID cannot be null");
+        }
+        int bytes = recordBytes(series.getSeriesId(),
+                new String[] {series.getSeriesName(), series.getSeriesAge(), series.getSeriesNumberOfEpisodes()});
+        if (bytes > maxRecordBytes) {
+            throw new IllegalArgumentException("Series " + series.getSeriesId() + " takes " + bytes
+                    + " bytes, more than the " + maxRecordBytes + " a record may use with " + pageSize + "-byte pages");
+        }
+    }
+
+    private static SeriesModel toSeries(String seriesId, String[] value) {
+        return new SeriesModel(seriesId, value[0], value[1], value[2]);
+    }
+
+    private static int recordBytes(String seriesId, String[] value) {
+        return stringBytes(seriesId) + stringBytes(value[0]) + stringBytes(value[1]) + stringBytes(value[2]);
+    }
+
+    // Two-byte length (-1 for null), then UTF-8
+    private static int stringBytes(String value) {
+        return value == null ? 2 : 2 + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void writeString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    /**
+     * One tree node as held in the cache. Leaves use keys, values and
+     * next; internal nodes use keys and children, one more child than keys.
+     */
+    private static final class Node {
+        private final int page;
+        private final boolean leaf;
+        private final List<String> keys = new ArrayList<>();
+        private final List<String[]> values = new ArrayList<>();
+        private final List<Integer> children = new ArrayList<>();
+        private int next;
+        private boolean dirty;
+
+        Node(int page, boolean leaf) {
+            this.page = page;
+            this.leaf = leaf;
+        }
+
+        // Size of the node once written to its page
+        int bytes() {
+            int bytes = NODE_HEADER_BYTES;
+            for (int i = 0; i < keys.size(); i++) {
+                bytes += leaf ? recordBytes(keys.get(i), values.get(i)) : stringBytes(keys.get(i)) + 4;
+            }
+            return bytes;
+        }
+    }
+
+    private static final class Split {
+        private final String key;
+        private final int page;
+
+        Split(String key, int page) {
+            this.key = key;
+            this.page = page;
+        }
+    }
+
+    /**
+     * LRU map of page number to node; the least recently used node is
+     * written back (when dirty) and dropped once the cache is full. Never
+     * serialized; it belongs to one open store.
+     */
+    @SuppressWarnings("serial")
+    private final class PageCache extends LinkedHashMap<Integer, Node> {
+        private final int capacity;
+
+        PageCache(int capacity) {
+            super(capacity * 4 / 3 + 1, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Node> eldest) {
+            if (size() <= capacity) {
+                return false;
+            }
+            if (eldest.getValue().dirty) {
+                try {
+                    openJournal();
+                    saveImage(eldest.getKey());
+                    journal.force(false);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not write the series B+tree journal", e);
+                }
+                writeNode(eldest.getValue());
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Walks the leaves from the first ID at or after fromId to the last one
+     * before toId. Must be used under the lock.
+     */
+    private final class LeafIterator implements Iterator<SeriesModel> {
+        private final String toId;
+        private Node leaf;
+        private int index;
+
+        LeafIterator(String fromId, String toId) {
+            this.toId = toId;
+            if (fromId == null) {
+                leaf = firstLeaf();
+            } else {
+                leaf = findLeaf(fromId);
+                int found = Collections.binarySearch(leaf.keys, fromId);
+                index = found >= 0 ? found : -found - 1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (index >= leaf.keys.size()) {
+                if (leaf.next == 0) {
+                    return false;
+                }
+                leaf = load(leaf.next);
+                index = 0;
+            }
+            return toId == null || leaf.keys.get(index).compareTo(toId) < 0;
+        }
+
+        @Override
+        public SeriesModel next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SeriesModel series = toSeries(leaf.keys.get(index), leaf.values.get(index));
+            index++;
+            return series;
+        }
+    }
+}
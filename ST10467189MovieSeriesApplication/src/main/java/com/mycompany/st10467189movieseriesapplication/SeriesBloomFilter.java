@@ -0,0 +1,111 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter over series IDs. mightContain() never says no for an ID
+ * that was added, and says yes for an ID that was not added with about
+ * the false-positive rate it was sized for, so a "no" answers a lookup
+ * for a missing series without touching the store.
+ *
+ * The bit count and number of hashes are worked out from the expected
+ * number of IDs and the target false-positive rate. IDs cannot be taken
+ * out again, so a deleted ID keeps passing the filter until the owner
+ * rebuilds it (SeriesColumnCatalog does that on compaction). Past the
+ * expected number of IDs the rate climbs; isSaturated() tells the owner
+ * to rebuild it bigger.
+ *
+ * add() and mightContain() are lock-free and may run concurrently.
+ */
+public class SeriesBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashes;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final LongAdder insertions = new LongAdder();
+
+    public SeriesBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("Expected insertions must be at least 1: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be above 0 and below 1: " + falsePositiveRate);
+        }
+        // m = -n ln p / (ln 2)^2 bits and k = m/n ln 2 hashes minimise the rate for n IDs
+        long wanted = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (wanted + 63) / 64));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashes = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public void add(String seriesId) {
+        long hash = hash(seriesId);
+        long step = (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hash + i * step, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+        insertions.increment();
+    }
+
+    // False means the ID was never added; true means it probably was
+    public boolean mightContain(String seriesId) {
+        long hash = hash(seriesId);
+        long step = (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hash + i * step, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // More IDs were added than the filter was sized for
+    public boolean isSaturated() {
+        return insertions.sum() > expectedInsertions;
+    }
+
+    public long getBitCount() { return bitCount; }
+    public int getHashCount() { return hashes; }
+    public long getExpectedInsertions() { return expectedInsertions; }
+    public double getFalsePositiveRate() { return falsePositiveRate; }
+
+    // Rate the filter gives now, from the share of bits set: (set / m)^k
+    public double getCurrentFalsePositiveRate() {
+        long set = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            set += Long.bitCount(bits.get(i));
+        }
+        return Math.pow((double) set / bitCount, hashes);
+    }
+
+    // 64-bit FNV-1a over the UTF-16 chars, finished with a murmur3 mix so both halves are well spread
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
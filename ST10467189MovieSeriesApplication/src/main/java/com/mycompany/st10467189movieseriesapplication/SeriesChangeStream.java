@@ -0,0 +1,237 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ordered stream of catalog changes for caches and replicas that follow
+ * the catalog instead of polling it.
+ *
+ * Every capture, update and delete is published as a Change with the next
+ * sequence number (1, 2, 3, ...) into a ring of the last capacity changes.
+ * Writers never wait for subscribers: once the ring is full the oldest
+ * change is overwritten. Subscribers pull batches at their own pace from
+ * any sequence still in the ring, which is their backpressure. A
+ * subscriber that falls a full ring behind is dropped: its next poll
+ * throws LaggedException, and it should reload the catalog (see
+ * SeriesService.changeCheckpoint()) and subscribe again from there.
+ */
+public class SeriesChangeStream {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * What a change did to the series.
+     */
+    public enum Type {
+        CAPTURE, UPDATE, DELETE
+    }
+
+    private final int mask;
+    private final AtomicReferenceArray<Change> ring;
+    private final AtomicLong nextSequence = new AtomicLong();
+    // Highest sequence whose change is in the ring; changes become visible in sequence order
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition changed = waitLock.newCondition();
+    private final LongAdder dropped = new LongAdder();
+
+    public SeriesChangeStream() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // The capacity is rounded up to a power of two
+    public SeriesChangeStream(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.ring = new AtomicReferenceArray<>(size);
+    }
+
+    // Appends a change and returns its sequence; series is null for a delete
+    public long publish(Type type, String seriesId, SeriesModel series) {
+        long sequence = nextSequence.incrementAndGet();
+        // Concurrent writers take turns here so the ring fills in sequence order
+        for (int spins = 0; published.get() != sequence - 1; spins++) {
+            if (spins < 64) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        ring.set((int) (sequence & mask), new Change(sequence, type, seriesId, series));
+        published.set(sequence);
+        if (waiting.get() > 0) {
+            waitLock.lock();
+            try {
+                changed.signalAll();
+            } finally {
+                waitLock.unlock();
+            }
+        }
+        return sequence;
+    }
+
+    // Sequence of the newest change, or 0 before the first one
+    public long lastSequence() {
+        return published.get();
+    }
+
+    // Oldest sequence a subscriber can still start from
+    public long oldestSequence() {
+        return Math.max(1, published.get() - mask);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    // Subscribers dropped so far for falling a full ring behind
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    // Follows changes published from now on
+    public Subscription subscribe() {
+        return new Subscription(published.get() + 1);
+    }
+
+    // Follows changes from the given sequence; a sequence that has left the ring fails on the first poll
+    public Subscription subscribe(long fromSequence) {
+        if (fromSequence < 1) {
+            throw new IllegalArgumentException("Sequences start at 1: " + fromSequence);
+        }
+        return new Subscription(fromSequence);
+    }
+
+    /**
+     * One change to the catalog. The series is the record as stored after
+     * a capture or update, and null for a delete.
+     */
+    public static final class Change {
+        private final long sequence;
+        private final Type type;
+        private final String seriesId;
+        private final SeriesModel series;
+
+        Change(long sequence, Type type, String seriesId, SeriesModel series) {
+            this.sequence = sequence;
+            this.type = type;
+            this.seriesId = seriesId;
+            this.series = series;
+        }
+
+        public long getSequence() { return sequence; }
+        public Type getType() { return type; }
+        public String getSeriesId() { return seriesId; }
+        public SeriesModel getSeries() { return series; }
+    }
+
+    /**
+     * Thrown to a subscriber whose next change has been overwritten. The
+     * subscription is closed; reload and subscribe again.
+     */
+    public static final class LaggedException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+
+        private final long nextSequence;
+        private final long oldestSequence;
+
+        LaggedException(long nextSequence, long oldestSequence) {
+            super("Subscriber fell behind: wanted change " + nextSequence + " but the oldest kept is " + oldestSequence);
+            this.nextSequence = nextSequence;
+            this.oldestSequence = oldestSequence;
+        }
+
+        public long getNextSequence() { return nextSequence; }
+        public long getOldestSequence() { return oldestSequence; }
+    }
+
+    /**
+     * A reader's position in the stream. Meant for one consumer thread.
+     */
+    public final class Subscription implements Closeable {
+        private long next;
+        private boolean closed;
+
+        private Subscription(long next) {
+            this.next = next;
+        }
+
+        // Sequence of the next change this subscription will return
+        public long getNextSequence() {
+            return next;
+        }
+
+        // Up to maxChanges changes in sequence order, waiting up to the timeout for the first one
+        // Returns an empty list on timeout; throws LaggedException once the next change has been overwritten
+        public List<Change> poll(int maxChanges, long timeout, TimeUnit unit) throws InterruptedException {
+            if (closed) {
+                throw new IllegalStateException("The subscription was closed");
+            }
+            if (maxChanges < 1) {
+                throw new IllegalArgumentException("maxChanges must be at least 1");
+            }
+            if (published.get() < next && !await(unit.toNanos(timeout))) {
+                return List.of();
+            }
+            long last = Math.min(published.get(), next + maxChanges - 1);
+            List<Change> changes = new ArrayList<>((int) (last - next + 1));
+            for (long sequence = next; sequence <= last; sequence++) {
+                Change change = ring.get((int) (sequence & mask));
+                if (change == null || change.sequence != sequence) {
+                    lagged();
+                }
+                changes.add(change);
+            }
+            next = last + 1;
+            return changes;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        // Writers only signal when someone is waiting; registering first means no wakeup is missed
+        private boolean await(long nanos) throws InterruptedException {
+            waitLock.lock();
+            waiting.incrementAndGet();
+            try {
+                while (published.get() < next) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = changed.awaitNanos(nanos);
+                }
+                return true;
+            } finally {
+                waiting.decrementAndGet();
+                waitLock.unlock();
+            }
+        }
+
+        private void lagged() {
+            closed = true;
+            dropped.increment();
+            throw new LaggedException(next, oldestSequence());
+        }
+    }
+}
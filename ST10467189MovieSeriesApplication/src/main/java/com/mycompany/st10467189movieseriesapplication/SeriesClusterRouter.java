@@ -0,0 +1,429 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Catalog spread over several catalog processes, each owning the series
+ * IDs that a SeriesHashRing gives it.
+ *
+ * A node is an ordinary ST10467189MovieSeriesApplication run with
+ * -Dseries.http.port, named by its "host:port". The router sends a
+ * capture, search, update or delete to the one node that owns the ID
+ * over the node's HTTP/JSON API, and maps the answer back to what a local
+ * catalog returns: 409 and 404 become false or empty, 400 becomes an
+ * IllegalArgumentException, and a node that cannot be reached or fails
+ * becomes an UncheckedIOException. The size adds up every node. The
+ * report lists the whole cluster in series ID order: each node sends its
+ * series in ID order, a page at a time, and only as many as the report
+ * page reaches; the router merges them and adds up the totals the nodes
+ * send with their first page.
+ *
+ * Adding a node moves to it only the series whose IDs now hash to it,
+ * about 1/N of the catalog; removing a node hands its series to the nodes
+ * that take over its part of the ring. A series is copied before it is
+ * deleted from its old node, so a failed move leaves it on both nodes and
+ * rebalance() can be run again to finish. Membership changes wait for
+ * requests in flight and hold new ones until the move is done. The
+ * router assumes it is the only writer to the nodes.
+ */
+public class SeriesClusterRouter implements SeriesStore {
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+    static final int PAGE_SIZE = SeriesHttpServer.DEFAULT_MAX_PAGE_SIZE;
+
+    private final SeriesHashRing ring;
+    private final HttpClient client;
+    private final Duration timeout;
+    private final ReentrantReadWriteLock membership = new ReentrantReadWriteLock();
+
+    // Nodes as "host:port"
+    public SeriesClusterRouter(Collection<String> nodes) {
+        this(nodes, SeriesHashRing.DEFAULT_VIRTUAL_NODES, DEFAULT_TIMEOUT);
+    }
+
+    public SeriesClusterRouter(Collection<String> nodes, int virtualNodes, Duration timeout) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A cluster needs at least one node");
+        }
+        for (String node : nodes) {
+            uri(node, "/series", null);
+        }
+        this.ring = new SeriesHashRing(nodes, virtualNodes);
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    @Override
+    public boolean capture(SeriesModel series) {
+        String seriesId = requireId(series.getSeriesId());
+        membership.readLock().lock();
+        try {
+            return outcome(send(ring.nodeFor(seriesId), "POST", seriesPath(seriesId), SeriesJson.write(series)), 201, 409);
+        } finally {
+            membership.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<SeriesModel> find(String seriesId) {
+        requireId(seriesId);
+        membership.readLock().lock();
+        try {
+            HttpResponse<String> response = send(ring.nodeFor(seriesId), "GET", seriesPath(seriesId), null);
+            if (response.statusCode() == 404) {
+                return Optional.empty();
+            }
+            if (response.statusCode() != 200) {
+                throw failure(response);
+            }
+            return Optional.of(SeriesJson.readSeries(response.body()));
+        } finally {
+            membership.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean exists(String seriesId) {
+        return find(seriesId).isPresent();
+    }
+
+    @Override
+    public boolean update(SeriesModel series) {
+        String seriesId = requireId(series.getSeriesId());
+        membership.readLock().lock();
+        try {
+            return outcome(send(ring.nodeFor(seriesId), "PUT", seriesPath(seriesId), SeriesJson.write(series)), 200, 404);
+        } finally {
+            membership.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(String seriesId) {
+        requireId(seriesId);
+        membership.readLock().lock();
+        try {
+            return outcome(send(ring.nodeFor(seriesId), "DELETE", seriesPath(seriesId), null), 204, 404);
+        } finally {
+            membership.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (int nodeSize : nodeSizes().values()) {
+            size += nodeSize;
+        }
+        return size;
+    }
+
+    // Series held by each node, in the order the nodes joined
+    public Map<String, Integer> nodeSizes() {
+        membership.readLock().lock();
+        try {
+            Map<String, Integer> sizes = new LinkedHashMap<>();
+            for (String node : ring.getNodes()) {
+                sizes.put(node, readPage(node, 0, 0).getTotal());
+            }
+            return sizes;
+        } finally {
+            membership.readLock().unlock();
+        }
+    }
+
+    public List<String> getNodes() {
+        return ring.getNodes();
+    }
+
+    // The node that owns this series ID
+    public String nodeFor(String seriesId) {
+        return ring.nodeFor(requireId(seriesId));
+    }
+
+    // Writes one page of the report over the whole cluster in series ID order
+    @Override
+    public int report(Appendable out, int offset, int pageSize) throws IOException {
+        if (offset < 0 || pageSize < 0) {
+            throw new IllegalArgumentException("Offset and page size cannot be negative");
+        }
+        // One past the page, so the report can tell whether the page reaches the end of the cluster
+        int needed = (int) Math.min(Integer.MAX_VALUE, (long) offset + pageSize + 1);
+        membership.readLock().lock();
+        try {
+            List<NodeCursor> cursors = new ArrayList<>();
+            SeriesStatistics.Totals totals = null;
+            for (String node : ring.getNodes()) {
+                NodeCursor cursor = new NodeCursor(node, needed);
+                cursors.add(cursor);
+                totals = totals == null ? cursor.totals : totals.merge(cursor.totals);
+            }
+            return SeriesReport.write(() -> new SeriesShardedCatalog.MergeIterator(cursors, SeriesShardedCatalog.BY_ID),
+                    out, offset, pageSize, SeriesReport.summary(totals));
+        } finally {
+            membership.readLock().unlock();
+        }
+    }
+
+    // Joins a node to the ring and moves to it the series it now owns, returns how many moved
+    public int addNode(String node) {
+        uri(node, "/series", null);
+        membership.writeLock().lock();
+        try {
+            if (!ring.addNode(node)) {
+                return 0;
+            }
+            return rebalance();
+        } finally {
+            membership.writeLock().unlock();
+        }
+    }
+
+    // Takes a node off the ring and moves its series to their new owners, returns how many moved
+    public int removeNode(String node) {
+        membership.writeLock().lock();
+        try {
+            if (!ring.contains(node)) {
+                return 0;
+            }
+            if (ring.getNodes().size() == 1) {
+                throw new IllegalStateException("Cannot remove the last node of the cluster: " + node);
+            }
+            ring.removeNode(node);
+            int moved = 0;
+            for (SeriesModel series : readAll(node)) {
+                move(series, node, ring.nodeFor(series.getSeriesId()));
+                moved++;
+            }
+            return moved;
+        } finally {
+            membership.writeLock().unlock();
+        }
+    }
+
+    // Moves every series that is not on the node owning it, returns how many moved
+    public int rebalance() {
+        membership.writeLock().lock();
+        try {
+            int moved = 0;
+            for (String node : ring.getNodes()) {
+                for (SeriesModel series : readAll(node)) {
+                    String owner = ring.nodeFor(series.getSeriesId());
+                    if (!owner.equals(node)) {
+                        move(series, node, owner);
+                        moved++;
+                    }
+                }
+            }
+            return moved;
+        } finally {
+            membership.writeLock().unlock();
+        }
+    }
+
+    // The nodes keep their own catalogs; the router holds nothing that needs closing
+    @Override
+    public void close() {
+    }
+
+    // Copies first, so a failure between the two calls leaves the series on both nodes
+    private void move(SeriesModel series, String from, String to) {
+        String path = seriesPath(series.getSeriesId());
+        String body = SeriesJson.write(series);
+        HttpResponse<String> copied = send(to, "POST", path, body);
+        if (copied.statusCode() == 409) {
+            // Left behind by an earlier move that failed; the old node has the latest values
+            copied = send(to, "PUT", path, body);
+        }
+        if (copied.statusCode() != 201 && copied.statusCode() != 200) {
+            throw failure(copied);
+        }
+        outcome(send(from, "DELETE", path, null), 204, 404);
+    }
+
+    // Pages resume after the last ID read, so each costs the node the same however many came before
+    private List<SeriesModel> readAll(String node) {
+        List<SeriesModel> all = new ArrayList<>();
+        while (true) {
+            SeriesJson.Page page = readPage(node, idPageQuery(all.isEmpty() ? null : all.get(all.size() - 1), PAGE_SIZE));
+            all.addAll(page.getSeries());
+            if (page.getSeries().size() < PAGE_SIZE) {
+                return all;
+            }
+        }
+    }
+
+    private SeriesJson.Page readPage(String node, int offset, int limit) {
+        return readPage(node, "offset=" + offset + "&limit=" + limit);
+    }
+
+    // A page in ID order after the given series, or the first page (with the node's totals) when it is null
+    private static String idPageQuery(SeriesModel after, int limit) {
+        String query = "order=id&limit=" + limit;
+        return after == null ? query : query + "&after=" + URLEncoder.encode(after.getSeriesId(), StandardCharsets.UTF_8);
+    }
+
+    private SeriesJson.Page readPage(String node, String query) {
+        HttpResponse<String> response = send(node, "GET", "/series", query, null);
+        if (response.statusCode() != 200) {
+            throw failure(response);
+        }
+        return SeriesJson.readPage(response.body());
+    }
+
+    private HttpResponse<String> send(String node, String method, String path, String body) {
+        return send(node, method, path, null, body);
+    }
+
+    private HttpResponse<String> send(String node, String method, String path, String query, String body) {
+        HttpRequest request = HttpRequest.newBuilder(uri(node, path, query))
+                .timeout(timeout)
+                .header("Content-Type", "application/json; charset=utf-8")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Catalog node " + node + " did not answer " + method + " " + path, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted waiting for catalog node " + node));
+        }
+    }
+
+    // True on the success status, false on the expected miss, an exception on anything else
+    private static boolean outcome(HttpResponse<String> response, int success, int miss) {
+        if (response.statusCode() == success) {
+            return true;
+        }
+        if (response.statusCode() == miss) {
+            return false;
+        }
+        throw failure(response);
+    }
+
+    private static RuntimeException failure(HttpResponse<String> response) {
+        String message = errorMessage(response.body());
+        if (response.statusCode() == 400) {
+            return new IllegalArgumentException(message);
+        }
+        return new UncheckedIOException(new IOException("Catalog node answered " + response.statusCode()
+                + " to " + response.request().method() + " " + response.uri() + ": " + message));
+    }
+
+    private static String errorMessage(String body) {
+        try {
+            String error = SeriesJson.readObject(body).get("error");
+            return error != null ? error : body;
+        } catch (IllegalArgumentException e) {
+            return body;
+        }
+    }
+
+    private static String requireId(String seriesId) {
+        if (seriesId == null || seriesId.isEmpty()) {
+            throw new IllegalArgumentException("Series ID is empty");
+        }
+        return seriesId;
+    }
+
+    // The ID is one percent-encoded segment, so "/", "?" or "%" in it cannot change the path
+    private static String seriesPath(String seriesId) {
+        return "/series/" + SeriesHttpServer.encodePathSegment(seriesId);
+    }
+
+    // The path and query are already encoded and are appended as they are
+    private static URI uri(String node, String rawPath, String rawQuery) {
+        int colon = node.lastIndexOf(':');
+        try {
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Node must be host:port: " + node);
+            }
+            int port = Integer.parseInt(node.substring(colon + 1));
+            URI base = new URI("http", null, node.substring(0, colon), port, null, null, null);
+            return URI.create(base + rawPath + (rawQuery == null ? "" : "?" + rawQuery));
+        } catch (NumberFormatException | URISyntaxException e) {
+            throw new IllegalArgumentException("Node must be host:port: " + node, e);
+        }
+    }
+
+    /**
+     * One node's series in ID order, read a page at a time and no further
+     * than the report needs. The first page is read at once and brings the
+     * node's totals, taken at the same moment as that page. Each later page
+     * starts after the last ID read, so a series captured meanwhile is
+     * either in a later page or not at all, never repeated or skipped.
+     */
+    private final class NodeCursor implements Iterator<SeriesModel> {
+        private final String node;
+        private final SeriesStatistics.Totals totals;
+        private int remaining;
+        private SeriesModel lastRead;
+        private Iterator<SeriesModel> page;
+        private boolean last;
+
+        NodeCursor(String node, int needed) {
+            this.node = node;
+            this.remaining = needed;
+            SeriesJson.Page first = fetch();
+            if (first.getTotals() == null) {
+                throw new UncheckedIOException(new IOException("Catalog node " + node + " sent a page without totals"));
+            }
+            this.totals = first.getTotals();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext() && !last) {
+                fetch();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public SeriesModel next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+
+        private SeriesJson.Page fetch() {
+            int limit = Math.min(PAGE_SIZE, remaining);
+            SeriesJson.Page read = readPage(node, idPageQuery(lastRead, limit));
+            List<SeriesModel> series = read.getSeries();
+            page = series.iterator();
+            if (!series.isEmpty()) {
+                lastRead = series.get(series.size() - 1);
+            }
+            remaining -= series.size();
+            last = series.size() < limit || remaining == 0;
+            return read;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Catalog over a SeriesColumnStore, addressed by series ID.
+ *
+ * A delete tombstones the row and drops it from the ID index, both O(1).
+ * A background compactor checks the tombstone ratio every interval and,
+ * once it passes the threshold, rewrites the store without the deleted
+ * rows and renumbers the index. Searches and the report only see live
+ * rows, so callers never notice tombstones or compaction.
+ *
+ * A Bloom filter over the IDs answers lookups, updates and deletes for
+ * IDs that were never captured without touching the index or the store.
+ * It is added to on capture and rebuilt from the live IDs on compaction,
+ * which also clears deleted IDs out of it. filterStats() shows how many
+ * misses it caught and how often it let one through. A deleted ID is still
+ * in the filter until the next rebuild, so a lookup for one is counted on
+ * its own rather than as a false positive.
+ *
+ * A read-write lock guards the store: lookups and reports share it, while
+ * captures, updates, deletes and compaction take it exclusively. find()
+ * returns copies; only the report reads rows through store views, and only
+ * while it holds the lock, so a compaction never moves a row under one.
+ */
+public class SeriesColumnCatalog implements Closeable {
+
+    public static final double DEFAULT_COMPACTION_THRESHOLD = 0.25;
+    public static final long DEFAULT_COMPACTION_INTERVAL_MILLIS = 1000;
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+    static final int MIN_FILTER_SIZE = 1024;
+
+    private final SeriesColumnStore store = new SeriesColumnStore();
+    private final Map<String, Integer> rowById = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final double compactionThreshold;
+    private final ScheduledExecutorService compactor;
+    private final AtomicLong compactions = new AtomicLong();
+    private final double falsePositiveRate;
+    // Replaced whole on rebuild, so lookups may read it without the lock
+    private volatile SeriesBloomFilter filter;
+    private final LongAdder filterLookups = new LongAdder();
+    private final LongAdder filterMisses = new LongAdder();
+    private final LongAdder filterFalsePositives = new LongAdder();
+    private final LongAdder filterDeletedLookups = new LongAdder();
+    // IDs deleted since the filter was last built, still set in it; guarded by the lock
+    private final Set<String> deletedSinceRebuild = new HashSet<>();
+
+    public SeriesColumnCatalog() {
+        this(DEFAULT_COMPACTION_THRESHOLD, DEFAULT_COMPACTION_INTERVAL_MILLIS);
+    }
+
+    // intervalMillis <= 0 turns the background compactor off; compactIfNeeded() can still be called
+    public SeriesColumnCatalog(double compactionThreshold, long intervalMillis) {
+        this(compactionThreshold, intervalMillis, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    // falsePositiveRate is the share of missing IDs the Bloom filter may let through to the store
+    public SeriesColumnCatalog(double compactionThreshold, long intervalMillis, double falsePositiveRate) {
+        if (compactionThreshold <= 0 || compactionThreshold > 1) {
+            throw new IllegalArgumentException("Compaction threshold must be above 0 and at most 1: " + compactionThreshold);
+        }
+        this.compactionThreshold = compactionThreshold;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new SeriesBloomFilter(MIN_FILTER_SIZE, falsePositiveRate);
+        if (intervalMillis > 0) {
+            compactor = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "series-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            compactor.scheduleWithFixedDelay(this::compactIfNeeded, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            compactor = null;
+        }
+    }
+
+    // Adds a new series, returns false when the ID already exists; age and episodes must be numbers
+    public boolean capture(SeriesModel series) {
+        SeriesService.checkAge(series.getSeriesAge());
+        int age = Integer.parseInt(series.getSeriesAge());
+        int episodes = Integer.parseInt(series.getSeriesNumberOfEpisodes());
+        lock.writeLock().lock();
+        try {
+            if (rowById.containsKey(series.getSeriesId())) {
+                return false;
+            }
+            filter.add(series.getSeriesId());
+            deletedSinceRebuild.remove(series.getSeriesId());
+            rowById.put(series.getSeriesId(), store.append(series.getSeriesId(), series.getSeriesName(), age, episodes));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // A copy of the series, or null when the ID is unknown or deleted
+    public SeriesModel find(String seriesId) {
+        if (definitelyMissing(seriesId)) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            Integer row = lookup(seriesId);
+            return row == null ? null : copyOf(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean update(SeriesModel series) {
+        SeriesService.checkAge(series.getSeriesAge());
+        int age = Integer.parseInt(series.getSeriesAge());
+        int episodes = Integer.parseInt(series.getSeriesNumberOfEpisodes());
+        if (definitelyMissing(series.getSeriesId())) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer row = lookup(series.getSeriesId());
+            if (row == null) {
+                return false;
+            }
+            store.setName(row, series.getSeriesName());
+            store.setAge(row, age);
+            store.setEpisodes(row, episodes);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Tombstones the row in O(1); the space comes back at the next compaction
+    public boolean delete(String seriesId) {
+        if (definitelyMissing(seriesId)) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer row = lookup(seriesId);
+            if (row == null) {
+                return false;
+            }
+            rowById.remove(seriesId);
+            deletedSinceRebuild.add(seriesId);
+            store.delete(row);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return store.liveSize();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long totalEpisodes() {
+        lock.readLock().lock();
+        try {
+            return store.totalEpisodes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countByAge(int age) {
+        lock.readLock().lock();
+        try {
+            return store.countByAge(age);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public double tombstoneRatio() {
+        lock.readLock().lock();
+        try {
+            return store.tombstoneRatio();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of compactions run so far
+    public long getCompactionCount() {
+        return compactions.get();
+    }
+
+    // How well the Bloom filter is answering lookups for missing IDs
+    public FilterStats filterStats() {
+        SeriesBloomFilter current = filter;
+        return new FilterStats(filterLookups.sum(), filterMisses.sum(), filterFalsePositives.sum(),
+                filterDeletedLookups.sum(), falsePositiveRate, current.getCurrentFalsePositiveRate());
+    }
+
+    // Report of the live rows in capture order; compaction waits until it is written
+    public int report(Appendable out, int offset, int pageSize) throws IOException {
+        lock.readLock().lock();
+        try {
+            int live = store.liveSize();
+            int[] rows = new int[live];
+            int row = store.nextLiveRow(0);
+            for (int i = 0; i < live; i++) {
+                rows[i] = row;
+                row = store.nextLiveRow(row + 1);
+            }
+            return SeriesReport.write(new AbstractList<SeriesModel>() {
+                @Override
+                public SeriesModel get(int index) {
+                    return store.view(rows[index]);
+                }
+
+                @Override
+                public int size() {
+                    return rows.length;
+                }
+            }, out, offset, pageSize);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Compacts when the tombstone ratio has reached the threshold; returns true when it did
+    // A Bloom filter that has outgrown its size is rebuilt even when no compaction is due
+    public boolean compactIfNeeded() {
+        lock.writeLock().lock();
+        try {
+            if (store.deletedCount() == 0 || store.tombstoneRatio() < compactionThreshold) {
+                if (filter.isSaturated()) {
+                    rebuildFilter();
+                }
+                return false;
+            }
+            int[] remap = store.compact();
+            for (Map.Entry<String, Integer> entry : rowById.entrySet()) {
+                entry.setValue(remap[entry.getValue()]);
+            }
+            rebuildFilter();
+            compactions.incrementAndGet();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (compactor != null) {
+            compactor.shutdownNow();
+        }
+    }
+
+    // True when the filter rules the ID out; counted for filterStats()
+    private boolean definitelyMissing(String seriesId) {
+        filterLookups.increment();
+        if (filter.mightContain(seriesId)) {
+            return false;
+        }
+        filterMisses.increment();
+        return true;
+    }
+
+    // Index lookup after the filter let the ID through; a miss here was a false positive unless the ID was deleted
+    private Integer lookup(String seriesId) {
+        Integer row = rowById.get(seriesId);
+        if (row == null) {
+            if (deletedSinceRebuild.contains(seriesId)) {
+                filterDeletedLookups.increment();
+            } else {
+                filterFalsePositives.increment();
+            }
+        }
+        return row;
+    }
+
+    // Sized for twice the live IDs so captures can carry on for a while before the next rebuild
+    private void rebuildFilter() {
+        SeriesBloomFilter rebuilt = new SeriesBloomFilter(Math.max(MIN_FILTER_SIZE, 2L * rowById.size()), falsePositiveRate);
+        for (String seriesId : rowById.keySet()) {
+            rebuilt.add(seriesId);
+        }
+        filter = rebuilt;
+        deletedSinceRebuild.clear();
+    }
+
+    private SeriesModel copyOf(int row) {
+        return new SeriesModel(store.getId(row), store.getName(row),
+                Integer.toString(store.getAge(row)), Integer.toString(store.getEpisodes(row)));
+    }
+
+    /**
+     * Bloom filter figures since the catalog was opened. A false positive
+     * is an ID the filter let through that the index then did not have and
+     * that was never captured since the last rebuild; one that was captured
+     * and then deleted is a deleted lookup instead.
+     */
+    public static class FilterStats {
+        private final long lookups;
+        private final long definiteMisses;
+        private final long falsePositives;
+        private final long deletedLookups;
+        private final double targetFalsePositiveRate;
+        private final double currentFalsePositiveRate;
+
+        FilterStats(long lookups, long definiteMisses, long falsePositives, long deletedLookups,
+                double targetFalsePositiveRate, double currentFalsePositiveRate) {
+            this.lookups = lookups;
+            this.definiteMisses = definiteMisses;
+            this.falsePositives = falsePositives;
+            this.deletedLookups = deletedLookups;
+            this.targetFalsePositiveRate = targetFalsePositiveRate;
+            this.currentFalsePositiveRate = currentFalsePositiveRate;
+        }
+
+        public long getLookups() { return lookups; }
+        public long getDefiniteMisses() { return definiteMisses; }
+        public long getFalsePositives() { return falsePositives; }
+        public long getDeletedLookups() { return deletedLookups; }
+        public double getTargetFalsePositiveRate() { return targetFalsePositiveRate; }
+        public double getCurrentFalsePositiveRate() { return currentFalsePositiveRate; }
+
+        // Share of lookups for missing IDs that the filter failed to catch
+        public double getObservedFalsePositiveRate() {
+            long missing = definiteMisses + falsePositives;
+            return missing == 0 ? 0 : (double) falsePositives / missing;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Column-oriented (struct-of-arrays) store for a large series catalog.
+ * Age restriction and episodes are kept in primitive int columns and IDs
+ * and names are packed as UTF-8 into shared byte arrays with offsets, so
+ * a row costs a few dozen bytes instead of a SeriesModel plus four Strings.
+ * Rows are addressed by position; callers keep their own ID index.
+ *
+ * Deleting a row only sets its bit in a tombstone bitmap, so a delete is
+ * O(1) and never shifts later rows. Scans skip deleted rows and reading
+ * one is an error. compact() rewrites the columns without deleted rows
+ * or stale name bytes and returns where each old row went, so callers
+ * can fix their index. A view from view() stops working once the store
+ * is compacted, since its row may then hold another series. The store is
+ * not thread-safe; SeriesColumnCatalog adds locking and background
+ * compaction.
+ */
+public class SeriesColumnStore {
+
+    private static final int INITIAL_ROWS = 16;
+
+    private int size;
+    private int deletedRows;
+    // Bumped by compact(), which moves rows, so views can tell their row number is stale
+    private int generation;
+    private long[] deleted = new long[(INITIAL_ROWS + 63) / 64];
+    private int[] ages = new int[INITIAL_ROWS];
+    private int[] episodes = new int[INITIAL_ROWS];
+    private int[] idOffsets = new int[INITIAL_ROWS];
+    private int[] idLengths = new int[INITIAL_ROWS];
+    private int[] nameOffsets = new int[INITIAL_ROWS];
+    private int[] nameLengths = new int[INITIAL_ROWS];
+    private byte[] idBytes = new byte[INITIAL_ROWS * 8];
+    private byte[] nameBytes = new byte[INITIAL_ROWS * 16];
+    private int idBytesUsed;
+    private int nameBytesUsed;
+
+    // Appends a row and returns its position
+    public int append(String seriesId, String seriesName, int seriesAge, int seriesNumberOfEpisodes) {
+        ensureRowCapacity(size + 1);
+        int row = size;
+        ages[row] = seriesAge;
+        episodes[row] = seriesNumberOfEpisodes;
+        writeId(row, seriesId);
+        writeName(row, seriesName);
+        size++;
+        return row;
+    }
+
+    // Appends a SeriesModel, whose age and episodes must be numbers
+    public int append(SeriesModel series) {
+        return append(series.getSeriesId(), series.getSeriesName(),
+                Integer.parseInt(series.getSeriesAge()), Integer.parseInt(series.getSeriesNumberOfEpisodes()));
+    }
+
+    // Rows appended so far, including deleted rows until the next compaction
+    public int size() {
+        return size;
+    }
+
+    public int liveSize() {
+        return size - deletedRows;
+    }
+
+    public int deletedCount() {
+        return deletedRows;
+    }
+
+    // Share of rows that are tombstones, 0 for an empty store
+    public double tombstoneRatio() {
+        return size == 0 ? 0 : (double) deletedRows / size;
+    }
+
+    // Marks the row deleted; returns false when it already was
+    public boolean delete(int row) {
+        checkBounds(row);
+        if (isDeleted(row)) {
+            return false;
+        }
+        deleted[row >>> 6] |= 1L << row;
+        deletedRows++;
+        return true;
+    }
+
+    public boolean isDeleted(int row) {
+        checkBounds(row);
+        return (deleted[row >>> 6] & (1L << row)) != 0;
+    }
+
+    // Next live row at or after the given row, or -1 when there is none
+    public int nextLiveRow(int row) {
+        for (int next = Math.max(row, 0); next < size; next++) {
+            if ((deleted[next >>> 6] & (1L << next)) == 0) {
+                return next;
+            }
+        }
+        return -1;
+    }
+
+    // Drops deleted rows and unused name bytes; returns the new row of each old row, -1 for deleted rows
+    public int[] compact() {
+        int[] remap = new int[size];
+        int live = liveSize();
+        int capacity = Math.max(INITIAL_ROWS, live);
+        int[] newAges = new int[capacity];
+        int[] newEpisodes = new int[capacity];
+        int[] newIdOffsets = new int[capacity];
+        int[] newIdLengths = new int[capacity];
+        int[] newNameOffsets = new int[capacity];
+        int[] newNameLengths = new int[capacity];
+        int idBytesLive = 0;
+        int nameBytesLive = 0;
+        for (int row = 0; row < size; row++) {
+            if (!isDeleted(row)) {
+                idBytesLive += idLengths[row];
+                nameBytesLive += nameLengths[row];
+            }
+        }
+        byte[] newIdBytes = new byte[Math.max(idBytesLive, INITIAL_ROWS * 8)];
+        byte[] newNameBytes = new byte[Math.max(nameBytesLive, INITIAL_ROWS * 16)];
+        int newRow = 0;
+        int idUsed = 0;
+        int nameUsed = 0;
+        for (int row = 0; row < size; row++) {
+            if (isDeleted(row)) {
+                remap[row] = -1;
+                continue;
+            }
+            newAges[newRow] = ages[row];
+            newEpisodes[newRow] = episodes[row];
+            System.arraycopy(idBytes, idOffsets[row], newIdBytes, idUsed, idLengths[row]);
+            newIdOffsets[newRow] = idUsed;
+            newIdLengths[newRow] = idLengths[row];
+            idUsed += idLengths[row];
+            System.arraycopy(nameBytes, nameOffsets[row], newNameBytes, nameUsed, nameLengths[row]);
+            newNameOffsets[newRow] = nameUsed;
+            newNameLengths[newRow] = nameLengths[row];
+            nameUsed += nameLengths[row];
+            remap[row] = newRow++;
+        }
+        ages = newAges;
+        episodes = newEpisodes;
+        idOffsets = newIdOffsets;
+        idLengths = newIdLengths;
+        nameOffsets = newNameOffsets;
+        nameLengths = newNameLengths;
+        idBytes = newIdBytes;
+        nameBytes = newNameBytes;
+        idBytesUsed = idUsed;
+        nameBytesUsed = nameUsed;
+        deleted = new long[(capacity + 63) / 64];
+        deletedRows = 0;
+        size = live;
+        generation++;
+        return remap;
+    }
+
+    public String getId(int row) {
+        checkRow(row);
+        return new String(idBytes, idOffsets[row], idLengths[row], StandardCharsets.UTF_8);
+    }
+
+    public String getName(int row) {
+        checkRow(row);
+        return new String(nameBytes, nameOffsets[row], nameLengths[row], StandardCharsets.UTF_8);
+    }
+
+    public int getAge(int row) {
+        checkRow(row);
+        return ages[row];
+    }
+
+    public int getEpisodes(int row) {
+        checkRow(row);
+        return episodes[row];
+    }
+
+    // A rename appends the new bytes; the old bytes stay unused until the store is rebuilt
+    public void setName(int row, String seriesName) {
+        checkRow(row);
+        writeName(row, seriesName);
+    }
+
+    public void setAge(int row, int seriesAge) {
+        checkRow(row);
+        ages[row] = seriesAge;
+    }
+
+    public void setEpisodes(int row, int seriesNumberOfEpisodes) {
+        checkRow(row);
+        episodes[row] = seriesNumberOfEpisodes;
+    }
+
+    // SeriesModel view over a row; reads and writes go straight to the columns until the next compaction
+    public SeriesModel view(int row) {
+        checkRow(row);
+        return new RowView(this, row, generation);
+    }
+
+    // Total episodes over all live rows, a sequential scan of one int column
+    public long totalEpisodes() {
+        long total = 0;
+        for (int row = 0; row < size; row++) {
+            if ((deleted[row >>> 6] & (1L << row)) == 0) {
+                total += episodes[row];
+            }
+        }
+        return total;
+    }
+
+    // Number of live rows with exactly this age restriction
+    public int countByAge(int age) {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (ages[row] == age && (deleted[row >>> 6] & (1L << row)) == 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void writeId(int row, String seriesId) {
+        byte[] bytes = seriesId.getBytes(StandardCharsets.UTF_8);
+        idBytes = ensureByteCapacity(idBytes, idBytesUsed + bytes.length);
+        System.arraycopy(bytes, 0, idBytes, idBytesUsed, bytes.length);
+        idOffsets[row] = idBytesUsed;
+        idLengths[row] = bytes.length;
+        idBytesUsed += bytes.length;
+    }
+
+    private void writeName(int row, String seriesName) {
+        byte[] bytes = seriesName.getBytes(StandardCharsets.UTF_8);
+        nameBytes = ensureByteCapacity(nameBytes, nameBytesUsed + bytes.length);
+        System.arraycopy(bytes, 0, nameBytes, nameBytesUsed, bytes.length);
+        nameOffsets[row] = nameBytesUsed;
+        nameLengths[row] = bytes.length;
+        nameBytesUsed += bytes.length;
+    }
+
+    private void ensureRowCapacity(int rows) {
+        if (rows <= ages.length) {
+            return;
+        }
+        int capacity = Math.max(rows, ages.length * 2);
+        ages = Arrays.copyOf(ages, capacity);
+        episodes = Arrays.copyOf(episodes, capacity);
+        idOffsets = Arrays.copyOf(idOffsets, capacity);
+        idLengths = Arrays.copyOf(idLengths, capacity);
+        nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+        nameLengths = Arrays.copyOf(nameLengths, capacity);
+        deleted = Arrays.copyOf(deleted, (capacity + 63) / 64);
+    }
+
+    private static byte[] ensureByteCapacity(byte[] bytes, int needed) {
+        if (needed <= bytes.length) {
+            return bytes;
+        }
+        return Arrays.copyOf(bytes, Math.max(needed, bytes.length * 2));
+    }
+
+    private void checkRow(int row) {
+        checkBounds(row);
+        if (isDeleted(row)) {
+            throw new IndexOutOfBoundsException("Row " + row + " was deleted");
+        }
+    }
+
+    private void checkBounds(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside 0-" + (size - 1));
+        }
+    }
+
+    /**
+     * SeriesModel backed by one row of the store. It holds only the store,
+     * the row number and the store generation it was made in, and decodes
+     * fields when a getter is called. After a compaction the row number
+     * may belong to another series, so every read or write then throws
+     * IllegalStateException instead.
+     */
+    static class RowView extends SeriesModel {
+
+        private final SeriesColumnStore store;
+        private final int row;
+        private final int generation;
+
+        RowView(SeriesColumnStore store, int row, int generation) {
+            this.store = store;
+            this.row = row;
+            this.generation = generation;
+        }
+
+        @Override
+        public String getSeriesId() { return store.getId(row()); }
+        @Override
+        public String getSeriesName() { return store.getName(row()); }
+        @Override
+        public String getSeriesAge() { return Integer.toString(store.getAge(row())); }
+        @Override
+        public String getSeriesNumberOfEpisodes() { return Integer.toString(store.getEpisodes(row())); }
+
+        // The ID is the row's identity in the store and cannot change
+        @Override
+        public void setSeriesId(String seriesId) {
+            throw new UnsupportedOperationException("Series ID of a stored row cannot be changed");
+        }
+        @Override
+        public void setSeriesName(String seriesName) { store.setName(row(), seriesName); }
+        @Override
+        public void setSeriesAge(String seriesAge) { store.setAge(row(), Integer.parseInt(seriesAge)); }
+        @Override
+        public void setSeriesNumberOfEpisodes(String seriesNumberOfEpisodes) {
+            store.setEpisodes(row(), Integer.parseInt(seriesNumberOfEpisodes));
+        }
+
+        private int row() {
+            if (store.generation != generation) {
+                throw new IllegalStateException("Row " + row + " was moved by a compaction; look the series up again");
+            }
+            return row;
+        }
+    }
+}
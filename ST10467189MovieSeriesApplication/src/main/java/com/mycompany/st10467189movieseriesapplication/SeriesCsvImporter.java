@@ -0,0 +1,269 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk loader for CSV or TSV files of id, name, age and episodes.
+ *
+ * The file is read in chunks of lines. Chunks are parsed and validated on
+ * a pool of worker threads, with a bounded number in flight, and inserted
+ * into the catalog in file order so duplicate handling is deterministic.
+ * Rows that fail validation or repeat an existing ID are written to the
+ * error file as "line: reason: original row", in line order. A first line
+ * whose first column is "id" or "seriesId" is treated as a header.
+ *
+ * Start the application with -Dseries.import=<file> to import a file into
+ * the catalog before the menu opens.
+ */
+public class SeriesCsvImporter {
+
+    public static final int DEFAULT_CHUNK_SIZE = 10_000;
+
+    private final char delimiter;
+    private final int chunkSize;
+    private final int threads;
+
+    public SeriesCsvImporter(char delimiter) {
+        this(delimiter, DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    public SeriesCsvImporter(char delimiter, int chunkSize, int threads) {
+        if (chunkSize < 1 || threads < 1) {
+            throw new IllegalArgumentException("Chunk size and thread count must be at least 1");
+        }
+        this.delimiter = delimiter;
+        this.chunkSize = chunkSize;
+        this.threads = threads;
+    }
+
+    // Picks tab for .tsv files and comma for everything else
+    public static SeriesCsvImporter forFile(Path source) {
+        return new SeriesCsvImporter(source.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".tsv") ? '\t' : ',');
+    }
+
+    // Imports every valid row into the catalog; errorFile may be null to discard rejected rows
+    public ImportResult importFile(Path source, Path errorFile, SeriesService target) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ImportResult result = new ImportResult();
+        try (BufferedReader in = Files.newBufferedReader(source, StandardCharsets.UTF_8);
+             BufferedWriter errors = errorFile == null ? null : Files.newBufferedWriter(errorFile, StandardCharsets.UTF_8)) {
+            Deque<Future<ParsedChunk>> inFlight = new ArrayDeque<>();
+            int lineNumber = 0;
+            List<String> lines = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && isHeader(line)) {
+                    continue;
+                }
+                lines.add(line);
+                if (lines.size() == chunkSize) {
+                    inFlight.add(submit(pool, lines, lineNumber - lines.size() + 1));
+                    lines = new ArrayList<>(chunkSize);
+                    if (inFlight.size() >= threads * 2) {
+                        insert(await(inFlight.poll()), target, errors, result);
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                inFlight.add(submit(pool, lines, lineNumber - lines.size() + 1));
+            }
+            while (!inFlight.isEmpty()) {
+                insert(await(inFlight.poll()), target, errors, result);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return result;
+    }
+
+    private Future<ParsedChunk> submit(ExecutorService pool, List<String> lines, int firstLine) {
+        return pool.submit(() -> parse(lines, firstLine));
+    }
+
+    private ParsedChunk parse(List<String> lines, int firstLine) {
+        ParsedChunk chunk = new ParsedChunk(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            int lineNumber = firstLine + i;
+            String line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = split(line);
+            String error = validate(fields);
+            if (error != null) {
+                chunk.reject(lineNumber, error, line);
+            } else {
+                chunk.accept(lineNumber, new SeriesModel(fields.get(0), fields.get(1), fields.get(2), fields.get(3)), line);
+            }
+        }
+        return chunk;
+    }
+
+    // Same age rule and messages as captureSeries(); returns null when the row is valid
+    static String validate(List<String> fields) {
+        if (fields.size() != 4) {
+            return "Expected 4 fields (id, name, age, episodes) but found " + fields.size();
+        }
+        if (fields.get(0).isEmpty()) {
+            return "Series ID is empty";
+        }
+        try {
+            int age = Integer.parseInt(fields.get(2));
+            if (!SeriesService.isValidAgeRestriction(age)) {
+                return "You have entered an incorrect age restriction: " + fields.get(2);
+            }
+        } catch (NumberFormatException e) {
+            return "You have entered an incorrect non-number age restriction!";
+        }
+        return null;
+    }
+
+    // Splits one line, honouring double-quoted fields and "" escapes; fields are trimmed
+    List<String> split(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private boolean isHeader(String line) {
+        String first = split(line).get(0);
+        return first.equalsIgnoreCase("id") || first.equalsIgnoreCase("seriesId");
+    }
+
+    private static void insert(ParsedChunk chunk, SeriesService target, BufferedWriter errors, ImportResult result) throws IOException {
+        Set<SeriesModel> duplicates = Collections.newSetFromMap(new IdentityHashMap<>());
+        duplicates.addAll(target.importSeries(chunk.valid));
+        for (int i = 0; i < chunk.valid.size(); i++) {
+            SeriesModel series = chunk.valid.get(i);
+            if (duplicates.contains(series)) {
+                chunk.reject(chunk.validLines.get(i), "Series with Series ID: " + series.getSeriesId() + " already exists!",
+                        chunk.validRows.get(i));
+            }
+        }
+        result.accepted += chunk.valid.size() - duplicates.size();
+        result.rejected += chunk.errors.size();
+        if (errors != null) {
+            // Duplicates are only known after validation, so merge them back into line order
+            chunk.errors.sort(Comparator.comparingInt(Rejection::getLineNumber));
+            for (Rejection error : chunk.errors) {
+                errors.write(error.toString());
+                errors.newLine();
+            }
+        }
+    }
+
+    private static ParsedChunk await(Future<ParsedChunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not parse import chunk", e.getCause());
+        }
+    }
+
+    /**
+     * Rows of one chunk: valid series with their line numbers and original
+     * rows, and the rejected rows.
+     */
+    private static class ParsedChunk {
+        private final List<SeriesModel> valid;
+        private final List<Integer> validLines;
+        private final List<String> validRows;
+        private final List<Rejection> errors = new ArrayList<>();
+
+        ParsedChunk(int capacity) {
+            valid = new ArrayList<>(capacity);
+            validLines = new ArrayList<>(capacity);
+            validRows = new ArrayList<>(capacity);
+        }
+
+        void accept(int lineNumber, SeriesModel series, String line) {
+            valid.add(series);
+            validLines.add(lineNumber);
+            validRows.add(line);
+        }
+
+        void reject(int lineNumber, String reason, String line) {
+            errors.add(new Rejection(lineNumber, reason, line));
+        }
+    }
+
+    /**
+     * One rejected row, written as "line: reason: original row".
+     */
+    private static class Rejection {
+        private final int lineNumber;
+        private final String reason;
+        private final String line;
+
+        Rejection(int lineNumber, String reason, String line) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+            this.line = line;
+        }
+
+        int getLineNumber() { return lineNumber; }
+
+        @Override
+        public String toString() {
+            return lineNumber + ": " + reason + ": " + line;
+        }
+    }
+
+    /**
+     * Counts of rows imported and rows written to the error file.
+     */
+    public static class ImportResult {
+        private long accepted;
+        private long rejected;
+
+        public long getAccepted() { return accepted; }
+        public long getRejected() { return rejected; }
+    }
+}
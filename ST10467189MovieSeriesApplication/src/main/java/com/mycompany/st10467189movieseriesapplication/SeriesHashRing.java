@@ -0,0 +1,123 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring that decides which catalog node owns a series ID.
+ *
+ * Every node is placed on a 64-bit ring at many points (virtual nodes),
+ * and a series belongs to the first node point at or after the hash of
+ * its ID, wrapping around at the end. Adding a node only takes over the
+ * arcs in front of its own points, so about 1/N of the IDs move to it and
+ * none move between the old nodes; removing a node hands its arcs to the
+ * nodes that follow. The more points per node, the more even the split.
+ *
+ * The ring is copied on change, so lookups never lock and always see a
+ * whole ring.
+ */
+public class SeriesHashRing {
+
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private final int virtualNodes;
+    private volatile Ring ring = new Ring(new TreeMap<>(), Collections.emptySet());
+
+    public SeriesHashRing() {
+        this(DEFAULT_VIRTUAL_NODES);
+    }
+
+    public SeriesHashRing(int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("A node needs at least one point on the ring: " + virtualNodes);
+        }
+        this.virtualNodes = virtualNodes;
+    }
+
+    public SeriesHashRing(Collection<String> nodes, int virtualNodes) {
+        this(virtualNodes);
+        for (String node : nodes) {
+            addNode(node);
+        }
+    }
+
+    // Places a node on the ring, returns false when it is already there
+    public synchronized boolean addNode(String node) {
+        Ring current = ring;
+        if (current.nodes.contains(node)) {
+            return false;
+        }
+        TreeMap<Long, String> points = new TreeMap<>(current.points);
+        for (int i = 0; i < virtualNodes; i++) {
+            // On the rare hash collision the point stays with the node that had it first
+            points.putIfAbsent(pointHash(node, i), node);
+        }
+        Set<String> nodes = new LinkedHashSet<>(current.nodes);
+        nodes.add(node);
+        ring = new Ring(points, nodes);
+        return true;
+    }
+
+    // Takes a node off the ring, returns false when it was not there
+    public synchronized boolean removeNode(String node) {
+        Ring current = ring;
+        if (!current.nodes.contains(node)) {
+            return false;
+        }
+        TreeMap<Long, String> points = new TreeMap<>(current.points);
+        points.values().removeIf(node::equals);
+        Set<String> nodes = new LinkedHashSet<>(current.nodes);
+        nodes.remove(node);
+        ring = new Ring(points, nodes);
+        return true;
+    }
+
+    // The node that owns this series ID
+    public String nodeFor(String seriesId) {
+        TreeMap<Long, String> points = ring.points;
+        if (points.isEmpty()) {
+            throw new IllegalStateException("The ring has no nodes");
+        }
+        Map.Entry<Long, String> owner = points.ceilingEntry(SeriesBloomFilter.hash(seriesId));
+        return owner != null ? owner.getValue() : points.firstEntry().getValue();
+    }
+
+    // Nodes in the order they were added
+    public List<String> getNodes() {
+        return new ArrayList<>(ring.nodes);
+    }
+
+    public boolean contains(String node) {
+        return ring.nodes.contains(node);
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    private static long pointHash(String node, int point) {
+        return SeriesBloomFilter.hash(node + '#' + point);
+    }
+
+    /**
+     * One immutable version of the ring: its points and its nodes.
+     */
+    private static final class Ring {
+        private final TreeMap<Long, String> points;
+        private final Set<String> nodes;
+
+        Ring(TreeMap<Long, String> points, Set<String> nodes) {
+            this.points = points;
+            this.nodes = nodes;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP/JSON front end over a SeriesService, built on the JDK's embedded
+ * server.
+ *
+ *   GET    /series?offset=0&limit=100  one page of series in capture order
+ *   GET    /series?order=id&...        one page in series ID order, with the
+ *                                      catalog totals taken at the same time
+ *   GET    /series?order=id&after={id} the page after that ID, which costs
+ *                                      the same however deep it is
+ *   POST   /series                     capture (ID taken from the body)
+ *   GET    /series/{id}                one series
+ *   POST   /series/{id}                capture with the ID from the path
+ *   PUT    /series/{id}                update name, age and episodes
+ *   DELETE /series/{id}                delete
+ *
+ * The {id} is one percent-encoded path segment, so an ID may hold "/",
+ * "?" or any other character (encodePathSegment() does the encoding).
+ *
+ * Connections are kept alive between requests: every response is sent
+ * with a known length. Requests run on a bounded pool, or on virtual
+ * threads when the JDK has them; when the pool's queue is full the
+ * accepting thread runs the request itself, which slows new arrivals.
+ *
+ * The JDK server writes headers and body separately, so without
+ * -Dsun.net.httpserver.nodelay=true each small response on a kept-alive
+ * connection waits for the client's delayed ACK (about 40ms on loopback).
+ * That switch is JVM-wide and read once, when the first server is
+ * created, so it is left to the application's startup, not set here.
+ */
+public class SeriesHttpServer {
+
+    public static final int DEFAULT_MAX_PAGE_SIZE = 1000;
+    static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private final SeriesService catalog;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    // threads <= 0 asks for virtual threads, falling back to a pool sized to the CPUs before JDK 21
+    public SeriesHttpServer(SeriesService catalog, InetSocketAddress address, int threads) throws IOException {
+        this.catalog = catalog;
+        this.executor = threads > 0 ? boundedPool(threads) : virtualThreadsOrPool();
+        this.server = HttpServer.create(address, 0);
+        server.createContext("/series", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    // Waits up to delaySeconds for requests in progress, then stops the pool
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The bound port, useful when the server was created on port 0
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            route(exchange);
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getRawPath();
+            String method = exchange.getRequestMethod();
+            if (path.equals("/series") || path.equals("/series/")) {
+                if (method.equals("GET")) {
+                    listSeries(exchange);
+                } else if (method.equals("POST")) {
+                    captureSeries(exchange, null);
+                } else {
+                    sendError(exchange, 405, "Method not allowed: " + method);
+                }
+                return;
+            }
+            // The context also matches "/seriesXY...", which names no series
+            String segment = path.startsWith("/series/") ? path.substring("/series/".length()) : "";
+            if (segment.isEmpty() || segment.indexOf('/') >= 0) {
+                sendError(exchange, 404, "Not found: " + path);
+                return;
+            }
+            String seriesId = decodePathSegment(segment);
+            switch (method) {
+                case "GET":
+                    searchSeries(exchange, seriesId);
+                    break;
+                case "POST":
+                    captureSeries(exchange, seriesId);
+                    break;
+                case "PUT":
+                    updateSeries(exchange, seriesId);
+                    break;
+                case "DELETE":
+                    deleteSeries(exchange, seriesId);
+                    break;
+                default:
+                    sendError(exchange, 405, "Method not allowed: " + method);
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (UncheckedIOException e) {
+            sendError(exchange, 500, e.getMessage());
+        }
+    }
+
+    private void listSeries(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        int offset = parseInt(query.get("offset"), 0, "offset");
+        int limit = Math.min(parseInt(query.get("limit"), 100, "limit"), DEFAULT_MAX_PAGE_SIZE);
+        String order = query.get("order");
+        if (order == null) {
+            SeriesService.ListPage page = catalog.listPage(offset, limit);
+            send(exchange, 200, SeriesJson.writePage(page.getSeries(), offset, limit, page.getTotal()));
+            return;
+        }
+        if (!order.equals("id")) {
+            throw new IllegalArgumentException("order must be id: " + order);
+        }
+        String after = query.get("after");
+        if (after != null || offset == 0) {
+            // Resumes from the ID index, so the page costs limit steps however far into the catalog it is
+            if (after != null && offset != 0) {
+                throw new IllegalArgumentException("offset cannot be used with after");
+            }
+            SeriesService.ReportSlice slice = catalog.pageById(after, limit);
+            SeriesStatistics.Totals totals = slice.getTotals();
+            int total = totals != null ? (int) totals.summary().getSeriesCount() : catalog.size();
+            send(exchange, 200, SeriesJson.writePage(slice.getSeries(), 0, limit, total, totals));
+            return;
+        }
+        // Only the first offset + limit series are kept while the catalog is scanned
+        SeriesService.ReportSlice slice = catalog.reportSlice((int) Math.min(Integer.MAX_VALUE, (long) offset + limit),
+                SeriesShardedCatalog.BY_ID);
+        List<SeriesModel> first = slice.getSeries();
+        List<SeriesModel> page = first.subList(Math.min(offset, first.size()), first.size());
+        int total = (int) slice.getTotals().summary().getSeriesCount();
+        send(exchange, 200, SeriesJson.writePage(page, offset, limit, total, slice.getTotals()));
+    }
+
+    private void searchSeries(HttpExchange exchange, String seriesId) throws IOException {
+        SeriesModel series = catalog.find(seriesId).orElse(null);
+        if (series == null) {
+            sendError(exchange, 404, "Series with Series ID: " + seriesId + " was not found!");
+        } else {
+            send(exchange, 200, SeriesJson.write(series));
+        }
+    }
+
+    private void captureSeries(HttpExchange exchange, String pathId) throws IOException {
+        SeriesModel series = readSeries(exchange, pathId);
+        if (catalog.capture(series)) {
+            exchange.getResponseHeaders().set("Location", "/series/" + encodePathSegment(series.getSeriesId()));
+            send(exchange, 201, SeriesJson.write(series));
+        } else {
+            sendError(exchange, 409, "Series with Series ID: " + series.getSeriesId() + " already exists!");
+        }
+    }
+
+    private void updateSeries(HttpExchange exchange, String seriesId) throws IOException {
+        SeriesModel series = readSeries(exchange, seriesId);
+        if (catalog.update(series)) {
+            send(exchange, 200, SeriesJson.write(series));
+        } else {
+            sendError(exchange, 404, "Series with Series ID: " + seriesId + " was not found!");
+        }
+    }
+
+    private void deleteSeries(HttpExchange exchange, String seriesId) throws IOException {
+        if (catalog.delete(seriesId)) {
+            // A response without a body ends the exchange at once, and the JDK server drops a
+            // kept-alive connection whose request body was not read yet
+            exchange.getRequestBody().close();
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            sendError(exchange, 404, "Series with Series ID: " + seriesId + " was not found!");
+        }
+    }
+
+    // The ID in the path wins; a different ID in the body is an error
+    private static SeriesModel readSeries(HttpExchange exchange, String pathId) throws IOException {
+        SeriesModel series = SeriesJson.readSeries(readBody(exchange));
+        if (pathId != null) {
+            if (series.getSeriesId() != null && !series.getSeriesId().equals(pathId)) {
+                throw new IllegalArgumentException("Series ID in the body does not match the path: " + series.getSeriesId());
+            }
+            series.setSeriesId(pathId);
+        }
+        if (series.getSeriesId() == null || series.getSeriesId().isEmpty()) {
+            throw new IllegalArgumentException("Series ID is empty");
+        }
+        if (series.getSeriesName() == null || series.getSeriesNumberOfEpisodes() == null) {
+            throw new IllegalArgumentException("seriesName, seriesAge and seriesNumberOfEpisodes are required");
+        }
+        return series;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body is larger than " + MAX_BODY_BYTES + " bytes");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    // Percent-encodes a series ID as one path segment; spaces become %20 rather than "+"
+    static String encodePathSegment(String seriesId) {
+        return URLEncoder.encode(seriesId, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    // A "+" in a path is a plus sign, not a space as in a query
+    static String decodePathSegment(String segment) {
+        return URLDecoder.decode(segment.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static int parseInt(String value, int defaultValue, String name) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int number = Integer.parseInt(value);
+            if (number >= 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Falls through to the same error as a negative number
+        }
+        throw new IllegalArgumentException(name + " must be a number of 0 or more: " + value);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, SeriesJson.writeError(message));
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static ExecutorService boundedPool(int threads) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 64), new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    // Looked up by reflection so the project still builds for JDK 17
+    private static ExecutorService virtualThreadsOrPool() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return boundedPool(Runtime.getRuntime().availableProcessors() * 4);
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON for series records. Only what the HTTP API needs: writing
+ * series and page objects, and reading one flat object of string or
+ * number fields. Nested objects and arrays are rejected when reading,
+ * except for the series and totals arrays of a page.
+ */
+public class SeriesJson {
+
+    private SeriesJson() {
+    }
+
+    public static String write(SeriesModel series) {
+        StringBuilder json = new StringBuilder(128);
+        appendSeries(json, series);
+        return json.toString();
+    }
+
+    // {"offset":..,"limit":..,"total":..,"series":[...]}
+    public static String writePage(List<SeriesModel> page, int offset, int limit, int total) {
+        return writePage(page, offset, limit, total, null);
+    }
+
+    // As above, followed by "totals":[{"age":0,...},{"age":2,...},...] when totals is not null; age 0 is the whole catalog
+    public static String writePage(List<SeriesModel> page, int offset, int limit, int total, SeriesStatistics.Totals totals) {
+        StringBuilder json = new StringBuilder(64 + page.size() * 128 + (totals == null ? 0 : 2048));
+        json.append("{\"offset\":").append(offset)
+            .append(",\"limit\":").append(limit)
+            .append(",\"total\":").append(total)
+            .append(",\"series\":[");
+        for (int i = 0; i < page.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendSeries(json, page.get(i));
+        }
+        json.append(']');
+        if (totals != null) {
+            json.append(",\"totals\":[");
+            appendSummary(json, 0, totals.summary());
+            for (int age = SeriesAgeIndex.MIN_AGE; age <= SeriesAgeIndex.MAX_AGE; age++) {
+                json.append(',');
+                appendSummary(json, age, totals.summary(age));
+            }
+            json.append(']');
+        }
+        return json.append('}').toString();
+    }
+
+    public static String writeError(String message) {
+        StringBuilder json = new StringBuilder(message.length() + 16);
+        json.append("{\"error\":");
+        appendString(json, message);
+        return json.append('}').toString();
+    }
+
+    // Reads the fields of one series; fields missing from the object are null
+    public static SeriesModel readSeries(String json) {
+        Map<String, String> fields = readObject(json);
+        return new SeriesModel(fields.get("seriesId"), fields.get("seriesName"),
+                fields.get("seriesAge"), fields.get("seriesNumberOfEpisodes"));
+    }
+
+    // Parses a flat object; numbers, booleans and null are returned as their text
+    public static Map<String, String> readObject(String json) {
+        Parser parser = new Parser(json);
+        parser.skipSpace();
+        Map<String, String> fields = readFields(parser);
+        parser.expectEnd();
+        return fields;
+    }
+
+    // Reads a page written by writePage
+    public static Page readPage(String json) {
+        Parser parser = new Parser(json);
+        Map<String, String> fields = new LinkedHashMap<>();
+        List<SeriesModel> series = new ArrayList<>();
+        SeriesStatistics.Totals totals = null;
+        parser.skipSpace();
+        parser.expect('{');
+        parser.skipSpace();
+        while (parser.peek() != '}') {
+            String name = parser.readString();
+            parser.skipSpace();
+            parser.expect(':');
+            parser.skipSpace();
+            if (name.equals("series")) {
+                parser.expect('[');
+                parser.skipSpace();
+                while (parser.peek() != ']') {
+                    Map<String, String> item = readFields(parser);
+                    series.add(new SeriesModel(item.get("seriesId"), item.get("seriesName"),
+                            item.get("seriesAge"), item.get("seriesNumberOfEpisodes")));
+                    parser.skipComma(']');
+                }
+                parser.position++;
+            } else if (name.equals("totals")) {
+                totals = readTotals(parser);
+            } else {
+                fields.put(name, parser.readValue());
+            }
+            parser.skipComma('}');
+        }
+        parser.position++;
+        parser.expectEnd();
+        return new Page(parseCount(fields, "offset"), parseCount(fields, "limit"), parseCount(fields, "total"), series, totals);
+    }
+
+    // An array of summaries keyed by "age"; every age 2-18 and the whole catalog (age 0) must be there
+    private static SeriesStatistics.Totals readTotals(Parser parser) {
+        SeriesStatistics.Summary overall = null;
+        SeriesStatistics.Summary[] byAge = new SeriesStatistics.Summary[SeriesAgeIndex.MAX_AGE - SeriesAgeIndex.MIN_AGE + 1];
+        parser.expect('[');
+        parser.skipSpace();
+        while (parser.peek() != ']') {
+            Map<String, String> item = readFields(parser);
+            SeriesStatistics.Summary summary = new SeriesStatistics.Summary(parseLong(item, "seriesCount"),
+                    parseLong(item, "episodeCount"), parseLong(item, "totalEpisodes"),
+                    parseLong(item, "minEpisodes"), parseLong(item, "maxEpisodes"));
+            int age = (int) parseLong(item, "age");
+            if (age == 0) {
+                overall = summary;
+            } else if (age >= SeriesAgeIndex.MIN_AGE && age <= SeriesAgeIndex.MAX_AGE) {
+                byAge[age - SeriesAgeIndex.MIN_AGE] = summary;
+            } else {
+                throw new IllegalArgumentException("Totals have an unknown age: " + age);
+            }
+            parser.skipComma(']');
+        }
+        parser.position++;
+        for (SeriesStatistics.Summary summary : byAge) {
+            if (summary == null || overall == null) {
+                throw new IllegalArgumentException("Totals are missing an age restriction");
+            }
+        }
+        return new SeriesStatistics.Totals(overall, byAge);
+    }
+
+    private static long parseLong(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Totals are missing " + name);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Totals " + name + " is not a number: " + value);
+        }
+    }
+
+    private static Map<String, String> readFields(Parser parser) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        parser.expect('{');
+        parser.skipSpace();
+        while (parser.peek() != '}') {
+            String name = parser.readString();
+            parser.skipSpace();
+            parser.expect(':');
+            parser.skipSpace();
+            fields.put(name, parser.readValue());
+            parser.skipComma('}');
+        }
+        parser.position++;
+        return fields;
+    }
+
+    private static int parseCount(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Page is missing " + name);
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Page " + name + " is not a number: " + value);
+        }
+    }
+
+    static void appendSeries(StringBuilder json, SeriesModel series) {
+        json.append("{\"seriesId\":");
+        appendString(json, series.getSeriesId());
+        json.append(",\"seriesName\":");
+        appendString(json, series.getSeriesName());
+        json.append(",\"seriesAge\":");
+        appendString(json, series.getSeriesAge());
+        json.append(",\"seriesNumberOfEpisodes\":");
+        appendString(json, series.getSeriesNumberOfEpisodes());
+        json.append('}');
+    }
+
+    private static void appendSummary(StringBuilder json, int age, SeriesStatistics.Summary summary) {
+        json.append("{\"age\":").append(age)
+            .append(",\"seriesCount\":").append(summary.getSeriesCount())
+            .append(",\"episodeCount\":").append(summary.getEpisodeCount())
+            .append(",\"totalEpisodes\":").append(summary.getTotalEpisodes())
+            .append(",\"minEpisodes\":").append(summary.getMinEpisodes())
+            .append(",\"maxEpisodes\":").append(summary.getMaxEpisodes())
+            .append('}');
+    }
+
+    static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * One page of series as returned by GET /series.
+     */
+    public static class Page {
+        private final int offset;
+        private final int limit;
+        private final int total;
+        private final List<SeriesModel> series;
+        private final SeriesStatistics.Totals totals;
+
+        Page(int offset, int limit, int total, List<SeriesModel> series, SeriesStatistics.Totals totals) {
+            this.offset = offset;
+            this.limit = limit;
+            this.total = total;
+            this.series = series;
+            this.totals = totals;
+        }
+
+        public int getOffset() { return offset; }
+        public int getLimit() { return limit; }
+        public int getTotal() { return total; }
+        public List<SeriesModel> getSeries() { return series; }
+        // Catalog totals when they were asked for, otherwise null
+        public SeriesStatistics.Totals getTotals() { return totals; }
+    }
+
+    /**
+     * Cursor over the JSON text being read.
+     */
+    private static class Parser {
+        private final String json;
+        private int position;
+
+        Parser(String json) {
+            this.json = json;
+        }
+
+        char peek() {
+            if (position >= json.length()) {
+                throw new IllegalArgumentException("Unexpected end of JSON");
+            }
+            return json.charAt(position);
+        }
+
+        void expect(char c) {
+            if (peek() != c) {
+                throw new IllegalArgumentException("Expected '" + c + "' at position " + position);
+            }
+            position++;
+        }
+
+        // Steps over a comma between members, or stops in front of the closing bracket
+        void skipComma(char close) {
+            skipSpace();
+            if (peek() == ',') {
+                position++;
+                skipSpace();
+                if (peek() == close) {
+                    throw new IllegalArgumentException("Trailing ',' at position " + position);
+                }
+            } else if (peek() != close) {
+                throw new IllegalArgumentException("Expected ',' or '" + close + "' at position " + position);
+            }
+        }
+
+        void expectEnd() {
+            skipSpace();
+            if (position != json.length()) {
+                throw new IllegalArgumentException("Unexpected text after JSON object at position " + position);
+            }
+        }
+
+        void skipSpace() {
+            while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+                position++;
+            }
+        }
+
+        String readValue() {
+            char c = peek();
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '{' || c == '[') {
+                throw new IllegalArgumentException("Nested values are not supported at position " + position);
+            }
+            int start = position;
+            while (position < json.length() && ",} \t\r\n".indexOf(json.charAt(position)) < 0) {
+                position++;
+            }
+            String literal = json.substring(start, position);
+            if (literal.isEmpty()) {
+                throw new IllegalArgumentException("Missing value at position " + start);
+            }
+            return literal.equals("null") ? null : literal;
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = peek();
+                position++;
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = peek();
+                position++;
+                switch (escaped) {
+                    case 'n': value.append('\n'); break;
+                    case 'r': value.append('\r'); break;
+                    case 't': value.append('\t'); break;
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'u':
+                        if (position + 4 > json.length()) {
+                            throw new IllegalArgumentException("Unexpected end of JSON");
+                        }
+                        value.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+                        position += 4;
+                        break;
+                    default: value.append(escaped);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms for each catalog operation and hit/miss counters
+ * for searches by ID. SeriesService records into one of these on every
+ * call; recording allocates nothing. snapshot() copies the current
+ * figures for code, and format() lays them out for the console.
+ */
+public class SeriesMetrics {
+
+    /**
+     * The timed catalog operations.
+     */
+    public enum Operation {
+        CAPTURE, SEARCH, UPDATE, DELETE, REPORT
+    }
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Operation.values().length];
+    private final LongAdder searchHits = new LongAdder();
+    private final LongAdder searchMisses = new LongAdder();
+
+    public SeriesMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    // startNanos is a System.nanoTime() reading taken when the operation began
+    public void record(Operation operation, long startNanos) {
+        histograms[operation.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    public void recordSearch(boolean hit) {
+        if (hit) {
+            searchHits.increment();
+        } else {
+            searchMisses.increment();
+        }
+    }
+
+    public Snapshot snapshot() {
+        Map<Operation, OperationStats> operations = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = histograms[operation.ordinal()];
+            operations.put(operation, new OperationStats(histogram.getCount(), histogram.getPercentile(50),
+                    histogram.getPercentile(99), histogram.getPercentile(99.9), histogram.getMax()));
+        }
+        return new Snapshot(operations, searchHits.sum(), searchMisses.sum());
+    }
+
+    /**
+     * Count and latency percentiles of one operation, in nanoseconds.
+     */
+    public static class OperationStats {
+        private final long count;
+        private final long p50;
+        private final long p99;
+        private final long p999;
+        private final long max;
+
+        OperationStats(long count, long p50, long p99, long p999, long max) {
+            this.count = count;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+
+        public long getCount() { return count; }
+        public long getP50() { return p50; }
+        public long getP99() { return p99; }
+        public long getP999() { return p999; }
+        public long getMax() { return max; }
+    }
+
+    /**
+     * Figures for every operation at one moment.
+     */
+    public static class Snapshot {
+        private final Map<Operation, OperationStats> operations;
+        private final long searchHits;
+        private final long searchMisses;
+
+        Snapshot(Map<Operation, OperationStats> operations, long searchHits, long searchMisses) {
+            this.operations = operations;
+            this.searchHits = searchHits;
+            this.searchMisses = searchMisses;
+        }
+
+        public OperationStats get(Operation operation) { return operations.get(operation); }
+        public long getSearchHits() { return searchHits; }
+        public long getSearchMisses() { return searchMisses; }
+
+        // One line per operation with latencies in microseconds
+        public String format() {
+            String nl = System.lineSeparator();
+            StringBuilder out = new StringBuilder(512);
+            out.append("Catalog Metrics").append(nl)
+               .append("-------------------------------------").append(nl)
+               .append(String.format(Locale.ROOT, "%-8s %10s %10s %10s %10s %10s", "OP", "COUNT", "P50 us", "P99 us", "P999 us", "MAX us"))
+               .append(nl);
+            for (Operation operation : Operation.values()) {
+                OperationStats stats = operations.get(operation);
+                out.append(String.format(Locale.ROOT, "%-8s %10d %10.1f %10.1f %10.1f %10.1f", operation, stats.count,
+                        stats.p50 / 1000.0, stats.p99 / 1000.0, stats.p999 / 1000.0, stats.max / 1000.0)).append(nl);
+            }
+            out.append("SEARCH HITS: ").append(searchHits).append(nl)
+               .append("SEARCH MISSES: ").append(searchMisses).append(nl);
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted secondary index from case-folded series name to series IDs.
+ * Prefix and range queries walk only the matching part of the skip list,
+ * so they cost O(log n + k) instead of a scan of the whole catalog.
+ *
+ * Queries do not lock. Writers are serialized and replace a name's ID set
+ * with a new copy, so a query never sees a set while it is being changed.
+ */
+public class SeriesNameIndex {
+
+    private final ConcurrentSkipListMap<String, Set<String>> idsByName = new ConcurrentSkipListMap<>();
+
+    public synchronized void add(String seriesName, String seriesId) {
+        String key = fold(seriesName);
+        Set<String> ids = idsByName.get(key);
+        Set<String> updated = ids == null ? new LinkedHashSet<>() : new LinkedHashSet<>(ids);
+        updated.add(seriesId);
+        idsByName.put(key, Collections.unmodifiableSet(updated));
+    }
+
+    public synchronized void remove(String seriesName, String seriesId) {
+        String key = fold(seriesName);
+        Set<String> ids = idsByName.get(key);
+        if (ids == null || !ids.contains(seriesId)) {
+            return;
+        }
+        if (ids.size() == 1) {
+            idsByName.remove(key);
+        } else {
+            Set<String> updated = new LinkedHashSet<>(ids);
+            updated.remove(seriesId);
+            idsByName.put(key, Collections.unmodifiableSet(updated));
+        }
+    }
+
+    // IDs of all series whose name starts with the prefix, ignoring case, in name order
+    public List<String> findByPrefix(String prefix) {
+        String from = fold(prefix);
+        if (from.isEmpty()) {
+            return collect(idsByName);
+        }
+        return collect(idsByName.subMap(from, true, from + Character.MAX_VALUE, true));
+    }
+
+    // IDs of all series with from <= name < to, ignoring case, in name order
+    public List<String> findByRange(String from, String to) {
+        String lower = fold(from);
+        String upper = fold(to);
+        if (lower.compareTo(upper) >= 0) {
+            return new ArrayList<>();
+        }
+        return collect(idsByName.subMap(lower, true, upper, false));
+    }
+
+    private static List<String> collect(NavigableMap<String, Set<String>> range) {
+        List<String> ids = new ArrayList<>();
+        for (Collection<String> bucket : range.values()) {
+            ids.addAll(bucket);
+        }
+        return ids;
+    }
+
+    static String fold(String seriesName) {
+        return seriesName == null ? "" : seriesName.toLowerCase(Locale.ROOT);
+    }
+}
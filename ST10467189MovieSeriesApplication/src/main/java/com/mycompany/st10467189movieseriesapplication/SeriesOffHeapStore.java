@@ -0,0 +1,568 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Catalog held outside the Java heap, so millions of series do not mean
+ * millions of objects for the garbage collector to trace.
+ *
+ * Records live in direct ByteBuffer slabs of slabSize bytes. Each slab is
+ * cut into slots of one size class (16, 32, 64, ... bytes, up to the slab
+ * size) and a record goes in the smallest class it fits. A slot starts
+ * with a header word: a free bit and a generation that changes on every
+ * write. After the header come the four fields, each an int length (-1
+ * for null) and UTF-8 bytes, the same encoding SeriesSnapshot uses.
+ * Deleted slots are chained into a free list per slab through their own
+ * bytes, and slabs with free slots are chained per size class, so a freed
+ * slot is reused by the next record of its class.
+ *
+ * The ID index is an open-addressing hash table in two primitive arrays
+ * (slot address and ID hash) with linear probing and backward-shift
+ * deletion. The heap therefore holds a fixed handful of arrays plus one
+ * ByteBuffer per slab, whatever the number of series.
+ *
+ * find() and the report hand out records whose getters decode a field
+ * from the slab the first time it is read. Such a record belongs to the
+ * version it was read at: once that series is updated or deleted, reading
+ * a field not yet decoded throws IllegalStateException, and the series
+ * must be looked up again. An update that still fits its slot is written
+ * in place; a larger one moves to a slot of a bigger class.
+ *
+ * A read-write lock lets lookups, decoding and reports run together while
+ * captures, updates and deletes run alone.
+ */
+public class SeriesOffHeapStore implements SeriesStore {
+
+    public static final int DEFAULT_SLAB_SIZE = 1 << 20;
+    static final int MIN_SLAB_SIZE = 1 << 12;
+    static final int MIN_SLOT_SIZE = 16;
+
+    private static final int FREE = 0x80000000;
+    private static final int NO_SLOT = -1;
+    private static final int HEADER_BYTES = Integer.BYTES;
+
+    private final int slabSize;
+    private final int classCount;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Slab number -> buffer, its size class, first free slot, first never-used byte, next slab of the class with room
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private int[] slabClass = new int[16];
+    private int[] slabFreeHead = new int[16];
+    private int[] slabBump = new int[16];
+    private int[] slabNextWithRoom = new int[16];
+    // Size class -> first slab with a free or never-used slot
+    private final int[] classWithRoom;
+
+    // Open-addressing ID index: 0 marks an empty bucket
+    private long[] addresses = new long[1024];
+    private int[] hashes = new int[1024];
+    private int size;
+    private int nextGeneration;
+
+    public SeriesOffHeapStore() {
+        this(DEFAULT_SLAB_SIZE);
+    }
+
+    // slabSize must be a power of two; it is also the largest record the store takes
+    public SeriesOffHeapStore(int slabSize) {
+        if (slabSize < MIN_SLAB_SIZE || Integer.bitCount(slabSize) != 1) {
+            throw new IllegalArgumentException("Slab size must be a power of two of at least " + MIN_SLAB_SIZE + ": " + slabSize);
+        }
+        this.slabSize = slabSize;
+        this.classCount = Integer.numberOfTrailingZeros(slabSize / MIN_SLOT_SIZE) + 1;
+        this.classWithRoom = new int[classCount];
+        Arrays.fill(classWithRoom, NO_SLOT);
+    }
+
+    @Override
+    public boolean capture(SeriesModel series) {
+        SeriesService.checkAge(series.getSeriesAge());
+        byte[][] fields = encode(series);
+        byte[] id = fields[0];
+        int hash = hash(id);
+        lock.writeLock().lock();
+        try {
+            int bucket = bucketOf(id, hash);
+            if (bucket >= 0) {
+                return false;
+            }
+            addresses[~bucket] = write(fields);
+            hashes[~bucket] = hash;
+            if (++size * 4L > addresses.length * 3L) {
+                resize();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // A record whose name, age and episodes are decoded when first read
+    @Override
+    public Optional<SeriesModel> find(String seriesId) {
+        byte[] id = seriesId.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            int bucket = bucketOf(id, hash(id));
+            if (bucket < 0) {
+                return Optional.empty();
+            }
+            OffHeapRecord record = new OffHeapRecord(addresses[bucket]);
+            record.setSeriesId(seriesId);
+            return Optional.of(record);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean exists(String seriesId) {
+        byte[] id = seriesId.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            return bucketOf(id, hash(id)) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Rewrites the slot in place when the new record fits its size class, else moves it
+    @Override
+    public boolean update(SeriesModel series) {
+        SeriesService.checkAge(series.getSeriesAge());
+        byte[][] fields = encode(series);
+        byte[] id = fields[0];
+        lock.writeLock().lock();
+        try {
+            int bucket = bucketOf(id, hash(id));
+            if (bucket < 0) {
+                return false;
+            }
+            long address = addresses[bucket];
+            int slab = slabOf(address);
+            if (sizeClassOf(recordBytes(fields)) == slabClass[slab]) {
+                writeSlot(slabs.get(slab), offsetOf(address), fields);
+            } else {
+                addresses[bucket] = write(fields);
+                free(address);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(String seriesId) {
+        byte[] id = seriesId.getBytes(StandardCharsets.UTF_8);
+        lock.writeLock().lock();
+        try {
+            int bucket = bucketOf(id, hash(id));
+            if (bucket < 0) {
+                return false;
+            }
+            free(addresses[bucket]);
+            removeBucket(bucket);
+            size--;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Report in slab order, which follows capture order until freed slots are reused; writers wait until it is written
+    @Override
+    public int report(Appendable out, int offset, int pageSize) throws IOException {
+        lock.readLock().lock();
+        try {
+            return SeriesReport.write(SlotIterator::new, out, offset, pageSize);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getSlabCount() {
+        lock.readLock().lock();
+        try {
+            return slabs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Direct memory held by the slabs
+    public long getOffHeapBytes() {
+        return (long) getSlabCount() * slabSize;
+    }
+
+    // Frees nothing itself; the slabs go back to the operating system once the buffers are collected
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            slabs.clear();
+            addresses = new long[1024];
+            hashes = new int[1024];
+            Arrays.fill(classWithRoom, NO_SLOT);
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Bucket holding the ID, or ~bucket of the empty bucket where it would go
+    private int bucketOf(byte[] id, int hash) {
+        int mask = addresses.length - 1;
+        for (int bucket = hash & mask; ; bucket = (bucket + 1) & mask) {
+            long address = addresses[bucket];
+            if (address == 0) {
+                return ~bucket;
+            }
+            if (hashes[bucket] == hash && idEquals(address, id)) {
+                return bucket;
+            }
+        }
+    }
+
+    // Shifts later entries of the probe run back so no lookup stops early at the hole
+    private void removeBucket(int hole) {
+        int mask = addresses.length - 1;
+        addresses[hole] = 0;
+        for (int bucket = (hole + 1) & mask; addresses[bucket] != 0; bucket = (bucket + 1) & mask) {
+            int home = hashes[bucket] & mask;
+            boolean movable = hole <= bucket ? home <= hole || home > bucket : home <= hole && home > bucket;
+            if (movable) {
+                addresses[hole] = addresses[bucket];
+                hashes[hole] = hashes[bucket];
+                addresses[bucket] = 0;
+                hole = bucket;
+            }
+        }
+    }
+
+    private void resize() {
+        long[] oldAddresses = addresses;
+        int[] oldHashes = hashes;
+        addresses = new long[oldAddresses.length * 2];
+        hashes = new int[oldHashes.length * 2];
+        int mask = addresses.length - 1;
+        for (int i = 0; i < oldAddresses.length; i++) {
+            if (oldAddresses[i] != 0) {
+                int bucket = oldHashes[i] & mask;
+                while (addresses[bucket] != 0) {
+                    bucket = (bucket + 1) & mask;
+                }
+                addresses[bucket] = oldAddresses[i];
+                hashes[bucket] = oldHashes[i];
+            }
+        }
+    }
+
+    private boolean idEquals(long address, byte[] id) {
+        ByteBuffer slab = slabs.get(slabOf(address));
+        int position = offsetOf(address) + HEADER_BYTES;
+        if (slab.getInt(position) != id.length) {
+            return false;
+        }
+        position += Integer.BYTES;
+        for (int i = 0; i < id.length; i++) {
+            if (slab.get(position + i) != id[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Takes a slot of the record's size class and writes the record to it
+    private long write(byte[][] fields) {
+        int sizeClass = sizeClassOf(recordBytes(fields));
+        int slab = classWithRoom[sizeClass];
+        if (slab == NO_SLOT) {
+            slab = newSlab(sizeClass);
+        }
+        int offset = slabFreeHead[slab];
+        if (offset != NO_SLOT) {
+            slabFreeHead[slab] = slabs.get(slab).getInt(offset + HEADER_BYTES);
+        } else {
+            offset = slabBump[slab];
+            slabBump[slab] += MIN_SLOT_SIZE << sizeClass;
+        }
+        if (slabFreeHead[slab] == NO_SLOT && slabBump[slab] + (MIN_SLOT_SIZE << sizeClass) > slabSize) {
+            classWithRoom[sizeClass] = slabNextWithRoom[slab];
+            slabNextWithRoom[slab] = NO_SLOT;
+        }
+        writeSlot(slabs.get(slab), offset, fields);
+        return address(slab, offset);
+    }
+
+    // Marks the slot free, pushes it on its slab's free list and puts the slab back among those with room
+    private void free(long address) {
+        int slab = slabOf(address);
+        int offset = offsetOf(address);
+        ByteBuffer buffer = slabs.get(slab);
+        boolean full = slabFreeHead[slab] == NO_SLOT && slabBump[slab] + (MIN_SLOT_SIZE << slabClass[slab]) > slabSize;
+        buffer.putInt(offset, FREE | nextGeneration());
+        buffer.putInt(offset + HEADER_BYTES, slabFreeHead[slab]);
+        slabFreeHead[slab] = offset;
+        if (full) {
+            slabNextWithRoom[slab] = classWithRoom[slabClass[slab]];
+            classWithRoom[slabClass[slab]] = slab;
+        }
+    }
+
+    private int newSlab(int sizeClass) {
+        int slab = slabs.size();
+        if (slab == slabClass.length) {
+            int grown = slab * 2;
+            slabClass = Arrays.copyOf(slabClass, grown);
+            slabFreeHead = Arrays.copyOf(slabFreeHead, grown);
+            slabBump = Arrays.copyOf(slabBump, grown);
+            slabNextWithRoom = Arrays.copyOf(slabNextWithRoom, grown);
+        }
+        slabs.add(ByteBuffer.allocateDirect(slabSize));
+        slabClass[slab] = sizeClass;
+        slabFreeHead[slab] = NO_SLOT;
+        slabBump[slab] = 0;
+        slabNextWithRoom[slab] = classWithRoom[sizeClass];
+        classWithRoom[sizeClass] = slab;
+        return slab;
+    }
+
+    private void writeSlot(ByteBuffer slab, int offset, byte[][] fields) {
+        slab.putInt(offset, nextGeneration());
+        int position = offset + HEADER_BYTES;
+        for (byte[] field : fields) {
+            if (field == null) {
+                slab.putInt(position, -1);
+                position += Integer.BYTES;
+            } else {
+                slab.putInt(position, field.length);
+                slab.put(position + Integer.BYTES, field);
+                position += Integer.BYTES + field.length;
+            }
+        }
+    }
+
+    // Generations skip the free bit and are never 0, so a record read before any write can tell
+    private int nextGeneration() {
+        nextGeneration = (nextGeneration + 1) & ~FREE;
+        if (nextGeneration == 0) {
+            nextGeneration = 1;
+        }
+        return nextGeneration;
+    }
+
+    private byte[][] encode(SeriesModel series) {
+        if (series.getSeriesId() == null) {
+            throw new IllegalArgumentException("Series ID cannot be null");
+        }
+        byte[][] fields = {utf8(series.getSeriesId()), utf8(series.getSeriesName()),
+                utf8(series.getSeriesAge()), utf8(series.getSeriesNumberOfEpisodes())};
+        if (recordBytes(fields) > slabSize) {
+            throw new IllegalArgumentException("Series " + series.getSeriesId() + " is larger than a " + slabSize + "-byte slab");
+        }
+        return fields;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int recordBytes(byte[][] fields) {
+        int bytes = HEADER_BYTES;
+        for (byte[] field : fields) {
+            bytes += Integer.BYTES + (field == null ? 0 : field.length);
+        }
+        return bytes;
+    }
+
+    // Class c holds slots of MIN_SLOT_SIZE << c bytes
+    private static int sizeClassOf(int bytes) {
+        int slot = Math.max(MIN_SLOT_SIZE, bytes);
+        return 32 - Integer.numberOfLeadingZeros(slot - 1) - Integer.numberOfTrailingZeros(MIN_SLOT_SIZE);
+    }
+
+    // FNV-1a over the UTF-8 bytes, spread so linear probing sees the high bits too
+    private static int hash(byte[] id) {
+        int hash = 0x811c9dc5;
+        for (byte b : id) {
+            hash = (hash ^ b) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    // Slab numbers are stored plus one so no valid address is 0
+    private static long address(int slab, int offset) {
+        return ((long) (slab + 1) << 32) | offset;
+    }
+
+    private static int slabOf(long address) {
+        return (int) (address >>> 32) - 1;
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+
+    // Decodes one field of the record at the address, checking the slot still holds the generation read
+    private String decodeField(long address, int generation, int fieldIndex) {
+        lock.readLock().lock();
+        try {
+            int slab = slabOf(address);
+            ByteBuffer buffer = slab < slabs.size() ? slabs.get(slab) : null;
+            int offset = offsetOf(address);
+            if (buffer == null || buffer.getInt(offset) != generation) {
+                throw new IllegalStateException("The series was changed after it was read; look it up again");
+            }
+            int position = offset + HEADER_BYTES;
+            for (int i = 0; i < fieldIndex; i++) {
+                position += Integer.BYTES + Math.max(0, buffer.getInt(position));
+            }
+            int length = buffer.getInt(position);
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(position + Integer.BYTES, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A stored series, decoded a field at a time on first read. Setting a
+     * field keeps the value set and never writes to the store.
+     */
+    private final class OffHeapRecord extends SeriesModel {
+
+        private static final int ID = 1;
+        private static final int NAME = 2;
+        private static final int AGE = 4;
+        private static final int EPISODES = 8;
+
+        private final long address;
+        private final int generation;
+        private int loaded;
+
+        // Must be created under the lock so the generation matches the slot
+        OffHeapRecord(long address) {
+            this.address = address;
+            this.generation = slabs.get(slabOf(address)).getInt(offsetOf(address));
+        }
+
+        @Override
+        public String getSeriesId() {
+            if ((loaded & ID) == 0) {
+                setSeriesId(decodeField(address, generation, 0));
+            }
+            return super.getSeriesId();
+        }
+
+        @Override
+        public String getSeriesName() {
+            if ((loaded & NAME) == 0) {
+                setSeriesName(decodeField(address, generation, 1));
+            }
+            return super.getSeriesName();
+        }
+
+        @Override
+        public String getSeriesAge() {
+            if ((loaded & AGE) == 0) {
+                setSeriesAge(decodeField(address, generation, 2));
+            }
+            return super.getSeriesAge();
+        }
+
+        @Override
+        public String getSeriesNumberOfEpisodes() {
+            if ((loaded & EPISODES) == 0) {
+                setSeriesNumberOfEpisodes(decodeField(address, generation, 3));
+            }
+            return super.getSeriesNumberOfEpisodes();
+        }
+
+        @Override
+        public void setSeriesId(String seriesId) {
+            super.setSeriesId(seriesId);
+            loaded |= ID;
+        }
+
+        @Override
+        public void setSeriesName(String seriesName) {
+            super.setSeriesName(seriesName);
+            loaded |= NAME;
+        }
+
+        @Override
+        public void setSeriesAge(String seriesAge) {
+            super.setSeriesAge(seriesAge);
+            loaded |= AGE;
+        }
+
+        @Override
+        public void setSeriesNumberOfEpisodes(String seriesNumberOfEpisodes) {
+            super.setSeriesNumberOfEpisodes(seriesNumberOfEpisodes);
+            loaded |= EPISODES;
+        }
+    }
+
+    /**
+     * Walks every used slot of every slab, skipping free ones. Must be used
+     * under the lock.
+     */
+    private final class SlotIterator implements Iterator<SeriesModel> {
+        private int slab;
+        private int offset;
+
+        @Override
+        public boolean hasNext() {
+            while (slab < slabs.size()) {
+                if (offset < slabBump[slab]) {
+                    if ((slabs.get(slab).getInt(offset) & FREE) == 0) {
+                        return true;
+                    }
+                    offset += MIN_SLOT_SIZE << slabClass[slab];
+                } else {
+                    slab++;
+                    offset = 0;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public SeriesModel next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            OffHeapRecord record = new OffHeapRecord(address(slab, offset));
+            offset += MIN_SLOT_SIZE << slabClass[slab];
+            return record;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for one catalog operation, so slow operations
+ * line up with GC and lock events in the same recording.
+ *
+ * Disabled unless a recording turns it on, for example:
+ *   jcmd <pid> JFR.start settings=profile
+ * with series.CatalogOperation enabled in the settings file, or
+ *   Recording.enable("series.CatalogOperation")
+ * in code. While it is disabled, begin() and commit() cost a field check
+ * and SeriesService skips filling in the fields.
+ */
+@Name("series.CatalogOperation")
+@Label("Catalog Operation")
+@Category({"Movie Series", "Catalog"})
+@Description("A capture, search, update, delete or report on the series catalog")
+@Enabled(false)
+@StackTrace(false)
+@Threshold("0 ms")
+public class SeriesOperationEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Series ID")
+    public String seriesId;
+
+    @Label("Records Scanned")
+    @Description("Series read to answer the operation")
+    public long recordsScanned;
+
+    @Label("Index Used")
+    @Description("Whether the operation was answered from an index instead of a scan")
+    public boolean indexUsed;
+
+    @Label("Found")
+    @Description("Whether the operation found what it needed: a new ID for a capture, an existing one otherwise (false for a duplicate capture or an unknown ID)")
+    public boolean found;
+}
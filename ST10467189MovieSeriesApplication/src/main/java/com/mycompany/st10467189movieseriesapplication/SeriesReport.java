@@ -0,0 +1,106 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+/**
+ * Renders the series report. Records are formatted into one buffer that
+ * is handed to the output every FLUSH_EVERY records, so a large report
+ * costs a few hundred writes instead of six println calls per series.
+ * An optional footer, such as the catalog summary, follows the last
+ * series when the page reaches the end of the catalog.
+ */
+public class SeriesReport {
+
+    public static final String TITLE = "Sample Report Screen Shot";
+    static final int FLUSH_EVERY = 256;
+
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private SeriesReport() {
+    }
+
+    // Writes one page of the report: skips offset series, then writes at most pageSize series
+    public static int write(Iterable<SeriesModel> seriesList, Appendable out, int offset, int pageSize) throws IOException {
+        return write(seriesList, out, offset, pageSize, null);
+    }
+
+    // As above, with a footer (may be null) written after the last series of the catalog
+    public static int write(Iterable<SeriesModel> seriesList, Appendable out, int offset, int pageSize, String footer) throws IOException {
+        if (offset < 0 || pageSize < 0) {
+            throw new IllegalArgumentException("Offset and page size cannot be negative");
+        }
+        StringBuilder buffer = new StringBuilder(FLUSH_EVERY * 160);
+        buffer.append(TITLE).append(NEW_LINE);
+        int position = 0;
+        int written = 0;
+        Iterator<SeriesModel> iterator = seriesList.iterator();
+        while (written < pageSize && iterator.hasNext()) {
+            SeriesModel series = iterator.next();
+            if (position++ < offset) {
+                continue;
+            }
+            appendSeries(buffer, offset + ++written, series);
+            if (written % FLUSH_EVERY == 0) {
+                out.append(buffer);
+                buffer.setLength(0);
+            }
+        }
+        if (footer != null && !iterator.hasNext()) {
+            buffer.append(footer);
+        }
+        out.append(buffer);
+        if (out instanceof Flushable) {
+            ((Flushable) out).flush();
+        }
+        return written;
+    }
+
+    // Catalog totals, then one line per age restriction that has series
+    public static String summary(SeriesStatistics statistics) {
+        return summary(statistics.summary(), statistics::summary);
+    }
+
+    public static String summary(SeriesStatistics.Totals totals) {
+        return summary(totals.summary(), totals::summary);
+    }
+
+    // As above, from totals gathered elsewhere, e.g. merged across catalog shards
+    public static String summary(SeriesStatistics.Summary overall, IntFunction<SeriesStatistics.Summary> byAge) {
+        StringBuilder footer = new StringBuilder(1024);
+        footer.append("Catalog Summary").append(NEW_LINE)
+              .append("-------------------------------------").append(NEW_LINE)
+              .append("TOTAL SERIES: ").append(overall.getSeriesCount()).append(NEW_LINE)
+              .append("TOTAL EPISODES: ").append(overall.getTotalEpisodes()).append(NEW_LINE)
+              .append("AVERAGE EPISODES: ").append(String.format(Locale.ROOT, "%.1f", overall.getAverageEpisodes())).append(NEW_LINE)
+              .append("MIN EPISODES: ").append(overall.getMinEpisodes()).append(NEW_LINE)
+              .append("MAX EPISODES: ").append(overall.getMaxEpisodes()).append(NEW_LINE);
+        for (int age = SeriesAgeIndex.MIN_AGE; age <= SeriesAgeIndex.MAX_AGE; age++) {
+            SeriesStatistics.Summary group = byAge.apply(age);
+            if (group.getSeriesCount() > 0) {
+                footer.append("AGE ").append(age).append(": ")
+                      .append(group.getSeriesCount()).append(" series, ")
+                      .append(group.getTotalEpisodes()).append(" episodes (min ")
+                      .append(group.getMinEpisodes()).append(", max ")
+                      .append(group.getMaxEpisodes()).append(')').append(NEW_LINE);
+            }
+        }
+        return footer.append(NEW_LINE).toString();
+    }
+
+    static void appendSeries(StringBuilder buffer, int number, SeriesModel series) {
+        buffer.append("Series ").append(number).append(NEW_LINE)
+              .append("-------------------------------------").append(NEW_LINE)
+              .append("SERIES ID: ").append(series.getSeriesId()).append(NEW_LINE)
+              .append("SERIES NAME: ").append(series.getSeriesName()).append(NEW_LINE)
+              .append("SERIES AGE RESTRICTION: ").append(series.getSeriesAge()).append(NEW_LINE)
+              .append("NUMBER OF EPISODES: ").append(series.getSeriesNumberOfEpisodes()).append(NEW_LINE)
+              .append(NEW_LINE);
+    }
+}
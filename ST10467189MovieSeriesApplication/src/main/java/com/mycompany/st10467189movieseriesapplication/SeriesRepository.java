@@ -0,0 +1,532 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory catalog of series with a primary hash index on the series ID.
+ * Lookups, updates and deletes run in constant time, and iteration keeps
+ * the order in which the series were captured. Secondary indexes are kept
+ * in step with every add, update and remove.
+ *
+ * Reads never lock. Stored records are never changed in place: every write
+ * publishes a new immutable version stamped with the next catalog version,
+ * and each series keeps a chain back to its older versions. Point lookups
+ * read the newest version, and so do pages in ID order, which resume
+ * after the last ID seen so series captured meanwhile never shift them.
+ * A reader that needs the whole catalog as of one
+ * instant opens a View, which pins the current catalog version and reads
+ * every series as it was then, however long it takes and whatever writers
+ * do meanwhile. Older versions are dropped once no View can still see
+ * them.
+ *
+ * Writes to different IDs may run concurrently; writes to the same ID must
+ * be serialized by the caller (SeriesService does this with lock striping).
+ *
+ * A catalog loaded from a snapshot fills only the primary index, which
+ * decodes nothing but the series IDs. The ID, name, age and text indexes and
+ * the statistics are built from the catalog the first time one of them is
+ * needed. Until then writes skip them. Each write holds a shared lock
+ * that the build takes exclusively, so no write is missed or counted
+ * twice.
+ */
+public class SeriesRepository {
+
+    private final ConcurrentHashMap<String, Version> seriesById;
+    // Newest version per capture position, including deletions that a View may still need to look past
+    private final ConcurrentSkipListMap<Long, Version> captureOrder = new ConcurrentSkipListMap<>();
+    private final AtomicLong captureSequence = new AtomicLong();
+    private final AtomicLong nextVersion = new AtomicLong();
+    private final AtomicLong visibleVersion = new AtomicLong();
+    // Catalog version -> number of open Views pinned to it
+    private final ConcurrentSkipListMap<Long, Integer> pins = new ConcurrentSkipListMap<>();
+    // Chains that still had versions a View might need when they were written
+    private final ConcurrentLinkedQueue<Version> unreclaimed = new ConcurrentLinkedQueue<>();
+    // Series IDs in ID order, for pages that resume after an ID
+    private final ConcurrentSkipListSet<String> idIndex = new ConcurrentSkipListSet<>();
+    private final SeriesNameIndex nameIndex = new SeriesNameIndex();
+    private final SeriesAgeIndex ageIndex = new SeriesAgeIndex();
+    private final SeriesTextIndex textIndex = new SeriesTextIndex();
+    private final SeriesStatistics statistics = new SeriesStatistics();
+    // Set while the secondary indexes wait to be built, null once they are up to date
+    private volatile ReentrantReadWriteLock pendingIndexes;
+
+    public SeriesRepository() {
+        this(16);
+    }
+
+    // Sizes the primary index up front, so loading that many series never rehashes it
+    public SeriesRepository(int expectedSize) {
+        this.seriesById = new ConcurrentHashMap<>(Math.max(16, expectedSize));
+    }
+
+    // Loads a snapshot into an empty catalog; the secondary indexes are built when first used
+    public void load(SeriesSnapshot snapshot) {
+        if (!seriesById.isEmpty()) {
+            throw new IllegalStateException("A snapshot can only be loaded into an empty catalog");
+        }
+        if (snapshot.size() > 0 && pendingIndexes == null) {
+            pendingIndexes = new ReentrantReadWriteLock();
+        }
+        for (int i = 0; i < snapshot.size(); i++) {
+            add(snapshot.get(i));
+        }
+    }
+
+    // Adds a new series, returns false when the ID is already in the catalog
+    public boolean add(SeriesModel series) {
+        long version = nextVersion.incrementAndGet();
+        Lock pending = lockPendingIndexes();
+        try {
+            Version entry = new Version(captureSequence.incrementAndGet(), version, series, null);
+            if (seriesById.putIfAbsent(series.getSeriesId(), entry) != null) {
+                return false;
+            }
+            captureOrder.put(entry.sequence, entry);
+            if (pendingIndexes == null) {
+                index(series);
+            }
+            return true;
+        } finally {
+            unlock(pending);
+            publish(version);
+        }
+    }
+
+    // Adds or replaces a series, returns the record that was replaced (or null)
+    public SeriesModel upsert(SeriesModel series) {
+        SeriesModel existing = findById(series.getSeriesId());
+        if (existing == null) {
+            add(series);
+            return null;
+        }
+        update(series.getSeriesId(), series.getSeriesName(), series.getSeriesAge(), series.getSeriesNumberOfEpisodes());
+        return existing;
+    }
+
+    public SeriesModel findById(String seriesId) {
+        Version entry = seriesById.get(seriesId);
+        return entry == null ? null : entry.series;
+    }
+
+    public boolean contains(String seriesId) {
+        return seriesById.containsKey(seriesId);
+    }
+
+    // Publishes a new version of an existing series, returns it, or null when the ID is unknown
+    public SeriesModel update(String seriesId, String seriesName, String seriesAge, String seriesNumberOfEpisodes) {
+        long version = nextVersion.incrementAndGet();
+        Version replacement = null;
+        Lock pending = lockPendingIndexes();
+        try {
+            Version current = seriesById.get(seriesId);
+            if (current == null) {
+                return null;
+            }
+            SeriesModel updated = new SeriesModel(seriesId, seriesName, seriesAge, seriesNumberOfEpisodes);
+            replacement = new Version(current.sequence, version, updated, current);
+            if (!seriesById.replace(seriesId, current, replacement)) {
+                replacement = null;
+                return null;
+            }
+            captureOrder.put(replacement.sequence, replacement);
+            if (pendingIndexes != null) {
+                return updated;
+            }
+            nameIndex.remove(current.series.getSeriesName(), seriesId);
+            nameIndex.add(seriesName, seriesId);
+            ageIndex.remove(current.series.getSeriesAge(), seriesId);
+            ageIndex.add(seriesAge, seriesId);
+            if (!SeriesNameIndex.fold(seriesName).equals(SeriesNameIndex.fold(current.series.getSeriesName()))) {
+                textIndex.remove(current.series.getSeriesName(), seriesId);
+                textIndex.add(seriesName, seriesId);
+            }
+            statistics.remove(current.series);
+            statistics.add(updated);
+            return updated;
+        } finally {
+            unlock(pending);
+            publish(version);
+            if (replacement != null) {
+                retire(replacement);
+            }
+        }
+    }
+
+    // Removes a series, returns the removed record or null when the ID is unknown
+    public SeriesModel remove(String seriesId) {
+        long version = nextVersion.incrementAndGet();
+        Version deletion = null;
+        Lock pending = lockPendingIndexes();
+        try {
+            Version removed = seriesById.remove(seriesId);
+            if (removed == null) {
+                return null;
+            }
+            // Views pinned before this version still find the removed record behind the deletion
+            deletion = new Version(removed.sequence, version, null, removed);
+            captureOrder.put(deletion.sequence, deletion);
+            if (pendingIndexes == null) {
+                idIndex.remove(seriesId);
+                nameIndex.remove(removed.series.getSeriesName(), seriesId);
+                ageIndex.remove(removed.series.getSeriesAge(), seriesId);
+                textIndex.remove(removed.series.getSeriesName(), seriesId);
+                statistics.remove(removed.series);
+            }
+            return removed.series;
+        } finally {
+            unlock(pending);
+            publish(version);
+            if (deletion != null) {
+                retire(deletion);
+            }
+        }
+    }
+
+    // Up to limit series in ID order with IDs after afterId, or from the first when it is null;
+    // a page costs limit index steps wherever it starts
+    public List<SeriesModel> findAfterId(String afterId, int limit) {
+        buildPendingIndexes();
+        List<SeriesModel> page = new ArrayList<>(Math.min(limit, 1024));
+        for (String seriesId : afterId == null ? idIndex : idIndex.tailSet(afterId, false)) {
+            if (page.size() == limit) {
+                break;
+            }
+            SeriesModel series = findById(seriesId);
+            if (series != null) {
+                page.add(series);
+            }
+        }
+        return page;
+    }
+
+    // Series whose name starts with the prefix, ignoring case, in name order
+    public List<SeriesModel> findByNamePrefix(String prefix) {
+        buildPendingIndexes();
+        return resolve(nameIndex.findByPrefix(prefix));
+    }
+
+    // Series with from <= name < to, ignoring case, in name order
+    public List<SeriesModel> findByNameRange(String from, String to) {
+        buildPendingIndexes();
+        return resolve(nameIndex.findByRange(from, to));
+    }
+
+    // Series whose name matches the words of the query, best match first; tolerates misspellings
+    public List<SeriesModel> searchByName(String query, int limit) {
+        buildPendingIndexes();
+        List<SeriesTextIndex.Match> matches = textIndex.search(query, limit, SeriesTextIndex.DEFAULT_MIN_SIMILARITY);
+        List<String> seriesIds = new ArrayList<>(matches.size());
+        for (SeriesTextIndex.Match match : matches) {
+            seriesIds.add(match.getSeriesId());
+        }
+        return resolve(seriesIds);
+    }
+
+    // Series a viewer of the given age may watch, grouped by age restriction
+    public List<SeriesModel> findSuitableForAge(int viewerAge) {
+        buildPendingIndexes();
+        return resolve(ageIndex.findSuitableFor(viewerAge));
+    }
+
+    // Series restricted to the given age or older, grouped by age restriction
+    public List<SeriesModel> findByMinimumAge(int age) {
+        buildPendingIndexes();
+        return resolve(ageIndex.findAtLeast(age));
+    }
+
+    // Number of series with exactly this age restriction
+    public int countByAge(int age) {
+        buildPendingIndexes();
+        return ageIndex.count(age);
+    }
+
+    public int size() {
+        return seriesById.size();
+    }
+
+    // Running episode and series totals, kept up to date by every change
+    public SeriesStatistics getStatistics() {
+        buildPendingIndexes();
+        return statistics;
+    }
+
+    // All series in capture order, read-only; reflects writes made while iterating
+    public Collection<SeriesModel> findAll() {
+        return new AbstractCollection<SeriesModel>() {
+            @Override
+            public Iterator<SeriesModel> iterator() {
+                return new VersionIterator(Long.MAX_VALUE);
+            }
+
+            @Override
+            public int size() {
+                return seriesById.size();
+            }
+        };
+    }
+
+    // Copy of all series in capture order as of one catalog version
+    public List<SeriesModel> copyAll() {
+        try (View view = openView()) {
+            List<SeriesModel> copy = new ArrayList<>(seriesById.size());
+            for (SeriesModel series : view) {
+                copy.add(series);
+            }
+            return copy;
+        }
+    }
+
+    // Pins the current catalog version until the View is closed
+    public View openView() {
+        while (true) {
+            long version = visibleVersion.get();
+            pins.merge(version, 1, Integer::sum);
+            // A writer that published in between may already have dropped versions this pin needs
+            if (visibleVersion.get() == version) {
+                return new View(version);
+            }
+            unpin(version);
+        }
+    }
+
+    // Catalog version the next View would pin
+    public long currentVersion() {
+        return visibleVersion.get();
+    }
+
+    // Versions kept behind the newest one for open Views, across the whole catalog
+    public int retainedVersionCount() {
+        int retained = 0;
+        for (Version head : captureOrder.values()) {
+            for (Version older = head.series == null ? head : head.previous; older != null; older = older.previous) {
+                retained++;
+            }
+        }
+        return retained;
+    }
+
+    // Shared while a write runs and the secondary indexes are not built yet; null when they are
+    private Lock lockPendingIndexes() {
+        ReentrantReadWriteLock pending = pendingIndexes;
+        if (pending == null) {
+            return null;
+        }
+        Lock lock = pending.readLock();
+        lock.lock();
+        return lock;
+    }
+
+    private static void unlock(Lock lock) {
+        if (lock != null) {
+            lock.unlock();
+        }
+    }
+
+    // Builds the secondary indexes from the catalog in capture order, holding off writes meanwhile
+    private void buildPendingIndexes() {
+        ReentrantReadWriteLock pending = pendingIndexes;
+        if (pending == null) {
+            return;
+        }
+        pending.writeLock().lock();
+        try {
+            if (pendingIndexes == null) {
+                return;
+            }
+            for (Iterator<SeriesModel> current = new VersionIterator(Long.MAX_VALUE); current.hasNext(); ) {
+                index(current.next());
+            }
+            pendingIndexes = null;
+        } finally {
+            pending.writeLock().unlock();
+        }
+    }
+
+    private void index(SeriesModel series) {
+        idIndex.add(series.getSeriesId());
+        nameIndex.add(series.getSeriesName(), series.getSeriesId());
+        ageIndex.add(series.getSeriesAge(), series.getSeriesId());
+        textIndex.add(series.getSeriesName(), series.getSeriesId());
+        statistics.add(series);
+    }
+
+    // Skips IDs removed between the index lookup and now
+    private List<SeriesModel> resolve(List<String> seriesIds) {
+        List<SeriesModel> result = new ArrayList<>(seriesIds.size());
+        for (String seriesId : seriesIds) {
+            SeriesModel series = findById(seriesId);
+            if (series != null) {
+                result.add(series);
+            }
+        }
+        return result;
+    }
+
+    // Makes a version visible to new Views; versions become visible in the order they were handed out
+    private void publish(long version) {
+        for (int spins = 0; !visibleVersion.compareAndSet(version - 1, version); spins++) {
+            if (spins < 64) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    private void unpin(long version) {
+        pins.computeIfPresent(version, (pinned, count) -> count == 1 ? null : count - 1);
+    }
+
+    // Oldest version an open View can read; with none open only the newest versions are needed
+    private long oldestPinnedVersion() {
+        long visible = visibleVersion.get();
+        Map.Entry<Long, Integer> oldest = pins.firstEntry();
+        return oldest == null ? visible : Math.min(oldest.getKey(), visible);
+    }
+
+    // Called after a write is published; also clears any backlog left once the last View closed
+    private void retire(Version head) {
+        reclaim(head);
+        if (pins.isEmpty() && !unreclaimed.isEmpty()) {
+            reclaimPending();
+        }
+    }
+
+    // Cuts the chain below the newest version every open View can see; queues it if more must wait
+    private void reclaim(Version head) {
+        long oldest = oldestPinnedVersion();
+        if (head.version <= oldest) {
+            if (head.series == null) {
+                captureOrder.remove(head.sequence, head);
+            } else {
+                head.previous = null;
+            }
+            return;
+        }
+        Version keep = head;
+        while (keep.previous != null && keep.previous.version > oldest) {
+            keep = keep.previous;
+        }
+        // keep.previous is the version the oldest View reads; anything behind it is unreachable
+        if (keep.previous != null) {
+            keep.previous.previous = null;
+        }
+        unreclaimed.add(head);
+    }
+
+    // Retries chains that were waiting on Views; each one is looked at once per call
+    private void reclaimPending() {
+        for (int pending = unreclaimed.size(); pending > 0; pending--) {
+            Version head = unreclaimed.poll();
+            if (head == null) {
+                return;
+            }
+            reclaim(head);
+        }
+    }
+
+    /**
+     * Iterates captureOrder and returns each series as of the given
+     * catalog version, skipping series captured later or deleted by then.
+     */
+    private final class VersionIterator implements Iterator<SeriesModel> {
+        private final Iterator<Version> heads = captureOrder.values().iterator();
+        private final long version;
+        private SeriesModel next;
+
+        VersionIterator(long version) {
+            this.version = version;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && heads.hasNext()) {
+                Version entry = heads.next();
+                while (entry != null && entry.version > version) {
+                    entry = entry.previous;
+                }
+                next = entry == null ? null : entry.series;
+            }
+            return next != null;
+        }
+
+        @Override
+        public SeriesModel next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SeriesModel series = next;
+            next = null;
+            return series;
+        }
+    }
+
+    /**
+     * The whole catalog as of one version, in capture order. Writers carry
+     * on while it is open; it does not see their changes, and the versions
+     * it reads are kept until it is closed.
+     */
+    public final class View implements Iterable<SeriesModel>, AutoCloseable {
+        private final long version;
+        private boolean closed;
+
+        private View(long version) {
+            this.version = version;
+        }
+
+        public long getVersion() { return version; }
+
+        @Override
+        public Iterator<SeriesModel> iterator() {
+            if (closed) {
+                throw new IllegalStateException("The view was closed");
+            }
+            return new VersionIterator(version);
+        }
+
+        // Releases the pin; versions only this View needed are reclaimed now
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            unpin(version);
+            reclaimPending();
+        }
+    }
+
+    /**
+     * One stored version of a series with its capture position. A null
+     * series marks the version in which the series was removed.
+     */
+    private static final class Version {
+        private final long sequence;
+        private final long version;
+        private final SeriesModel series;
+        private volatile Version previous;
+
+        Version(long sequence, long version, SeriesModel series, Version previous) {
+            this.sequence = sequence;
+            this.version = version;
+            this.series = series;
+            this.previous = previous;
+        }
+    }
+}
@@ -0,0 +1,571 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Headless catalog API. Every operation takes and returns values and
+ * never touches System.in or System.out, so the same engine can sit
+ * behind the console menu, a bulk import or a load test.
+ *
+ * Series returned by queries are the stored records and must not be
+ * modified directly; use update() so the indexes and the log stay right.
+ *
+ * The service is safe to share between threads. Reads go straight to the
+ * lock-free repository. Writes lock one of WRITE_STRIPES locks chosen by
+ * the series ID hash, so writers to different IDs rarely wait on each
+ * other. All writers share the catalog lock, which a snapshot takes
+ * exclusively while it is written. Reports and listings pin a catalog
+ * version instead and read it while writers carry on; a report holds the
+ * lock only for the moment it pins the version and takes the summary.
+ */
+public class SeriesService implements SeriesStore {
+
+    static final int WRITE_STRIPES = 64;
+
+    private final SeriesRepository repository;
+    private final SeriesWriteAheadLog mutationLog;
+    private final Path snapshotFile;
+    private final ReentrantLock[] writeStripes = new ReentrantLock[WRITE_STRIPES];
+    private final ReentrantReadWriteLock catalogLock = new ReentrantReadWriteLock();
+    private final SeriesMetrics metrics = new SeriesMetrics();
+    private final SeriesChangeStream changes = new SeriesChangeStream();
+
+    {
+        for (int i = 0; i < writeStripes.length; i++) {
+            writeStripes[i] = new ReentrantLock();
+        }
+    }
+
+    // In-memory catalog, lost when the application exits
+    public SeriesService() {
+        this.repository = new SeriesRepository();
+        this.mutationLog = null;
+        this.snapshotFile = null;
+    }
+
+    // Durable catalog: replays the log file into memory and logs every later change to it
+    public SeriesService(Path logFile) throws IOException {
+        this(null, logFile);
+    }
+
+    // Durable catalog: loads the snapshot (when there is one), then replays the changes logged since
+    public SeriesService(Path snapshotFile, Path logFile) throws IOException {
+        this.snapshotFile = snapshotFile;
+        SeriesSnapshot snapshot = snapshotFile != null && Files.exists(snapshotFile) ? SeriesSnapshot.open(snapshotFile) : null;
+        this.repository = snapshot == null ? new SeriesRepository() : new SeriesRepository(snapshot.size());
+        if (snapshot != null) {
+            repository.load(snapshot);
+        }
+        this.mutationLog = new SeriesWriteAheadLog(logFile);
+        mutationLog.replay(repository);
+    }
+
+    // The 2-18 age rule shared by the console, the service and bulk imports
+    public static boolean isValidAgeRestriction(int age) {
+        return age >= SeriesAgeIndex.MIN_AGE && age <= SeriesAgeIndex.MAX_AGE;
+    }
+
+    // Adds a new series, returns false when the ID already exists
+    public boolean capture(SeriesModel series) {
+        SeriesOperationEvent event = new SeriesOperationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        checkAge(series.getSeriesAge());
+        SeriesModel stored = new SeriesModel(series.getSeriesId(), series.getSeriesName(),
+                series.getSeriesAge(), series.getSeriesNumberOfEpisodes());
+        boolean captured = false;
+        Lock stripe = lockWrite(stored.getSeriesId());
+        try {
+            if (repository.contains(stored.getSeriesId())) {
+                return false;
+            }
+            writeLog(log -> log.appendCapture(stored));
+            repository.add(stored);
+            changes.publish(SeriesChangeStream.Type.CAPTURE, stored.getSeriesId(), stored);
+            captured = true;
+            return true;
+        } finally {
+            unlockWrite(stripe);
+            // A duplicate capture is recorded as not found, like an unknown ID
+            finish(event, SeriesMetrics.Operation.CAPTURE, start, stored.getSeriesId(), captured);
+        }
+    }
+
+    public Optional<SeriesModel> find(String seriesId) {
+        SeriesOperationEvent event = new SeriesOperationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        SeriesModel series = repository.findById(seriesId);
+        metrics.recordSearch(series != null);
+        finish(event, SeriesMetrics.Operation.SEARCH, start, seriesId, series != null);
+        return Optional.ofNullable(series);
+    }
+
+    public boolean exists(String seriesId) {
+        return repository.contains(seriesId);
+    }
+
+    // Replaces name, age and episodes of the series with the same ID, returns false when it does not exist
+    public boolean update(SeriesModel series) {
+        SeriesOperationEvent event = new SeriesOperationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        checkAge(series.getSeriesAge());
+        String seriesId = series.getSeriesId();
+        String seriesName = series.getSeriesName();
+        String seriesAge = series.getSeriesAge();
+        String seriesNumberOfEpisodes = series.getSeriesNumberOfEpisodes();
+        boolean exists = false;
+        Lock stripe = lockWrite(seriesId);
+        try {
+            exists = repository.contains(seriesId);
+            if (!exists) {
+                return false;
+            }
+            writeLog(log -> log.appendUpdate(seriesId, seriesName, seriesAge, seriesNumberOfEpisodes));
+            SeriesModel updated = repository.update(seriesId, seriesName, seriesAge, seriesNumberOfEpisodes);
+            changes.publish(SeriesChangeStream.Type.UPDATE, seriesId, updated);
+            return true;
+        } finally {
+            unlockWrite(stripe);
+            finish(event, SeriesMetrics.Operation.UPDATE, start, seriesId, exists);
+        }
+    }
+
+    // Removes a series, returns false when it does not exist
+    public boolean delete(String seriesId) {
+        SeriesOperationEvent event = new SeriesOperationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean exists = false;
+        Lock stripe = lockWrite(seriesId);
+        try {
+            exists = repository.contains(seriesId);
+            if (!exists) {
+                return false;
+            }
+            writeLog(log -> log.appendDelete(seriesId));
+            repository.remove(seriesId);
+            changes.publish(SeriesChangeStream.Type.DELETE, seriesId, null);
+            return true;
+        } finally {
+            unlockWrite(stripe);
+            finish(event, SeriesMetrics.Operation.DELETE, start, seriesId, exists);
+        }
+    }
+
+    // Adds a batch of series with one log write, returns the ones rejected as duplicate IDs
+    // Every series is checked before any is added, and copies are stored as in capture(), so the caller's
+    // objects never become catalog records. The batch holds every write stripe, so single-series writers
+    // wait but readers do not
+    public List<SeriesModel> importSeries(List<SeriesModel> batch) {
+        for (SeriesModel series : batch) {
+            if (series.getSeriesId() == null) {
+                throw new IllegalArgumentException("Series ID cannot be null");
+            }
+            checkAge(series.getSeriesAge());
+        }
+        catalogLock.readLock().lock();
+        for (ReentrantLock stripe : writeStripes) {
+            stripe.lock();
+        }
+        try {
+            List<SeriesModel> accepted = new ArrayList<>(batch.size());
+            List<SeriesModel> duplicates = new ArrayList<>();
+            Set<String> batchIds = new HashSet<>();
+            for (SeriesModel series : batch) {
+                if (repository.contains(series.getSeriesId()) || !batchIds.add(series.getSeriesId())) {
+                    duplicates.add(series);
+                } else {
+                    accepted.add(new SeriesModel(series.getSeriesId(), series.getSeriesName(),
+                            series.getSeriesAge(), series.getSeriesNumberOfEpisodes()));
+                }
+            }
+            writeLog(log -> log.appendCaptures(accepted));
+            for (SeriesModel series : accepted) {
+                repository.add(series);
+                changes.publish(SeriesChangeStream.Type.CAPTURE, series.getSeriesId(), series);
+            }
+            return duplicates;
+        } finally {
+            for (int i = writeStripes.length - 1; i >= 0; i--) {
+                writeStripes[i].unlock();
+            }
+            catalogLock.readLock().unlock();
+        }
+    }
+
+    // One page of series in capture order, as of one catalog version; pages reflect writes made between calls
+    public List<SeriesModel> list(int offset, int limit) {
+        checkPage(offset, limit);
+        try (SeriesRepository.View view = repository.openView()) {
+            return readPage(view, offset, limit);
+        }
+    }
+
+    // As above with the number of series in the same version, so the total matches the page
+    public ListPage listPage(int offset, int limit) {
+        checkPage(offset, limit);
+        SeriesRepository.View view;
+        int total;
+        catalogLock.writeLock().lock();
+        try {
+            view = repository.openView();
+            total = repository.size();
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+        try (view) {
+            return new ListPage(readPage(view, offset, limit), total);
+        }
+    }
+
+    public int size() {
+        return repository.size();
+    }
+
+    // Series whose name starts with the prefix, ignoring case, in name order
+    public List<SeriesModel> findByNamePrefix(String prefix) {
+        return repository.findByNamePrefix(prefix);
+    }
+
+    // Series with from <= name < to, ignoring case, in name order
+    public List<SeriesModel> findByNameRange(String from, String to) {
+        return repository.findByNameRange(from, to);
+    }
+
+    // Series whose name matches the words of the query, best match first; tolerates misspellings
+    public List<SeriesModel> searchByName(String query, int limit) {
+        return repository.searchByName(query, limit);
+    }
+
+    // Series a viewer of the given age may watch
+    public List<SeriesModel> findSuitableForAge(int viewerAge) {
+        return repository.findSuitableForAge(viewerAge);
+    }
+
+    // Series restricted to the given age or older
+    public List<SeriesModel> findByMinimumAge(int age) {
+        return repository.findByMinimumAge(age);
+    }
+
+    // Number of series with exactly this age restriction
+    public int countByAge(int age) {
+        return repository.countByAge(age);
+    }
+
+    // Writes one page of the report to any output, returns the number of series written
+    // The last page ends with the catalog summary, taken at the same instant as the series
+    public int report(Appendable out, int offset, int pageSize) throws IOException {
+        return report(out, offset, pageSize, null);
+    }
+
+    // As above, ordered by the sorter (or in capture order when it is null)
+    public int report(Appendable out, int offset, int pageSize, SeriesSorter sorter) throws IOException {
+        SeriesOperationEvent event = new SeriesOperationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            return writeReport(out, offset, pageSize, sorter);
+        } finally {
+            metrics.record(SeriesMetrics.Operation.REPORT, start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = SeriesMetrics.Operation.REPORT.name();
+                event.recordsScanned = repository.size();
+                event.found = true;
+                event.commit();
+            }
+        }
+    }
+
+    // The first limit series in the given order and the catalog totals, both from one catalog version.
+    // A bounded heap keeps at most limit series, so a report page near the start never copies the catalog;
+    // series the order ranks equal come out in ID order
+    public ReportSlice reportSlice(int limit, Comparator<SeriesModel> order) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        Comparator<SeriesModel> total = order.thenComparing(SeriesModel::getSeriesId);
+        SeriesRepository.View view;
+        SeriesStatistics.Totals totals;
+        catalogLock.writeLock().lock();
+        try {
+            view = repository.openView();
+            totals = repository.getStatistics().totals();
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+        PriorityQueue<SeriesModel> first = new PriorityQueue<>(Math.min(limit, 1024) + 1, total.reversed());
+        try (view) {
+            for (SeriesModel series : view) {
+                if (first.size() < limit) {
+                    first.add(series);
+                } else if (limit > 0 && total.compare(series, first.peek()) < 0) {
+                    first.poll();
+                    first.add(series);
+                }
+            }
+        }
+        List<SeriesModel> sorted = new ArrayList<>(first);
+        sorted.sort(total);
+        return new ReportSlice(sorted, totals);
+    }
+
+    // Up to limit series in ID order after afterId, for paging by the last ID seen: a page costs the same
+    // wherever it starts, and series captured between pages cannot shift it. The first page (a null afterId)
+    // also carries the catalog totals, taken with it while writers wait; later pages read the newest
+    // versions without locking and carry no totals
+    public ReportSlice pageById(String afterId, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        if (afterId != null) {
+            return new ReportSlice(repository.findAfterId(afterId, limit), null);
+        }
+        catalogLock.writeLock().lock();
+        try {
+            return new ReportSlice(repository.findAfterId(null, limit), repository.getStatistics().totals());
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+
+    // Capture, update and delete events in the order they were applied; changes replayed at startup are not included
+    public SeriesChangeStream changes() {
+        return changes;
+    }
+
+    // All series with the sequence of the last change they include; subscribe from getSequence() + 1 to follow on
+    public ChangeCheckpoint changeCheckpoint() {
+        SeriesRepository.View view;
+        long sequence;
+        catalogLock.writeLock().lock();
+        try {
+            view = repository.openView();
+            sequence = changes.lastSequence();
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+        try (view) {
+            List<SeriesModel> series = new ArrayList<>(repository.size());
+            for (SeriesModel model : view) {
+                series.add(model);
+            }
+            return new ChangeCheckpoint(series, sequence);
+        }
+    }
+
+    // Latency percentiles per operation and search hit/miss counts since the catalog was opened
+    public SeriesMetrics.Snapshot metrics() {
+        return metrics.snapshot();
+    }
+
+    // Totals for the whole catalog, kept up to date by every change
+    public SeriesStatistics.Summary statistics() {
+        return repository.getStatistics().summary();
+    }
+
+    // Totals for one age restriction
+    public SeriesStatistics.Summary statistics(int age) {
+        return repository.getStatistics().summary(age);
+    }
+
+    // All series as of one catalog version; writers carry on while it is copied
+    public List<SeriesModel> consistentView() {
+        return repository.copyAll();
+    }
+
+    public boolean hasSnapshotFile() {
+        return snapshotFile != null;
+    }
+
+    // Writes the whole catalog to the snapshot file; the log is cleared as it is no longer needed
+    public void saveSnapshot() throws IOException {
+        if (snapshotFile == null) {
+            throw new IllegalStateException("No snapshot file was configured for this catalog");
+        }
+        // Writers wait for the whole checkpoint so no change falls between the snapshot and the log reset
+        catalogLock.writeLock().lock();
+        try {
+            SeriesSnapshot.write(snapshotFile, repository.findAll());
+            if (mutationLog != null) {
+                mutationLog.reset();
+            }
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (mutationLog != null) {
+            mutationLog.close();
+        }
+    }
+
+    // Writers are held off only while the version is pinned and the summary taken, so the footer matches the rows;
+    // the rows are then read from the pinned version while writers carry on
+    private int writeReport(Appendable out, int offset, int pageSize, SeriesSorter sorter) throws IOException {
+        SeriesRepository.View view;
+        String summary;
+        catalogLock.writeLock().lock();
+        try {
+            view = repository.openView();
+            summary = SeriesReport.summary(repository.getStatistics());
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+        try (view) {
+            if (sorter == null) {
+                return SeriesReport.write(view, out, offset, pageSize, summary);
+            }
+            try (SeriesSorter.SortedSeries sorted = sorter.sort(view)) {
+                return SeriesReport.write(sorted, out, offset, pageSize, summary);
+            }
+        }
+    }
+
+    private static void checkPage(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit cannot be negative");
+        }
+    }
+
+    private List<SeriesModel> readPage(SeriesRepository.View view, int offset, int limit) {
+        List<SeriesModel> page = new ArrayList<>(Math.min(limit, Math.max(0, repository.size() - offset)));
+        int position = 0;
+        for (SeriesModel series : view) {
+            if (page.size() == limit) {
+                break;
+            }
+            if (position++ >= offset) {
+                page.add(series);
+            }
+        }
+        return page;
+    }
+
+    // Point operations go through the hash index and read at most the one record
+    private void finish(SeriesOperationEvent event, SeriesMetrics.Operation operation, long start, String seriesId, boolean found) {
+        metrics.record(operation, start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation.name();
+            event.seriesId = seriesId;
+            event.recordsScanned = found ? 1 : 0;
+            event.indexUsed = true;
+            event.found = found;
+            event.commit();
+        }
+    }
+
+    // Writers share the catalog lock and take the stripe for their ID
+    private Lock lockWrite(String seriesId) {
+        catalogLock.readLock().lock();
+        Lock stripe = writeStripes[(seriesId.hashCode() & 0x7fffffff) % WRITE_STRIPES];
+        stripe.lock();
+        return stripe;
+    }
+
+    private void unlockWrite(Lock stripe) {
+        stripe.unlock();
+        catalogLock.readLock().unlock();
+    }
+
+    // Shared with the other storage backends so every one applies the same rule
+    static void checkAge(String seriesAge) {
+        try {
+            if (isValidAgeRestriction(Integer.parseInt(seriesAge))) {
+                return;
+            }
+        } catch (NumberFormatException e) {
+            // Falls through to the same error as an out-of-range age
+        }
+        throw new IllegalArgumentException("Age restriction must be a number between 2 and 18: " + seriesAge);
+    }
+
+    // Changes are logged before they are applied, so a crash never loses an acknowledged change
+    private void writeLog(LogWrite write) {
+        if (mutationLog == null) {
+            return;
+        }
+        try {
+            write.to(mutationLog);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the series log", e);
+        }
+    }
+
+    private interface LogWrite {
+        void to(SeriesWriteAheadLog log) throws IOException;
+    }
+
+    /**
+     * The catalog as of one change sequence, for a change subscriber that
+     * is starting out or has fallen behind.
+     */
+    public static class ChangeCheckpoint {
+        private final List<SeriesModel> series;
+        private final long sequence;
+
+        ChangeCheckpoint(List<SeriesModel> series, long sequence) {
+            this.series = series;
+            this.sequence = sequence;
+        }
+
+        public List<SeriesModel> getSeries() { return series; }
+        public long getSequence() { return sequence; }
+    }
+
+    /**
+     * One page in capture order and the number of series in the catalog
+     * version it was read from.
+     */
+    public static class ListPage {
+        private final List<SeriesModel> series;
+        private final int total;
+
+        ListPage(List<SeriesModel> series, int total) {
+            this.series = series;
+            this.total = total;
+        }
+
+        public List<SeriesModel> getSeries() { return series; }
+        public int getTotal() { return total; }
+    }
+
+    /**
+     * The start of a report in one order and the catalog totals, read from
+     * the same catalog version so the summary matches the series. Pages
+     * after the first from pageById() have no totals.
+     */
+    public static class ReportSlice {
+        private final List<SeriesModel> series;
+        private final SeriesStatistics.Totals totals;
+
+        ReportSlice(List<SeriesModel> series, SeriesStatistics.Totals totals) {
+            this.series = series;
+            this.totals = totals;
+        }
+
+        public List<SeriesModel> getSeries() { return series; }
+        public SeriesStatistics.Totals getTotals() { return totals; }
+    }
+}
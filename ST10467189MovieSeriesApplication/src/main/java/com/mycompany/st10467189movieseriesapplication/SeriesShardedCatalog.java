@@ -0,0 +1,298 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory catalog split into shards by series ID hash, so scans and
+ * aggregates use every core instead of one.
+ *
+ * Each shard is a SeriesService with its own repository, indexes, write
+ * stripes and statistics. A capture, find, update or delete goes to the
+ * one shard that owns the ID. Reports, aggregates and filters fan out on
+ * a fork-join pool, one task per shard, and the partial results are
+ * merged: counts and statistics are added up, and series lists are
+ * either joined in shard order or, when an order is given, sorted per
+ * shard in parallel and k-way merged. Ties are broken by shard number, so
+ * the same catalog always gives the same order.
+ *
+ * A report page only needs the first offset + pageSize series of each
+ * shard, so each shard keeps just those in a bounded heap and reads its
+ * totals from the same version in the same task; the summary therefore
+ * matches the series. Reports are in series ID order by default: the
+ * shards have no capture sequence in common to merge on.
+ *
+ * Each shard reads from its own pinned version, so a fan-out sees every
+ * shard consistent but not all shards at the same instant.
+ */
+public class SeriesShardedCatalog implements SeriesStore {
+
+    // The order reports use unless told otherwise
+    public static final Comparator<SeriesModel> BY_ID = Comparator.comparing(SeriesModel::getSeriesId);
+
+    private final SeriesService[] shards;
+    private final ForkJoinPool pool;
+
+    // One shard per available core, fanning out on the common pool
+    public SeriesShardedCatalog() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public SeriesShardedCatalog(int shardCount) {
+        this(shardCount, ForkJoinPool.commonPool());
+    }
+
+    public SeriesShardedCatalog(int shardCount, ForkJoinPool pool) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("A catalog needs at least one shard: " + shardCount);
+        }
+        this.shards = new SeriesService[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new SeriesService();
+        }
+        this.pool = pool;
+    }
+
+    @Override
+    public boolean capture(SeriesModel series) {
+        return shardFor(series.getSeriesId()).capture(series);
+    }
+
+    @Override
+    public Optional<SeriesModel> find(String seriesId) {
+        return shardFor(seriesId).find(seriesId);
+    }
+
+    @Override
+    public boolean exists(String seriesId) {
+        return shardFor(seriesId).exists(seriesId);
+    }
+
+    @Override
+    public boolean update(SeriesModel series) {
+        return shardFor(series.getSeriesId()).update(series);
+    }
+
+    @Override
+    public boolean delete(String seriesId) {
+        return shardFor(seriesId).delete(seriesId);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (SeriesService shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    // Series held by each shard, in shard order
+    public int[] shardSizes() {
+        int[] sizes = new int[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            sizes[i] = shards[i].size();
+        }
+        return sizes;
+    }
+
+    // Number of series with exactly this age restriction
+    public int countByAge(int age) {
+        return fanOut(shard -> shard.countByAge(age), Integer::sum);
+    }
+
+    // Totals for the whole catalog
+    public SeriesStatistics.Summary statistics() {
+        return fanOut(SeriesService::statistics, SeriesStatistics.Summary::merge);
+    }
+
+    // Totals for one age restriction
+    public SeriesStatistics.Summary statistics(int age) {
+        return fanOut(shard -> shard.statistics(age), SeriesStatistics.Summary::merge);
+    }
+
+    // Series matching the predicate, in the given order or in shard order when order is null
+    public List<SeriesModel> filter(Predicate<SeriesModel> predicate, Comparator<SeriesModel> order) {
+        List<List<SeriesModel>> parts = fanOut(shard -> {
+            List<SeriesModel> matches = new ArrayList<>();
+            for (SeriesModel series : shard.consistentView()) {
+                if (predicate.test(series)) {
+                    matches.add(series);
+                }
+            }
+            if (order != null) {
+                matches.sort(order);
+            }
+            List<List<SeriesModel>> part = new ArrayList<>(1);
+            part.add(matches);
+            return part;
+        }, SeriesShardedCatalog::concat);
+        List<SeriesModel> result = new ArrayList<>();
+        Iterator<SeriesModel> merged = order == null ? joined(parts) : new MergeIterator(parts, order);
+        merged.forEachRemaining(result::add);
+        return result;
+    }
+
+    // Writes one page of the report in series ID order, ending with the merged catalog summary
+    @Override
+    public int report(Appendable out, int offset, int pageSize) throws IOException {
+        return report(out, offset, pageSize, BY_ID);
+    }
+
+    // As above in the given order, series the order ranks equal in ID order; shards pick their part of
+    // the page and their totals in parallel, then the parts are merged
+    public int report(Appendable out, int offset, int pageSize, Comparator<SeriesModel> order) throws IOException {
+        if (offset < 0 || pageSize < 0) {
+            throw new IllegalArgumentException("Offset and page size cannot be negative");
+        }
+        // One past the page, so the report can tell whether the page reaches the end of the catalog
+        int needed = (int) Math.min(Integer.MAX_VALUE, (long) offset + pageSize + 1);
+        List<SeriesService.ReportSlice> slices = fanOut(shard -> {
+            List<SeriesService.ReportSlice> part = new ArrayList<>(1);
+            part.add(shard.reportSlice(needed, order));
+            return part;
+        }, SeriesShardedCatalog::concat);
+        List<List<SeriesModel>> parts = new ArrayList<>(slices.size());
+        SeriesStatistics.Totals totals = null;
+        for (SeriesService.ReportSlice slice : slices) {
+            parts.add(slice.getSeries());
+            totals = totals == null ? slice.getTotals() : totals.merge(slice.getTotals());
+        }
+        return SeriesReport.write(() -> new MergeIterator(parts, order.thenComparing(BY_ID)), out, offset, pageSize,
+                SeriesReport.summary(totals));
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (SeriesService shard : shards) {
+            shard.close();
+        }
+    }
+
+    // The same spread HashMap uses, so IDs that differ only in high bits still land on different shards
+    private SeriesService shardFor(String seriesId) {
+        int hash = seriesId.hashCode();
+        return shards[((hash ^ (hash >>> 16)) & 0x7fffffff) % shards.length];
+    }
+
+    // Runs the function on every shard in parallel and combines the results in shard order
+    private <T> T fanOut(Function<SeriesService, T> perShard, BinaryOperator<T> combine) {
+        return pool.invoke(new ShardTask<>(perShard, combine, 0, shards.length));
+    }
+
+    private static <T> List<T> concat(List<T> left, List<T> right) {
+        left.addAll(right);
+        return left;
+    }
+
+    private static Iterator<SeriesModel> joined(List<List<SeriesModel>> parts) {
+        return parts.stream().flatMap(List::stream).iterator();
+    }
+
+    /**
+     * Splits the shard range in halves until one shard is left, runs the
+     * function on it, and combines the halves left to right. Never
+     * serialized, although ForkJoinTask is Serializable.
+     */
+    @SuppressWarnings("serial")
+    private final class ShardTask<T> extends RecursiveTask<T> {
+        private final Function<SeriesService, T> perShard;
+        private final BinaryOperator<T> combine;
+        private final int from;
+        private final int to;
+
+        ShardTask(Function<SeriesService, T> perShard, BinaryOperator<T> combine, int from, int to) {
+            this.perShard = perShard;
+            this.combine = combine;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected T compute() {
+            if (to - from == 1) {
+                return perShard.apply(shards[from]);
+            }
+            int middle = (from + to) >>> 1;
+            ShardTask<T> right = new ShardTask<>(perShard, combine, middle, to);
+            right.fork();
+            T left = new ShardTask<>(perShard, combine, from, middle).compute();
+            return combine.apply(left, right.join());
+        }
+    }
+
+    /**
+     * K-way merge of sorted per-shard lists; equal series come out in
+     * shard order.
+     */
+    static final class MergeIterator implements Iterator<SeriesModel> {
+        private final List<Iterator<SeriesModel>> parts = new ArrayList<>();
+        private final PriorityQueue<Head> heads;
+
+        MergeIterator(List<List<SeriesModel>> sortedParts, Comparator<SeriesModel> order) {
+            this(sortedParts.stream().map(List::iterator).collect(Collectors.toList()), order);
+        }
+
+        // Parts may also be read lazily, e.g. page by page from cluster nodes
+        MergeIterator(Collection<? extends Iterator<SeriesModel>> sortedParts, Comparator<SeriesModel> order) {
+            Comparator<Head> byKey = (a, b) -> order.compare(a.series, b.series);
+            heads = new PriorityQueue<>(Math.max(1, sortedParts.size()), byKey.thenComparingInt(head -> head.part));
+            for (Iterator<SeriesModel> part : sortedParts) {
+                parts.add(part);
+                advance(parts.size() - 1);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public SeriesModel next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            advance(head.part);
+            return head.series;
+        }
+
+        private void advance(int part) {
+            Iterator<SeriesModel> iterator = parts.get(part);
+            if (iterator.hasNext()) {
+                heads.add(new Head(part, iterator.next()));
+            }
+        }
+    }
+
+    private static final class Head {
+        private final int part;
+        private final SeriesModel series;
+
+        Head(int part, SeriesModel series) {
+            this.part = part;
+            this.series = series;
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary image of the whole catalog.
+ *
+ * Layout: a 24-byte header (magic, version, record count, data length and
+ * a CRC32 of the header itself), the records, each made of four
+ * length-prefixed UTF-8 fields, then a table of record offsets. Opening a
+ * snapshot maps the file and checks only the header, so it costs the same
+ * for ten or ten million records; a field is decoded the first time it is
+ * read. A single mapping limits a snapshot to 2 GB.
+ *
+ * Each write goes to a new generation file next to the snapshot path
+ * ("series.snapshot.1", ".2", ...). The snapshot path itself then holds
+ * only the name of the current generation, and is replaced atomically
+ * once that file is complete. A file that is still mapped is never
+ * renamed over or truncated, which Windows refuses, and records loaded
+ * from it stay readable. Older generations are deleted once they can
+ * be; on Windows that waits until nothing maps them any more. A snapshot
+ * path that holds the data itself, as written before generations, is
+ * copied to generation 1 when it is first opened.
+ */
+public class SeriesSnapshot {
+
+    private static final int MAGIC = 0x53455253; // "SERS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final int offsetTable;
+
+    private SeriesSnapshot(MappedByteBuffer buffer, int count, int offsetTable) {
+        this.buffer = buffer;
+        this.count = count;
+        this.offsetTable = offsetTable;
+    }
+
+    // Streams the series to the next generation file, then points the snapshot path at it
+    public static void write(Path file, Collection<SeriesModel> seriesList) throws IOException {
+        write(file, seriesList, Integer.MAX_VALUE);
+    }
+
+    // As above with a lower size limit, so tests can reach it; a catalog over the limit leaves the current
+    // generation in place and throws before anything points at the new file
+    static void write(Path file, Collection<SeriesModel> seriesList, long maxBytes) throws IOException {
+        long generation = currentGeneration(file) + 1;
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        int[] offsets = new int[seriesList.size()];
+        long dataLength;
+        try (OutputStream fileOut = Files.newOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 1 << 16))) {
+            out.write(new byte[HEADER_BYTES]);
+            dataLength = writeRecords(out, seriesList, offsets, maxBytes);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.wrap(header(offsets.length, dataLength));
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Path generationFile = generationFile(file, generation);
+        Files.move(tempFile, generationFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        point(file, generationFile);
+        deleteOlderGenerations(file, generation);
+    }
+
+    // Writes the records and the offset table after the header, returns the length of the records
+    private static long writeRecords(DataOutputStream out, Collection<SeriesModel> seriesList, int[] offsets, long maxBytes)
+            throws IOException {
+        long dataLength = 0;
+        int index = 0;
+        for (SeriesModel series : seriesList) {
+            checkSize(offsets.length, dataLength, maxBytes);
+            offsets[index++] = (int) dataLength;
+            dataLength += writeField(out, series.getSeriesId());
+            dataLength += writeField(out, series.getSeriesName());
+            dataLength += writeField(out, series.getSeriesAge());
+            dataLength += writeField(out, series.getSeriesNumberOfEpisodes());
+        }
+        // The last record and the offset table can still take the file past the limit
+        checkSize(offsets.length, dataLength, maxBytes);
+        for (int offset : offsets) {
+            out.writeInt(offset);
+        }
+        return dataLength;
+    }
+
+    // A file that map() would refuse must never become the current generation
+    private static void checkSize(int count, long dataLength, long maxBytes) throws IOException {
+        if (HEADER_BYTES + dataLength + (long) count * Integer.BYTES > maxBytes) {
+            throw new IOException("Catalog is too large for a single snapshot file");
+        }
+    }
+
+    // Maps the current generation and validates its header; records are not read yet
+    public static SeriesSnapshot open(Path file) throws IOException {
+        if (isData(file)) {
+            // Copied rather than moved, so a crash before the pointer is written leaves the old file usable
+            Path first = generationFile(file, 1);
+            Files.copy(file, first, StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel channel = FileChannel.open(first, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            point(file, first);
+        }
+        return map(currentFile(file));
+    }
+
+    // The generation file the snapshot path points at
+    static Path currentFile(Path file) throws IOException {
+        byte[] pointer = Files.readAllBytes(file);
+        String name = new String(pointer, StandardCharsets.UTF_8).trim();
+        if (generationOf(file, name) < 1) {
+            throw new IOException("Not a series snapshot: " + file);
+        }
+        return file.resolveSibling(name);
+    }
+
+    private static SeriesSnapshot map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a series snapshot: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int magic = buffer.getInt(0);
+            int version = buffer.getInt(4);
+            int count = buffer.getInt(8);
+            long dataLength = buffer.getLong(12);
+            int checksum = buffer.getInt(20);
+            byte[] header = new byte[HEADER_BYTES - Integer.BYTES];
+            buffer.get(0, header);
+            if (magic != MAGIC || checksum != crc(header)) {
+                throw new IOException("Corrupt series snapshot header: " + file);
+            }
+            if (version != VERSION) {
+                throw new IOException("Unsupported series snapshot version " + version + ": " + file);
+            }
+            if (count < 0 || HEADER_BYTES + (long) count * Integer.BYTES + dataLength != size) {
+                throw new IOException("Series snapshot is truncated: " + file);
+            }
+            return new SeriesSnapshot(buffer, count, (int) (HEADER_BYTES + dataLength));
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Series at the given position, decoded field by field when first read
+    public SeriesModel get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Record " + index + " is outside 0-" + (count - 1));
+        }
+        return new SnapshotRecord(this, HEADER_BYTES + buffer.getInt(offsetTable + index * Integer.BYTES));
+    }
+
+    private String decodeField(int recordOffset, int fieldIndex) {
+        int position = recordOffset;
+        for (int i = 0; i < fieldIndex; i++) {
+            position += Integer.BYTES + buffer.getInt(position);
+        }
+        int length = buffer.getInt(position);
+        byte[] bytes = new byte[length];
+        buffer.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Generation the snapshot path points at, 0 when there is none yet
+    private static long currentGeneration(Path file) throws IOException {
+        if (!Files.exists(file) || isData(file)) {
+            return 0;
+        }
+        return generationOf(file, currentFile(file).getFileName().toString());
+    }
+
+    // True for a snapshot written before generations, which holds the records itself
+    private static boolean isData(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < HEADER_BYTES) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            while (magic.hasRemaining()) {
+                if (channel.read(magic, magic.position()) < 0) {
+                    return false;
+                }
+            }
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+
+    private static Path generationFile(Path file, long generation) {
+        return file.resolveSibling(file.getFileName() + "." + generation);
+    }
+
+    // The generation in a file name of the form <snapshot name>.<n>, or -1 when it is not one
+    private static long generationOf(Path file, String name) {
+        String prefix = file.getFileName() + ".";
+        if (!name.startsWith(prefix) || name.length() == prefix.length()) {
+            return -1;
+        }
+        for (int i = prefix.length(); i < name.length(); i++) {
+            if (name.charAt(i) < '0' || name.charAt(i) > '9') {
+                return -1;
+            }
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Replaces the snapshot path with one naming the generation file; the path itself is never mapped
+    private static void point(Path file, Path generationFile) throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".pointer.tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer name = ByteBuffer.wrap(generationFile.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+            while (name.hasRemaining()) {
+                channel.write(name);
+            }
+            channel.force(true);
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void deleteOlderGenerations(Path file, long current) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> siblings = Files.newDirectoryStream(directory)) {
+            for (Path sibling : siblings) {
+                long generation = generationOf(file, sibling.getFileName().toString());
+                if (generation > 0 && generation < current) {
+                    try {
+                        Files.deleteIfExists(sibling);
+                    } catch (IOException e) {
+                        // Still mapped on Windows; a later write deletes it
+                    }
+                }
+            }
+        }
+    }
+
+    private static byte[] header(int count, long dataLength) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(count).putLong(dataLength);
+        header.putInt(crc(Arrays.copyOf(header.array(), HEADER_BYTES - Integer.BYTES)));
+        return header.array();
+    }
+
+    // Writes one length-prefixed field and returns the number of bytes written
+    private static int writeField(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        return Integer.BYTES + bytes.length;
+    }
+
+    private static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * SeriesModel read from a snapshot. Each field is decoded from the
+     * mapped file on first access; setters replace the value in memory.
+     *
+     * Records are shared with readers that take no lock, so each field
+     * is volatile and starts as UNREAD: a reader sees either the decoded
+     * string or UNREAD and decodes it itself. The decode is installed with
+     * compareAndSet, so it never overwrites a value a setter stored in the
+     * meantime.
+     */
+    static class SnapshotRecord extends SeriesModel {
+
+        static final int ID = 0;
+        static final int NAME = 1;
+        static final int AGE = 2;
+        static final int EPISODES = 3;
+
+        // Compared by identity; no decoded or stored field is ever this instance
+        private static final String UNREAD = new String();
+
+        private final SeriesSnapshot snapshot;
+        private final int offset;
+        private static final VarHandle ID_FIELD = fieldHandle("id");
+        private static final VarHandle NAME_FIELD = fieldHandle("name");
+        private static final VarHandle AGE_FIELD = fieldHandle("age");
+        private static final VarHandle EPISODES_FIELD = fieldHandle("episodes");
+
+        private volatile String id = UNREAD;
+        private volatile String name = UNREAD;
+        private volatile String age = UNREAD;
+        private volatile String episodes = UNREAD;
+
+        SnapshotRecord(SeriesSnapshot snapshot, int offset) {
+            this.snapshot = snapshot;
+            this.offset = offset;
+        }
+
+        @Override
+        public String getSeriesId() {
+            return field(ID);
+        }
+
+        @Override
+        public String getSeriesName() {
+            return field(NAME);
+        }
+
+        @Override
+        public String getSeriesAge() {
+            return field(AGE);
+        }
+
+        @Override
+        public String getSeriesNumberOfEpisodes() {
+            return field(EPISODES);
+        }
+
+        @Override
+        public void setSeriesId(String seriesId) {
+            id = seriesId;
+        }
+
+        @Override
+        public void setSeriesName(String seriesName) {
+            name = seriesName;
+        }
+
+        @Override
+        public void setSeriesAge(String seriesAge) {
+            age = seriesAge;
+        }
+
+        @Override
+        public void setSeriesNumberOfEpisodes(String seriesNumberOfEpisodes) {
+            episodes = seriesNumberOfEpisodes;
+        }
+
+        // True once the field was decoded or set
+        boolean isLoaded(int field) {
+            return handle(field).getVolatile(this) != UNREAD;
+        }
+
+        private String field(int field) {
+            VarHandle handle = handle(field);
+            String value = (String) handle.getVolatile(this);
+            if (value == UNREAD) {
+                handle.compareAndSet(this, UNREAD, snapshot.decodeField(offset, field));
+                value = (String) handle.getVolatile(this);
+            }
+            return value;
+        }
+
+        private static VarHandle handle(int field) {
+            switch (field) {
+                case ID: return ID_FIELD;
+                case NAME: return NAME_FIELD;
+                case AGE: return AGE_FIELD;
+                default: return EPISODES_FIELD;
+            }
+        }
+
+        private static VarHandle fieldHandle(String name) {
+            try {
+                return MethodHandles.lookup().findVarHandle(SnapshotRecord.class, name, String.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Sort stage for reports: orders series by name, age restriction or
+ * number of episodes, ascending or descending.
+ *
+ * Up to maxInMemory series are sorted in memory. Beyond that the input is
+ * cut into sorted runs of maxInMemory series that are spilled to temp
+ * files, and the runs are merged with a priority queue that holds one
+ * series per run, so memory stays bounded whatever the input size. When
+ * there are more than MERGE_WIDTH runs they are merged in passes.
+ *
+ * A stable sort keeps series with equal keys in input order (capture
+ * order for the catalog). An unstable sort lets the merge return equal
+ * keys from different runs in any order and saves the tie-break.
+ */
+public class SeriesSorter {
+
+    public static final int DEFAULT_MAX_IN_MEMORY = 100_000;
+    static final int MERGE_WIDTH = 64;
+
+    /**
+     * What the series are ordered by. Names ignore case; ages and
+     * episodes compare as numbers, with values that are not numbers first.
+     */
+    public enum SortKey {
+        NAME(Comparator.comparing((SeriesModel series) -> SeriesNameIndex.fold(series.getSeriesName()))),
+        AGE(Comparator.comparingInt((SeriesModel series) -> SeriesAgeIndex.parseAge(series.getSeriesAge()))),
+        EPISODES(Comparator.comparingLong((SeriesModel series) -> SeriesStatistics.parseEpisodes(series.getSeriesNumberOfEpisodes())));
+
+        private final Comparator<SeriesModel> comparator;
+
+        SortKey(Comparator<SeriesModel> comparator) {
+            this.comparator = comparator;
+        }
+    }
+
+    private final Comparator<SeriesModel> order;
+    private final boolean stable;
+    private final int maxInMemory;
+    private final Path tempDir;
+
+    public SeriesSorter(SortKey key, boolean descending) {
+        this(key, descending, true, DEFAULT_MAX_IN_MEMORY, null);
+    }
+
+    // tempDir may be null for the system temp directory
+    public SeriesSorter(SortKey key, boolean descending, boolean stable, int maxInMemory, Path tempDir) {
+        if (maxInMemory < 1) {
+            throw new IllegalArgumentException("maxInMemory must be at least 1");
+        }
+        this.order = descending ? key.comparator.reversed() : key.comparator;
+        this.stable = stable;
+        this.maxInMemory = maxInMemory;
+        this.tempDir = tempDir;
+    }
+
+    // The result must be closed to delete any spilled runs
+    public SortedSeries sort(Iterable<SeriesModel> input) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        List<SeriesModel> buffer = new ArrayList<>();
+        try {
+            for (SeriesModel series : input) {
+                buffer.add(series);
+                if (buffer.size() == maxInMemory) {
+                    runs.add(spill(buffer));
+                    buffer.clear();
+                }
+            }
+            if (runs.isEmpty()) {
+                buffer.sort(order);
+                return new SortedSeries(buffer, runs, null);
+            }
+            if (!buffer.isEmpty()) {
+                runs.add(spill(buffer));
+                buffer.clear();
+            }
+            while (runs.size() > MERGE_WIDTH) {
+                runs = mergePass(runs);
+            }
+            return new SortedSeries(null, runs, new MergeIterator(runs));
+        } catch (IOException | RuntimeException e) {
+            deleteAll(runs);
+            throw e;
+        }
+    }
+
+    // List.sort is stable, so a run keeps input order among equal keys
+    private Path spill(List<SeriesModel> buffer) throws IOException {
+        buffer.sort(order);
+        Path run = tempDir == null ? Files.createTempFile("series-run", ".tmp")
+                : Files.createTempFile(tempDir, "series-run", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+            for (SeriesModel series : buffer) {
+                writeSeries(out, series);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(run);
+            throw e;
+        }
+        return run;
+    }
+
+    // Merges groups of MERGE_WIDTH runs into one run each
+    private List<Path> mergePass(List<Path> runs) throws IOException {
+        List<Path> merged = new ArrayList<>();
+        try {
+            for (int from = 0; from < runs.size(); from += MERGE_WIDTH) {
+                List<Path> group = runs.subList(from, Math.min(from + MERGE_WIDTH, runs.size()));
+                Path run = tempDir == null ? Files.createTempFile("series-run", ".tmp")
+                        : Files.createTempFile(tempDir, "series-run", ".tmp");
+                merged.add(run);
+                try (MergeIterator in = new MergeIterator(group);
+                     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+                    while (in.hasNext()) {
+                        writeSeries(out, in.next());
+                    }
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteAll(merged);
+            throw e;
+        } finally {
+            deleteAll(runs);
+        }
+        return merged;
+    }
+
+    private static void writeSeries(DataOutputStream out, SeriesModel series) throws IOException {
+        writeString(out, series.getSeriesId());
+        writeString(out, series.getSeriesName());
+        writeString(out, series.getSeriesAge());
+        writeString(out, series.getSeriesNumberOfEpisodes());
+    }
+
+    // Returns null at the end of the run
+    private static SeriesModel readSeries(DataInputStream in) throws IOException {
+        String seriesId;
+        try {
+            seriesId = readString(in);
+        } catch (EOFException e) {
+            return null;
+        }
+        return new SeriesModel(seriesId, readString(in), readString(in), readString(in));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void deleteAll(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // A temp file left behind is harmless
+            }
+        }
+    }
+
+    /**
+     * K-way merge over sorted runs. Stable merges break ties by run
+     * number, and runs were cut in input order.
+     */
+    private class MergeIterator implements Iterator<SeriesModel>, Closeable {
+        private final List<DataInputStream> inputs = new ArrayList<>();
+        private final PriorityQueue<Head> heads;
+
+        MergeIterator(List<Path> runs) throws IOException {
+            Comparator<Head> byKey = (a, b) -> order.compare(a.series, b.series);
+            heads = new PriorityQueue<>(Math.max(1, runs.size()),
+                    stable ? byKey.thenComparingInt(head -> head.run) : byKey);
+            try {
+                for (Path run : runs) {
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+                    inputs.add(in);
+                    advance(inputs.size() - 1);
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public SeriesModel next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            try {
+                advance(head.run);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read a sorted run", e);
+            }
+            return head.series;
+        }
+
+        private void advance(int run) throws IOException {
+            SeriesModel series = readSeries(inputs.get(run));
+            if (series != null) {
+                heads.add(new Head(run, series));
+            }
+        }
+
+        @Override
+        public void close() {
+            for (DataInputStream in : inputs) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // Nothing more to read from it anyway
+                }
+            }
+        }
+    }
+
+    private static class Head {
+        private final int run;
+        private final SeriesModel series;
+
+        Head(int run, SeriesModel series) {
+            this.run = run;
+            this.series = series;
+        }
+    }
+
+    /**
+     * Sorted series, read once. Closing it deletes the spilled runs.
+     */
+    public static class SortedSeries implements Iterable<SeriesModel>, Closeable {
+        private final List<SeriesModel> inMemory;
+        private final List<Path> runs;
+        private final MergeIterator merge;
+        private boolean iterated;
+
+        private SortedSeries(List<SeriesModel> inMemory, List<Path> runs, MergeIterator merge) {
+            this.inMemory = inMemory;
+            this.runs = runs;
+            this.merge = merge;
+        }
+
+        // True when the input did not fit in memory and runs were written to disk
+        public boolean isSpilled() {
+            return merge != null;
+        }
+
+        @Override
+        public Iterator<SeriesModel> iterator() {
+            if (inMemory != null) {
+                return inMemory.iterator();
+            }
+            if (iterated) {
+                throw new IllegalStateException("A spilled sort can only be read once");
+            }
+            iterated = true;
+            return merge;
+        }
+
+        @Override
+        public void close() {
+            if (merge != null) {
+                merge.close();
+            }
+            deleteAll(runs);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running catalog aggregates: number of series and the count, sum, min
+ * and max of their episodes, for the whole catalog and per age
+ * restriction. Every capture, update and delete adjusts them, so reading
+ * them never scans the catalog or parses a SeriesModel field.
+ *
+ * Counts and sums are LongAdders, which spread concurrent writers over
+ * separate cells instead of contending on one value. Min and max cannot
+ * be kept by a counter once series are deleted, so each group also keeps
+ * a sorted count of each episode total: an add or remove costs
+ * O(log d) in the number of distinct totals, and min or max is the first
+ * or last key.
+ *
+ * Episodes that are not whole numbers are counted as series but left out
+ * of the episode figures. Readers racing with writers may see one
+ * change only partly applied; SeriesService reads the totals under its
+ * catalog lock when it needs them to match a report.
+ */
+public class SeriesStatistics {
+
+    private final Group overall = new Group();
+    private final Group[] byAge = new Group[SeriesAgeIndex.MAX_AGE - SeriesAgeIndex.MIN_AGE + 1];
+
+    public SeriesStatistics() {
+        for (int i = 0; i < byAge.length; i++) {
+            byAge[i] = new Group();
+        }
+    }
+
+    public void add(SeriesModel series) {
+        change(series, 1);
+    }
+
+    public void remove(SeriesModel series) {
+        change(series, -1);
+    }
+
+    // Totals for the whole catalog
+    public Summary summary() {
+        return overall.summary();
+    }
+
+    // Totals for one age restriction; empty for ages outside 2-18
+    public Summary summary(int age) {
+        if (age < SeriesAgeIndex.MIN_AGE || age > SeriesAgeIndex.MAX_AGE) {
+            return new Group().summary();
+        }
+        return byAge[age - SeriesAgeIndex.MIN_AGE].summary();
+    }
+
+    // Whole-catalog and per-age totals together; callers that need them to match lock out writers first
+    public Totals totals() {
+        Summary[] ages = new Summary[byAge.length];
+        for (int i = 0; i < byAge.length; i++) {
+            ages[i] = byAge[i].summary();
+        }
+        return new Totals(overall.summary(), ages);
+    }
+
+    private void change(SeriesModel series, int delta) {
+        long episodes = parseEpisodes(series.getSeriesNumberOfEpisodes());
+        overall.change(episodes, delta);
+        int age = SeriesAgeIndex.parseAge(series.getSeriesAge());
+        if (age != -1) {
+            byAge[age - SeriesAgeIndex.MIN_AGE].change(episodes, delta);
+        }
+    }
+
+    // Returns the episodes as a number, or -1 when they are not a whole number of 0 or more
+    static long parseEpisodes(String seriesNumberOfEpisodes) {
+        try {
+            long episodes = Long.parseLong(seriesNumberOfEpisodes);
+            return episodes >= 0 ? episodes : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Aggregates of one group of series.
+     */
+    private static class Group {
+        private final LongAdder series = new LongAdder();
+        private final LongAdder withEpisodes = new LongAdder();
+        private final LongAdder episodeSum = new LongAdder();
+        private final ConcurrentSkipListMap<Long, Long> episodeTotals = new ConcurrentSkipListMap<>();
+
+        void change(long episodes, int delta) {
+            series.add(delta);
+            if (episodes < 0) {
+                return;
+            }
+            withEpisodes.add(delta);
+            episodeSum.add(delta * episodes);
+            if (delta > 0) {
+                episodeTotals.merge(episodes, 1L, Long::sum);
+            } else {
+                episodeTotals.computeIfPresent(episodes, (total, count) -> count == 1 ? null : count - 1);
+            }
+        }
+
+        Summary summary() {
+            Map.Entry<Long, Long> min = episodeTotals.firstEntry();
+            Map.Entry<Long, Long> max = episodeTotals.lastEntry();
+            return new Summary(series.sum(), withEpisodes.sum(), episodeSum.sum(),
+                    min == null ? 0 : min.getKey(), max == null ? 0 : max.getKey());
+        }
+    }
+
+    /**
+     * Point-in-time totals. Min, max and average are 0 when no series
+     * in the group has a numeric episode count.
+     */
+    public static class Summary {
+        private final long seriesCount;
+        private final long episodeCount;
+        private final long totalEpisodes;
+        private final long minEpisodes;
+        private final long maxEpisodes;
+
+        Summary(long seriesCount, long episodeCount, long totalEpisodes, long minEpisodes, long maxEpisodes) {
+            this.seriesCount = seriesCount;
+            this.episodeCount = episodeCount;
+            this.totalEpisodes = totalEpisodes;
+            this.minEpisodes = minEpisodes;
+            this.maxEpisodes = maxEpisodes;
+        }
+
+        public long getSeriesCount() { return seriesCount; }
+        // Series whose episodes are a whole number, the ones the episode figures cover
+        public long getEpisodeCount() { return episodeCount; }
+        public long getTotalEpisodes() { return totalEpisodes; }
+        public long getMinEpisodes() { return minEpisodes; }
+        public long getMaxEpisodes() { return maxEpisodes; }
+
+        public double getAverageEpisodes() {
+            return episodeCount == 0 ? 0 : (double) totalEpisodes / episodeCount;
+        }
+
+        // Totals of two disjoint groups, e.g. the same age restriction in two catalog shards
+        Summary merge(Summary other) {
+            if (episodeCount == 0 || other.episodeCount == 0) {
+                Summary counted = episodeCount == 0 ? other : this;
+                return new Summary(seriesCount + other.seriesCount, counted.episodeCount, counted.totalEpisodes,
+                        counted.minEpisodes, counted.maxEpisodes);
+            }
+            return new Summary(seriesCount + other.seriesCount, episodeCount + other.episodeCount,
+                    totalEpisodes + other.totalEpisodes, Math.min(minEpisodes, other.minEpisodes),
+                    Math.max(maxEpisodes, other.maxEpisodes));
+        }
+    }
+
+    /**
+     * Whole-catalog totals and the totals of each age restriction, as the
+     * report summary shows them.
+     */
+    public static class Totals {
+        private final Summary overall;
+        private final Summary[] byAge;
+
+        Totals(Summary overall, Summary[] byAge) {
+            this.overall = overall;
+            this.byAge = byAge;
+        }
+
+        public Summary summary() { return overall; }
+
+        // Empty for ages outside 2-18
+        public Summary summary(int age) {
+            if (age < SeriesAgeIndex.MIN_AGE || age > SeriesAgeIndex.MAX_AGE) {
+                return new Summary(0, 0, 0, 0, 0);
+            }
+            return byAge[age - SeriesAgeIndex.MIN_AGE];
+        }
+
+        // Totals of two disjoint catalogs, e.g. two shards or two cluster nodes
+        Totals merge(Totals other) {
+            Summary[] ages = new Summary[byAge.length];
+            for (int i = 0; i < byAge.length; i++) {
+                ages[i] = byAge[i].merge(other.byAge[i]);
+            }
+            return new Totals(overall.merge(other.overall), ages);
+        }
+    }
+}
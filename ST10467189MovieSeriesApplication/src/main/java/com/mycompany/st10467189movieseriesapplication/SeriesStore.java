@@ -0,0 +1,38 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Storage backend behind the Series console: the operations the menu
+ * needs to capture, search, update, delete and report series.
+ *
+ * SeriesService is the in-memory backend with secondary indexes, the
+ * change stream and snapshots. SeriesBTreeStore keeps the catalog in a
+ * page file and holds only a bounded page cache in memory, for catalogs
+ * larger than the heap.
+ */
+public interface SeriesStore extends Closeable {
+
+    // Adds a new series, returns false when the ID already exists
+    boolean capture(SeriesModel series);
+
+    Optional<SeriesModel> find(String seriesId);
+
+    boolean exists(String seriesId);
+
+    // Replaces name, age and episodes of the series with the same ID, returns false when it does not exist
+    boolean update(SeriesModel series);
+
+    // Removes a series, returns false when it does not exist
+    boolean delete(String seriesId);
+
+    int size();
+
+    // Writes one page of the report to any output, returns the number of series written
+    int report(Appendable out, int offset, int pageSize) throws IOException;
+}
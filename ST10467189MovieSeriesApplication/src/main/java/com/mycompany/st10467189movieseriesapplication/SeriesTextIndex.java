@@ -0,0 +1,221 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Full-text and fuzzy index over series names.
+ *
+ * Names are normalized (lower case, accents removed) and split into
+ * words. An inverted index maps each word to the series containing it,
+ * and a trigram index maps each three-letter piece of a word (padded with
+ * '$' at both ends, so "dark" gives $da, dar, ark, rk$) to the series
+ * containing it. A query is scored against each candidate by the Dice
+ * similarity of their trigram sets, with a bonus when every query word
+ * appears in the name, so misspelt titles still match and exact words
+ * rank first. Only series in the rarest postings of the query's
+ * trigrams are looked at: a name similar enough to the query shares one
+ * of them. Postings as common as "the" are only checked against those
+ * candidates, never expanded, so one query scores at most MAX_CANDIDATES
+ * series however skewed the catalog is.
+ *
+ * Updates are incremental. Postings are concurrent sets changed through
+ * ConcurrentHashMap.compute, so queries never lock. Changes to one series
+ * ID must be serialized by the caller, as in the other indexes.
+ */
+public class SeriesTextIndex {
+
+    public static final double DEFAULT_MIN_SIMILARITY = 0.3;
+
+    // Most series one query scores; bounds the work for queries made only of common trigrams
+    static final int MAX_CANDIDATES = 50_000;
+
+    private static final double ALL_WORDS_BONUS = 1.0;
+
+    private final ConcurrentHashMap<String, Set<String>> idsByWord = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> idsByTrigram = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> trigramCounts = new ConcurrentHashMap<>();
+
+    public void add(String seriesName, String seriesId) {
+        List<String> words = words(seriesName);
+        Set<String> trigrams = trigrams(words);
+        trigramCounts.put(seriesId, trigrams.size());
+        for (String word : new LinkedHashSet<>(words)) {
+            addPosting(idsByWord, word, seriesId);
+        }
+        for (String trigram : trigrams) {
+            addPosting(idsByTrigram, trigram, seriesId);
+        }
+    }
+
+    public void remove(String seriesName, String seriesId) {
+        List<String> words = words(seriesName);
+        for (String word : words) {
+            removePosting(idsByWord, word, seriesId);
+        }
+        for (String trigram : trigrams(words)) {
+            removePosting(idsByTrigram, trigram, seriesId);
+        }
+        trigramCounts.remove(seriesId);
+    }
+
+    // Best matches first; ties are broken by series ID so results are repeatable
+    public List<Match> search(String query, int limit, double minSimilarity) {
+        List<String> queryWords = words(query);
+        Set<String> queryTrigrams = trigrams(queryWords);
+        if (queryTrigrams.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<Set<String>> postings = postings(queryTrigrams);
+        List<Set<String>> wordPostings = new ArrayList<>();
+        for (String word : new LinkedHashSet<>(queryWords)) {
+            wordPostings.add(idsByWord.getOrDefault(word, Set.of()));
+        }
+        List<Match> matches = new ArrayList<>();
+        for (String seriesId : candidates(postings, minSimilarity)) {
+            Integer count = trigramCounts.get(seriesId);
+            if (count == null) {
+                continue; // removed while the query ran
+            }
+            int shared = 0;
+            for (Set<String> ids : postings) {
+                if (ids.contains(seriesId)) {
+                    shared++;
+                }
+            }
+            double similarity = 2.0 * shared / (queryTrigrams.size() + count);
+            boolean hasAllWords = containsAll(wordPostings, seriesId);
+            if (similarity >= minSimilarity || hasAllWords) {
+                matches.add(new Match(seriesId, similarity + (hasAllWords ? ALL_WORDS_BONUS : 0)));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::getScore).reversed().thenComparing(Match::getSeriesId));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    // IDs a search for the query would score
+    Set<String> candidates(String query, double minSimilarity) {
+        Set<String> queryTrigrams = trigrams(words(query));
+        return queryTrigrams.isEmpty() ? Set.of() : candidates(postings(queryTrigrams), minSimilarity);
+    }
+
+    // Trigram postings of the query, smallest first
+    private List<Set<String>> postings(Set<String> queryTrigrams) {
+        List<Set<String>> postings = new ArrayList<>(queryTrigrams.size());
+        for (String trigram : queryTrigrams) {
+            postings.add(idsByTrigram.getOrDefault(trigram, Set.of()));
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        return postings;
+    }
+
+    // A name reaching minSimilarity shares at least minShared of the q query trigrams, so it is in one of
+    // the q - minShared + 1 rarest postings, and a name holding every query word is in all of them. Of
+    // those, postings over MAX_CANDIDATES IDs (trigrams like "the") are not expanded once a rarer one has
+    // been: names sharing only common trigrams with the query are the ones given up. When even the rarest
+    // posting is that large, its first MAX_CANDIDATES IDs are taken
+    private static Set<String> candidates(List<Set<String>> postings, double minSimilarity) {
+        int q = postings.size();
+        // 2s / (q + c) >= t with s <= c gives s >= t q / (2 - t)
+        int minShared = Math.max(1, (int) Math.ceil(minSimilarity * q / (2 - minSimilarity) - 1e-9));
+        int expanded = Math.max(1, q - minShared + 1);
+        Set<String> candidates = new HashSet<>();
+        for (int i = 0; i < expanded && i < q; i++) {
+            Set<String> ids = postings.get(i);
+            if (i > 0 && ids.size() > MAX_CANDIDATES) {
+                break; // the rest are at least as large
+            }
+            for (String seriesId : ids) {
+                if (candidates.size() == MAX_CANDIDATES) {
+                    return candidates;
+                }
+                candidates.add(seriesId);
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean containsAll(List<Set<String>> wordPostings, String seriesId) {
+        for (Set<String> ids : wordPostings) {
+            if (!ids.contains(seriesId)) {
+                return false;
+            }
+        }
+        return !wordPostings.isEmpty();
+    }
+
+    private static void addPosting(ConcurrentHashMap<String, Set<String>> postings, String key, String seriesId) {
+        postings.compute(key, (k, ids) -> {
+            Set<String> updated = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+            updated.add(seriesId);
+            return updated;
+        });
+    }
+
+    private static void removePosting(ConcurrentHashMap<String, Set<String>> postings, String key, String seriesId) {
+        postings.computeIfPresent(key, (k, ids) -> {
+            ids.remove(seriesId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    // Lower-case words with accents removed; anything but letters and digits separates words
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    static Set<String> trigrams(List<String> words) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (String word : words) {
+            String padded = "$" + word + "$";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    /**
+     * One search hit: the series ID and its score. Scores above 1 mean
+     * every query word appeared in the name.
+     */
+    public static class Match {
+        private final String seriesId;
+        private final double score;
+
+        Match(String seriesId, double score) {
+            this.seriesId = seriesId;
+            this.score = score;
+        }
+
+        public String getSeriesId() { return seriesId; }
+        public double getScore() { return score; }
+    }
+}
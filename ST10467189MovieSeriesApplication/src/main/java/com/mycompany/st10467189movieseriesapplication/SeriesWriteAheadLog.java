@@ -0,0 +1,244 @@
+package com.mycompany.st10467189movieseriesapplication;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of capture, update and delete records for the catalog.
+ *
+ * Each record is written as [length][CRC32][payload]. A mutation only
+ * returns once its record is on disk; threads that append while another
+ * thread is syncing wait for that sync and then share the next one
+ * (group commit), so N concurrent writers cost far fewer than N fsyncs.
+ * Replay stops at the first incomplete or corrupt record and truncates
+ * the file there, which drops a record torn by a crash mid-write.
+ *
+ * The payload is the operation byte and the fields, each an int length
+ * and that many bytes of UTF-8 as in SeriesSnapshot, so a field may be
+ * longer than writeUTF()'s 64 KB. Records written before that used
+ * writeUTF() and are told apart by the operation byte, which now carries
+ * the INT_LENGTH_FIELDS bit.
+ */
+public class SeriesWriteAheadLog implements Closeable {
+
+    static final byte CAPTURE = 1;
+    static final byte UPDATE = 2;
+    static final byte DELETE = 3;
+    // Set in the operation byte of records whose fields have int lengths
+    static final byte INT_LENGTH_FIELDS = 0x10;
+
+    private static final int HEADER_BYTES = 8;
+    // Replay reads a longer length as a torn header, so append() refuses to write such a record
+    private static final int MAX_RECORD_BYTES = 1 << 26;
+
+    private final FileChannel channel;
+    private final Object syncLock = new Object();
+    private long writtenPosition;
+    private volatile long durablePosition;
+    private long syncCount;
+
+    public SeriesWriteAheadLog(Path logFile) throws IOException {
+        channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writtenPosition = channel.size();
+        durablePosition = writtenPosition;
+    }
+
+    // Re-applies every intact record to the repository, then truncates any torn tail
+    public synchronized int replay(SeriesRepository repository) throws IOException {
+        long position = 0;
+        long size = channel.size();
+        int applied = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(header, position);
+            header.flip();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + HEADER_BYTES);
+            if (checksum != checksum(payload.array())) {
+                break;
+            }
+            apply(payload.array(), repository);
+            applied++;
+            position += HEADER_BYTES + length;
+        }
+        if (position < size) {
+            channel.truncate(position);
+            channel.force(true);
+        }
+        writtenPosition = position;
+        durablePosition = position;
+        return applied;
+    }
+
+    public void appendCapture(SeriesModel series) throws IOException {
+        append(CAPTURE, series.getSeriesId(), series.getSeriesName(), series.getSeriesAge(), series.getSeriesNumberOfEpisodes());
+    }
+
+    // Logs many captures with a single write and a single sync, used by bulk imports
+    public void appendCaptures(Collection<SeriesModel> seriesList) throws IOException {
+        if (seriesList.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream records = new ByteArrayOutputStream(seriesList.size() * 64);
+        for (SeriesModel series : seriesList) {
+            records.write(record(encode(CAPTURE, series.getSeriesId(), series.getSeriesName(),
+                    series.getSeriesAge(), series.getSeriesNumberOfEpisodes())));
+        }
+        write(ByteBuffer.wrap(records.toByteArray()));
+    }
+
+    public void appendUpdate(String seriesId, String seriesName, String seriesAge, String seriesNumberOfEpisodes) throws IOException {
+        append(UPDATE, seriesId, seriesName, seriesAge, seriesNumberOfEpisodes);
+    }
+
+    public void appendDelete(String seriesId) throws IOException {
+        append(DELETE, seriesId);
+    }
+
+    // Drops every record, used once the catalog has been saved elsewhere
+    public void reset() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                channel.truncate(0);
+                channel.force(true);
+                writtenPosition = 0;
+                durablePosition = 0;
+            }
+        }
+    }
+
+    // Number of fsyncs issued, lower than the number of appends under concurrent writers
+    public long getSyncCount() {
+        synchronized (syncLock) {
+            return syncCount;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void append(byte operation, String... fields) throws IOException {
+        write(ByteBuffer.wrap(record(encode(operation, fields))));
+    }
+
+    private void write(ByteBuffer records) throws IOException {
+        long endPosition;
+        synchronized (this) {
+            while (records.hasRemaining()) {
+                writtenPosition += channel.write(records, writtenPosition);
+            }
+            endPosition = writtenPosition;
+        }
+        awaitDurable(endPosition);
+    }
+
+    private static byte[] record(byte[] payload) throws IOException {
+        if (payload.length > MAX_RECORD_BYTES) {
+            throw new IOException("Log record of " + payload.length + " bytes is over the " + MAX_RECORD_BYTES + "-byte limit");
+        }
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt(checksum(payload)).put(payload);
+        return record.array();
+    }
+
+    // The first waiter forces everything written so far; later waiters find their record already covered
+    private void awaitDurable(long position) throws IOException {
+        if (durablePosition >= position) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durablePosition >= position) {
+                return;
+            }
+            long target;
+            synchronized (this) {
+                target = writtenPosition;
+            }
+            channel.force(false);
+            syncCount++;
+            durablePosition = target;
+        }
+    }
+
+    private static byte[] encode(byte operation, String... fields) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(operation | INT_LENGTH_FIELDS);
+        for (String field : fields) {
+            byte[] encoded = field == null ? new byte[0] : field.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(encoded.length);
+            out.write(encoded);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static String readField(DataInputStream in, boolean intLength) throws IOException {
+        if (!intLength) {
+            return in.readUTF();
+        }
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Log field of " + length + " bytes runs past its record");
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static void apply(byte[] payload, SeriesRepository repository) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte operation = in.readByte();
+        boolean intLength = (operation & INT_LENGTH_FIELDS) != 0;
+        operation &= ~INT_LENGTH_FIELDS;
+        String seriesId = readField(in, intLength);
+        switch (operation) {
+            case CAPTURE:
+                repository.upsert(new SeriesModel(seriesId, readField(in, intLength), readField(in, intLength), readField(in, intLength)));
+                break;
+            case UPDATE:
+                repository.update(seriesId, readField(in, intLength), readField(in, intLength), readField(in, intLength));
+                break;
+            case DELETE:
+                repository.remove(seriesId);
+                break;
+            default:
+                throw new IOException("Unknown log record type: " + operation);
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of log at " + position);
+            }
+        }
+    }
+}
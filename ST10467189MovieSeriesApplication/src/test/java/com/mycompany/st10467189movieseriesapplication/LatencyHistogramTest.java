@@ -0,0 +1,57 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    void testPercentilesWithinBucketError() {
+        // Test that percentiles of 1..100000 ns are within the 1/32 bucket error
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100_000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000, histogram.getMax());
+        assertWithin(50_000, histogram.getPercentile(50));
+        assertWithin(99_000, histogram.getPercentile(99));
+        assertWithin(99_900, histogram.getPercentile(99.9));
+        assertEquals(100_000, histogram.getPercentile(100));
+    }
+
+    @Test
+    void testBucketsCoverEveryValue() {
+        // Test that every value falls in a bucket whose upper bound is not below it
+        long[] values = {0, 1, 31, 32, 63, 64, 65, 1000, 123_456_789L, 1L << 40, Long.MAX_VALUE};
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            if (value <= (1L << 41)) {
+                assertTrue(LatencyHistogram.upperBoundOf(bucket) >= value, "value " + value);
+            }
+            if (bucket > 0 && value < (1L << 41)) {
+                assertTrue(LatencyHistogram.upperBoundOf(bucket - 1) < value, "value " + value);
+            }
+        }
+    }
+
+    @Test
+    void testNegativeRecordedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / LatencyHistogram.SUB_BUCKETS + 1,
+                "expected about " + expected + " but was " + actual);
+    }
+}
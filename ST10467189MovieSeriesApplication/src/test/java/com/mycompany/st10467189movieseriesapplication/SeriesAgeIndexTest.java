@@ -0,0 +1,61 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+
+public class SeriesAgeIndexTest {
+
+    private SeriesAgeIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SeriesAgeIndex();
+        index.add("16", "S001");
+        index.add("18", "S002");
+        index.add("2", "S003");
+        index.add("13", "S004");
+        index.add("16", "S005");
+    }
+
+    @Test
+    void testCountPerAge() {
+        // Test bucket counts for indexed and empty ages
+        assertEquals(2, index.count(16));
+        assertEquals(1, index.count(2));
+        assertEquals(0, index.count(10));
+        assertEquals(0, index.count(40));
+    }
+
+    @Test
+    void testSuitableForViewerAge() {
+        // Test that a 13-year-old only sees restrictions of 13 and below
+        assertEquals(List.of("S003", "S004"), index.findSuitableFor(13));
+        assertTrue(index.findSuitableFor(1).isEmpty());
+        assertEquals(5, index.findSuitableFor(99).size());
+    }
+
+    @Test
+    void testAtLeastAge() {
+        // Test that 16+ returns the 16 and 18 buckets in age order
+        assertEquals(List.of("S001", "S005", "S002"), index.findAtLeast(16));
+    }
+
+    @Test
+    void testInvalidAgesAreIgnored() {
+        // Test that ages outside 2-18 or non-numeric ages are not indexed
+        index.add("abc", "S006");
+        index.add("19", "S007");
+        index.add("", "S008");
+        assertEquals(5, index.findSuitableFor(18).size());
+    }
+
+    @Test
+    void testRemove() {
+        // Test that removing an entry updates its bucket
+        index.remove("16", "S001");
+        assertEquals(1, index.count(16));
+        assertEquals(List.of("S005", "S002"), index.findAtLeast(16));
+    }
+}
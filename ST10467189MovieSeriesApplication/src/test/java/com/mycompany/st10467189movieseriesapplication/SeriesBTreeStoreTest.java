@@ -0,0 +1,187 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class SeriesBTreeStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCrudById() throws Exception {
+        // Test that capture, find, update and delete behave like the in-memory catalog
+        try (SeriesBTreeStore store = new SeriesBTreeStore(tempDir.resolve("series.btree"), 16)) {
+            assertTrue(store.capture(new SeriesModel("S001", "Breaking Bad", "16", "62")));
+            assertFalse(store.capture(new SeriesModel("S001", "Duplicate", "12", "1")));
+            assertTrue(store.update(new SeriesModel("S001", "Breaking Bad", "18", "63")));
+            assertFalse(store.update(new SeriesModel("S404", "Missing", "12", "1")));
+            assertEquals("63", store.find("S001").get().getSeriesNumberOfEpisodes());
+            assertThrows(IllegalArgumentException.class, () -> store.capture(new SeriesModel("S002", "Too Young", "1", "1")));
+
+            assertTrue(store.delete("S001"));
+            assertFalse(store.delete("S001"));
+            assertFalse(store.exists("S001"));
+            assertEquals(0, store.size());
+        }
+    }
+
+    @Test
+    void testManySeriesSplitPagesAndStayInIdOrder() throws Exception {
+        // Test that thousands of series grow the tree over small pages while the cache stays at its size
+        try (SeriesBTreeStore store = new SeriesBTreeStore(tempDir.resolve("series.btree"), 8, 512)) {
+            for (int i = 4999; i >= 0; i--) {
+                assertTrue(store.capture(new SeriesModel(String.format("S%05d", i), "Series " + i, "12", String.valueOf(i))));
+                assertTrue(store.getCachedPageCount() <= 8);
+            }
+            assertEquals(5000, store.size());
+            assertTrue(store.height() >= 3);
+
+            for (int i = 0; i < 5000; i += 97) {
+                assertEquals("Series " + i, store.find(String.format("S%05d", i)).get().getSeriesName());
+            }
+            List<SeriesModel> range = store.scan("S01000", "S01010", 100);
+            assertEquals(10, range.size());
+            assertEquals("S01000", range.get(0).getSeriesId());
+            assertEquals("S01009", range.get(9).getSeriesId());
+            assertEquals(3, store.scan(null, null, 3).size());
+            assertTrue(store.getPageReads() > 0);
+        }
+    }
+
+    @Test
+    void testUpdateInPlaceAndGrowingValues() throws Exception {
+        // Test that updates rewrite the series in its leaf, splitting it when longer values no longer fit
+        try (SeriesBTreeStore store = new SeriesBTreeStore(tempDir.resolve("series.btree"), 8, 512)) {
+            for (int i = 0; i < 200; i++) {
+                store.capture(new SeriesModel(String.format("S%03d", i), "S", "12", "1"));
+            }
+            int pages = store.getPageCount();
+            assertTrue(store.update(new SeriesModel("S050", "T", "12", "2")));
+            assertEquals(pages, store.getPageCount());
+
+            for (int i = 0; i < 200; i++) {
+                assertTrue(store.update(new SeriesModel(String.format("S%03d", i), "A much longer series name " + i, "16", "10")));
+            }
+            assertTrue(store.getPageCount() > pages);
+            assertEquals(200, store.size());
+            assertEquals("A much longer series name 199", store.find("S199").get().getSeriesName());
+            assertThrows(IllegalArgumentException.class, () -> store.update(new SeriesModel("S001", "x".repeat(200), "12", "1")));
+        }
+    }
+
+    @Test
+    void testReopenAndReport() throws Exception {
+        // Test that the catalog is read back from the file and the report lists series in ID order
+        Path file = tempDir.resolve("series.btree");
+        try (SeriesBTreeStore store = new SeriesBTreeStore(file, 8, 512)) {
+            for (int i = 0; i < 1000; i++) {
+                store.capture(new SeriesModel(String.format("S%04d", i), "Series " + i, "12", "1"));
+            }
+            store.delete("S0000");
+        }
+        try (SeriesBTreeStore store = new SeriesBTreeStore(file, 8)) {
+            assertEquals(512, store.getPageSize());
+            assertEquals(999, store.size());
+            assertEquals("Series 500", store.find("S0500").get().getSeriesName());
+
+            StringBuilder out = new StringBuilder();
+            assertEquals(2, store.report(out, 0, 2));
+            assertTrue(out.indexOf("S0001") < out.indexOf("S0002"));
+            assertFalse(out.toString().contains("SERIES ID: S0000"));
+        }
+
+        Path notATree = tempDir.resolve("other.bin");
+        Files.write(notATree, new byte[64]);
+        assertThrows(IOException.class, () -> new SeriesBTreeStore(notATree, 8));
+    }
+
+    @Test
+    void testBloomFilterAnswersMissesWithoutReadingPages() throws Exception {
+        // Test that lookups, updates and deletes for missing IDs skip the tree, also after the file is reopened
+        Path file = tempDir.resolve("series.btree");
+        try (SeriesBTreeStore store = new SeriesBTreeStore(file, 8, 512)) {
+            for (int i = 0; i < 3000; i++) {
+                store.capture(new SeriesModel(String.format("S%05d", i), "Series " + i, "12", "1"));
+            }
+        }
+        try (SeriesBTreeStore store = new SeriesBTreeStore(file, 8)) {
+            long reads = store.getPageReads();
+            for (int i = 0; i < 1000; i++) {
+                assertFalse(store.exists("MISSING" + i));
+                assertFalse(store.update(new SeriesModel("GONE" + i, "Missing", "12", "1")));
+                assertFalse(store.delete("NONE" + i));
+            }
+            // About 1% of the 3000 misses get through the filter, and each walks a few pages
+            assertTrue(store.getFilterMisses() > 2900, "Caught " + store.getFilterMisses());
+            assertTrue(store.getPageReads() - reads < 300, "Read " + (store.getPageReads() - reads) + " pages");
+
+            for (int i = 0; i < 3000; i += 7) {
+                assertTrue(store.exists(String.format("S%05d", i)));
+            }
+            assertTrue(store.capture(new SeriesModel("NEW", "New", "12", "1")));
+            assertTrue(store.exists("NEW"));
+            assertTrue(store.delete("NEW"));
+            assertFalse(store.exists("NEW"));
+        }
+    }
+
+    @Test
+    void testCrashAfterEvictionsRollsBackToLastFlush() throws Exception {
+        // Test that pages evicted after a flush, root splits included, are undone when the store was never closed
+        Path file = tempDir.resolve("series.btree");
+        SeriesBTreeStore crashed = new SeriesBTreeStore(file, 8, 512);
+        for (int i = 0; i < 300; i++) {
+            crashed.capture(new SeriesModel(String.format("S%04d", i), "Series " + i, "12", "1"));
+        }
+        crashed.flush();
+        int flushedHeight = crashed.height();
+        assertFalse(Files.exists(tempDir.resolve("series.btree.journal")));
+        long writes = crashed.getPageWrites();
+        for (int i = 300; i < 3000; i++) {
+            crashed.capture(new SeriesModel(String.format("S%04d", i), "Series " + i, "12", "1"));
+        }
+        crashed.update(new SeriesModel("S0001", "Renamed", "16", "1"));
+        crashed.delete("S0002");
+        assertTrue(crashed.height() > flushedHeight);
+        assertTrue(crashed.getPageWrites() > writes);
+        crashed.abandon();
+
+        try (SeriesBTreeStore store = new SeriesBTreeStore(file, 8)) {
+            assertFalse(Files.exists(tempDir.resolve("series.btree.journal")));
+            assertEquals(300, store.size());
+            assertEquals(flushedHeight, store.height());
+            assertEquals("Series 1", store.find("S0001").get().getSeriesName());
+            assertTrue(store.exists("S0002"));
+            assertFalse(store.exists("S0300"));
+            assertEquals(300, store.scan(null, null, Integer.MAX_VALUE).size());
+            assertTrue(store.capture(new SeriesModel("S0300", "After", "12", "1")));
+        }
+        try (SeriesBTreeStore store = new SeriesBTreeStore(file, 8)) {
+            assertEquals(301, store.size());
+            assertEquals("After", store.find("S0300").get().getSeriesName());
+        }
+    }
+
+    @Test
+    void testCrashBeforeFirstFlushLeavesEmptyStore() throws Exception {
+        // Test that a new file whose first flush never happened opens as an empty store
+        Path file = tempDir.resolve("series.btree");
+        SeriesBTreeStore crashed = new SeriesBTreeStore(file, 8, 512);
+        for (int i = 0; i < 500; i++) {
+            crashed.capture(new SeriesModel(String.format("S%04d", i), "Series " + i, "12", "1"));
+        }
+        assertTrue(Files.size(file) > 0);
+        crashed.abandon();
+
+        try (SeriesBTreeStore store = new SeriesBTreeStore(file, 8, 512)) {
+            assertEquals(0, store.size());
+            assertTrue(store.capture(new SeriesModel("S0001", "Series 1", "12", "1")));
+        }
+    }
+}
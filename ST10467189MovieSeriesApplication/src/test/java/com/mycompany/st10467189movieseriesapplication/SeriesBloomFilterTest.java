@@ -0,0 +1,52 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeriesBloomFilterTest {
+
+    @Test
+    void testNoFalseNegatives() {
+        // Test that every added ID passes the filter
+        SeriesBloomFilter filter = new SeriesBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("S" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("S" + i));
+        }
+        assertFalse(filter.isSaturated());
+    }
+
+    @Test
+    void testFalsePositiveRateNearTarget() {
+        // Test that IDs never added pass at about the configured rate, and a lower rate uses more bits
+        SeriesBloomFilter filter = new SeriesBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("S" + i);
+        }
+        int passed = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("MISSING" + i)) {
+                passed++;
+            }
+        }
+        assertTrue(passed < 2000, "false positives: " + passed);
+        assertEquals(0.01, filter.getCurrentFalsePositiveRate(), 0.01);
+        assertTrue(new SeriesBloomFilter(10_000, 0.001).getBitCount() > filter.getBitCount());
+    }
+
+    @Test
+    void testSaturationAndValidation() {
+        // Test that the filter reports when it is over capacity and rejects bad sizes
+        SeriesBloomFilter filter = new SeriesBloomFilter(2, 0.1);
+        filter.add("S1");
+        filter.add("S2");
+        assertFalse(filter.isSaturated());
+        filter.add("S3");
+        assertTrue(filter.isSaturated());
+
+        assertThrows(IllegalArgumentException.class, () -> new SeriesBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new SeriesBloomFilter(10, 1.0));
+    }
+}
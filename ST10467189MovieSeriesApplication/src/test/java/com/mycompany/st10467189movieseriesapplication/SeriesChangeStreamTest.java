@@ -0,0 +1,100 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class SeriesChangeStreamTest {
+
+    @Test
+    void testChangesArriveInSequenceOrder() throws Exception {
+        // Test that a subscriber sees every change with increasing sequence numbers
+        SeriesChangeStream stream = new SeriesChangeStream(8);
+        SeriesChangeStream.Subscription subscription = stream.subscribe();
+        stream.publish(SeriesChangeStream.Type.CAPTURE, "S001", new SeriesModel("S001", "Dark", "16", "26"));
+        stream.publish(SeriesChangeStream.Type.UPDATE, "S001", new SeriesModel("S001", "Dark", "18", "26"));
+        stream.publish(SeriesChangeStream.Type.DELETE, "S001", null);
+
+        List<SeriesChangeStream.Change> changes = subscription.poll(10, 0, TimeUnit.MILLISECONDS);
+        assertEquals(3, changes.size());
+        assertEquals(1, changes.get(0).getSequence());
+        assertEquals(SeriesChangeStream.Type.CAPTURE, changes.get(0).getType());
+        assertEquals("18", changes.get(1).getSeries().getSeriesAge());
+        assertEquals(SeriesChangeStream.Type.DELETE, changes.get(2).getType());
+        assertNull(changes.get(2).getSeries());
+        assertEquals(4, subscription.getNextSequence());
+    }
+
+    @Test
+    void testSubscribeFromOffsetAndBatchLimit() throws Exception {
+        // Test that a subscriber can start from an earlier sequence and takes at most the batch size
+        SeriesChangeStream stream = new SeriesChangeStream(8);
+        for (int i = 1; i <= 5; i++) {
+            stream.publish(SeriesChangeStream.Type.CAPTURE, "S" + i, new SeriesModel("S" + i, "Series", "10", "1"));
+        }
+
+        SeriesChangeStream.Subscription subscription = stream.subscribe(2);
+        assertEquals("S2", subscription.poll(2, 0, TimeUnit.MILLISECONDS).get(0).getSeriesId());
+        assertEquals(2, subscription.poll(2, 0, TimeUnit.MILLISECONDS).size());
+        assertEquals(6, subscription.getNextSequence());
+        assertTrue(subscription.poll(2, 10, TimeUnit.MILLISECONDS).isEmpty());
+    }
+
+    @Test
+    void testSlowSubscriberIsDroppedNotWaitedFor() throws Exception {
+        // Test that the writer keeps going past a subscriber that fell a full ring behind, which is then dropped
+        SeriesChangeStream stream = new SeriesChangeStream(4);
+        SeriesChangeStream.Subscription slow = stream.subscribe();
+        for (int i = 1; i <= 10; i++) {
+            stream.publish(SeriesChangeStream.Type.DELETE, "S" + i, null);
+        }
+
+        SeriesChangeStream.LaggedException lagged = assertThrows(SeriesChangeStream.LaggedException.class,
+                () -> slow.poll(10, 0, TimeUnit.MILLISECONDS));
+        assertEquals(1, lagged.getNextSequence());
+        assertEquals(7, lagged.getOldestSequence());
+        assertEquals(1, stream.getDroppedCount());
+        assertThrows(IllegalStateException.class, () -> slow.poll(10, 0, TimeUnit.MILLISECONDS));
+
+        SeriesChangeStream.Subscription resumed = stream.subscribe(lagged.getOldestSequence());
+        assertEquals(4, resumed.poll(10, 0, TimeUnit.MILLISECONDS).size());
+    }
+
+    @Test
+    void testWaitingSubscriberWakesUpAndConcurrentWritersStayOrdered() throws Exception {
+        // Test that a blocked poll returns once changes arrive, and writers on many threads produce no gaps
+        SeriesChangeStream stream = new SeriesChangeStream(1 << 12);
+        SeriesChangeStream.Subscription subscription = stream.subscribe();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        stream.publish(SeriesChangeStream.Type.DELETE, "T" + thread + "-" + i, null);
+                    }
+                }));
+            }
+            long expected = 1;
+            while (expected <= 2000) {
+                List<SeriesChangeStream.Change> changes = subscription.poll(100, 5, TimeUnit.SECONDS);
+                assertFalse(changes.isEmpty());
+                for (SeriesChangeStream.Change change : changes) {
+                    assertEquals(expected++, change.getSequence());
+                }
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(2000, stream.lastSequence());
+    }
+}
@@ -0,0 +1,210 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Every node is a separate headless JVM running the application with an HTTP port, reached over loopback
+@Timeout(120)
+public class SeriesClusterRouterTest {
+
+    private static final String SERVING = "Serving the series catalog on http://localhost:";
+
+    @TempDir
+    Path tempDir;
+
+    private final List<Process> processes = new ArrayList<>();
+    private final List<String> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            startNode(tempDir.resolve("node-" + i));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (Process process : processes) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    @Test
+    void testRoutesToOwningNodeAndAddingNodeMovesAboutOneNth() throws Exception {
+        // Test that each series lives only on the node the ring picks and a third node takes about a third of them
+        SeriesClusterRouter router = new SeriesClusterRouter(nodes.subList(0, 2));
+        for (int i = 0; i < 600; i++) {
+            assertTrue(router.capture(new SeriesModel("S" + i, "Series " + i, "12", String.valueOf(i))));
+        }
+        assertFalse(router.capture(new SeriesModel("S1", "Duplicate", "12", "1")));
+        assertTrue(router.update(new SeriesModel("S1", "Renamed", "16", "1")));
+        assertFalse(router.update(new SeriesModel("S9999", "Missing", "12", "1")));
+        assertEquals("Renamed", router.find("S1").get().getSeriesName());
+        assertTrue(router.delete("S0"));
+        assertFalse(router.delete("S0"));
+        assertFalse(router.exists("S0"));
+        assertEquals(599, router.size());
+
+        Map<String, Integer> sizes = router.nodeSizes();
+        assertTrue(sizes.get(nodes.get(0)) > 200 && sizes.get(nodes.get(1)) > 200);
+        SeriesClusterRouter onlyFirst = new SeriesClusterRouter(nodes.subList(0, 1));
+        for (int i = 1; i < 600; i += 7) {
+            assertEquals(router.nodeFor("S" + i).equals(nodes.get(0)), onlyFirst.exists("S" + i));
+        }
+
+        int moved = router.addNode(nodes.get(2));
+        assertTrue(moved > 599 / 3 * 0.6 && moved < 599 / 3 * 1.4, "Moved " + moved + " of 599");
+        assertEquals(moved, router.nodeSizes().get(nodes.get(2)));
+        assertEquals(599, router.size());
+        assertEquals(0, router.rebalance());
+        assertEquals("Renamed", router.find("S1").get().getSeriesName());
+        for (int i = 2; i < 600; i++) {
+            assertEquals("Series " + i, router.find("S" + i).get().getSeriesName());
+        }
+
+        StringBuilder out = new StringBuilder();
+        assertEquals(599, router.report(out, 0, Integer.MAX_VALUE));
+        assertTrue(out.indexOf("SERIES ID: S1" + System.lineSeparator()) < out.indexOf("SERIES ID: S10" + System.lineSeparator()));
+        assertTrue(out.toString().contains("TOTAL SERIES: 599"));
+    }
+
+    @Test
+    void testReportPagesMergeNodesInIdOrder() throws Exception {
+        // Test that a page in the middle of the cluster report holds the right series and only the last page has totals
+        SeriesClusterRouter router = new SeriesClusterRouter(nodes);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String id = String.format("S%03d", i);
+            router.capture(new SeriesModel(id, "Series " + i, i % 2 == 0 ? "12" : "16", "2"));
+            ids.add(id);
+        }
+
+        StringBuilder middle = new StringBuilder();
+        assertEquals(10, router.report(middle, 145, 10));
+        for (int i = 0; i < 300; i++) {
+            assertEquals(i >= 145 && i < 155, middle.indexOf("SERIES ID: " + ids.get(i) + System.lineSeparator()) >= 0, ids.get(i));
+        }
+        assertTrue(middle.indexOf("S145") < middle.indexOf("S154"));
+        assertFalse(middle.toString().contains("TOTAL SERIES"));
+
+        StringBuilder last = new StringBuilder();
+        assertEquals(5, router.report(last, 295, 10));
+        assertTrue(last.toString().contains("SERIES ID: S299"));
+        assertTrue(last.toString().contains("TOTAL SERIES: 300"));
+        assertTrue(last.toString().contains("TOTAL EPISODES: 600"));
+        assertTrue(last.toString().contains("AGE 12: 150 series"));
+    }
+
+    @Test
+    void testIdsWithReservedCharacters() throws Exception {
+        // Test that IDs holding "/", "?", "%" or spaces reach their owning node as one ID
+        SeriesClusterRouter router = new SeriesClusterRouter(nodes);
+        String[] ids = {"A/B", "what?now", "100%", "two words", "x+y", "../series"};
+        for (String id : ids) {
+            assertTrue(router.capture(new SeriesModel(id, "Series " + id, "12", "1")), id);
+        }
+        for (String id : ids) {
+            assertEquals("Series " + id, router.find(id).get().getSeriesName());
+            assertTrue(router.update(new SeriesModel(id, "Renamed " + id, "16", "2")));
+            assertEquals("Renamed " + id, router.find(id).get().getSeriesName());
+        }
+        assertEquals(ids.length, router.size());
+        assertTrue(router.delete("A/B"));
+        assertFalse(router.exists("A/B"));
+        assertFalse(router.exists("A"));
+    }
+
+    @Test
+    void testRemovingNodeAndErrors() throws Exception {
+        // Test that a removed node hands its series on, and that bad input and dead nodes surface as exceptions
+        SeriesClusterRouter router = new SeriesClusterRouter(nodes, SeriesHashRing.DEFAULT_VIRTUAL_NODES, Duration.ofSeconds(2));
+        for (int i = 0; i < 150; i++) {
+            router.capture(new SeriesModel("S" + i, "Series " + i, "12", "1"));
+        }
+        int onRemoved = router.nodeSizes().get(nodes.get(1));
+        assertEquals(onRemoved, router.removeNode(nodes.get(1)));
+        assertEquals(150, router.size());
+        assertEquals(2, router.nodeSizes().size());
+        for (int i = 0; i < 150; i++) {
+            assertTrue(router.exists("S" + i));
+        }
+        assertThrows(IllegalArgumentException.class, () -> router.capture(new SeriesModel("S900", "Too Young", "1", "1")));
+        assertThrows(IllegalArgumentException.class, () -> new SeriesClusterRouter(List.of("no-port")));
+
+        processes.get(0).destroyForcibly().waitFor();
+        String onDeadNode = null;
+        for (int i = 0; onDeadNode == null; i++) {
+            if (router.nodeFor("S" + i).equals(nodes.get(0))) {
+                onDeadNode = "S" + i;
+            }
+        }
+        String id = onDeadNode;
+        assertThrows(UncheckedIOException.class, () -> router.find(id));
+    }
+
+    @Test
+    void testHeadlessNodeSavesSnapshotWhenStopped() throws Exception {
+        // Test that a node with closed input keeps serving, and saves its catalog when the process is stopped
+        SeriesClusterRouter router = new SeriesClusterRouter(nodes.subList(0, 1));
+        Thread.sleep(200);
+        assertTrue(processes.get(0).isAlive());
+        assertTrue(router.capture(new SeriesModel("S1", "Breaking Bad", "16", "62")));
+        Path snapshot = tempDir.resolve("node-0").resolve("series.snapshot");
+        assertFalse(Files.exists(snapshot));
+
+        processes.get(0).destroy();
+        processes.get(0).waitFor();
+        assertTrue(Files.exists(snapshot));
+        SeriesSnapshot saved = SeriesSnapshot.open(snapshot);
+        assertEquals(1, saved.size());
+        assertEquals("Breaking Bad", saved.get(0).getSeriesName());
+    }
+
+    private void startNode(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path classes;
+        try {
+            classes = Path.of(ST10467189MovieSeriesApplication.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Dseries.http.port=0", "-Dseries.http.threads=2", "-Dseries.headless=true", "-cp", classes.toString(),
+                ST10467189MovieSeriesApplication.class.getName())
+                .directory(directory.toFile())
+                .redirectInput(ProcessBuilder.Redirect.from(new File(isWindows() ? "NUL" : "/dev/null")))
+                .redirectErrorStream(true)
+                .start();
+        processes.add(process);
+        BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = output.readLine()) != null) {
+            if (line.startsWith(SERVING)) {
+                nodes.add("127.0.0.1:" + line.substring(SERVING.length(), line.indexOf("/series")));
+                return;
+            }
+        }
+        fail("Node in " + directory + " exited before serving");
+    }
+
+    private static boolean isWindows() {
+        return System.getProperty("os.name").startsWith("Windows");
+    }
+}
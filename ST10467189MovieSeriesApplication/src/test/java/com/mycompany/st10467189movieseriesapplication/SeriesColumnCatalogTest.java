@@ -0,0 +1,127 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeriesColumnCatalogTest {
+
+    private SeriesColumnCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new SeriesColumnCatalog(0.5, 0);
+        for (int i = 1; i <= 10; i++) {
+            catalog.capture(new SeriesModel("S" + i, "Series " + i, "12", String.valueOf(i)));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.close();
+    }
+
+    @Test
+    void testCrudByIdSkipsTombstones() {
+        // Test that deleted series disappear from lookups, counts and totals
+        assertFalse(catalog.capture(new SeriesModel("S1", "Duplicate", "12", "1")));
+        assertTrue(catalog.update(new SeriesModel("S2", "Renamed", "16", "20")));
+        assertEquals("Renamed", catalog.find("S2").getSeriesName());
+
+        assertTrue(catalog.delete("S1"));
+        assertFalse(catalog.delete("S1"));
+        assertNull(catalog.find("S1"));
+        assertEquals(9, catalog.size());
+        assertEquals(55 - 1 - 2 + 20, catalog.totalEpisodes());
+        assertEquals(1, catalog.countByAge(16));
+        assertTrue(catalog.capture(new SeriesModel("S1", "Back Again", "12", "1")));
+    }
+
+    @Test
+    void testAgeOutsideTwoToEighteenRejected() {
+        // Test that the catalog rejects the same ages as every other backend
+        assertThrows(IllegalArgumentException.class, () -> catalog.capture(new SeriesModel("S100", "Too Young", "1", "1")));
+        assertThrows(IllegalArgumentException.class, () -> catalog.capture(new SeriesModel("S100", "Not A Number", "teen", "1")));
+        assertThrows(IllegalArgumentException.class, () -> catalog.update(new SeriesModel("S2", "Too Old", "19", "1")));
+        assertNull(catalog.find("S100"));
+        assertEquals("12", catalog.find("S2").getSeriesAge());
+    }
+
+    @Test
+    void testCompactionOnlyPastThreshold() throws Exception {
+        // Test that compaction waits for the threshold and keeps every live series reachable
+        for (int i = 1; i <= 4; i++) {
+            catalog.delete("S" + i);
+        }
+        assertFalse(catalog.compactIfNeeded());
+        catalog.delete("S5");
+        assertTrue(catalog.compactIfNeeded());
+        assertEquals(0.0, catalog.tombstoneRatio());
+        assertEquals(1, catalog.getCompactionCount());
+
+        for (int i = 6; i <= 10; i++) {
+            assertEquals("Series " + i, catalog.find("S" + i).getSeriesName());
+        }
+        StringBuilder out = new StringBuilder();
+        assertEquals(5, catalog.report(out, 0, Integer.MAX_VALUE));
+        assertFalse(out.toString().contains("SERIES ID: S5" + System.lineSeparator()));
+        assertTrue(out.toString().contains("SERIES ID: S6"));
+    }
+
+    @Test
+    void testReportSkipsTombstones() throws Exception {
+        // Test that the report numbers only live series
+        catalog.delete("S3");
+        StringBuilder out = new StringBuilder();
+        assertEquals(9, catalog.report(out, 0, Integer.MAX_VALUE));
+        assertTrue(out.toString().contains("Series 9"));
+        assertFalse(out.toString().contains("SERIES ID: S3"));
+    }
+
+    @Test
+    void testBackgroundCompactor() throws Exception {
+        // Test that the background thread compacts once enough rows are deleted
+        try (SeriesColumnCatalog background = new SeriesColumnCatalog(0.25, 10)) {
+            for (int i = 0; i < 100; i++) {
+                background.capture(new SeriesModel("S" + i, "Series " + i, "12", "1"));
+            }
+            for (int i = 0; i < 50; i++) {
+                background.delete("S" + i);
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (background.getCompactionCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(background.getCompactionCount() > 0);
+            assertEquals(50, background.size());
+            assertEquals("Series 99", background.find("S99").getSeriesName());
+        }
+    }
+
+    @Test
+    void testBloomFilterAnswersMissesAndIsRebuiltOnCompaction() {
+        // Test that unknown IDs are caught by the filter and deleted IDs leave it when compaction rebuilds it
+        for (int i = 0; i < 1000; i++) {
+            assertNull(catalog.find("MISSING" + i));
+        }
+        SeriesColumnCatalog.FilterStats stats = catalog.filterStats();
+        assertEquals(1000, stats.getLookups());
+        assertEquals(1000, stats.getDefiniteMisses() + stats.getFalsePositives());
+        assertTrue(stats.getObservedFalsePositiveRate() < 0.05);
+
+        for (int i = 1; i <= 5; i++) {
+            catalog.delete("S" + i);
+        }
+        assertNull(catalog.find("S1"));
+        assertFalse(catalog.update(new SeriesModel("S2", "Gone", "12", "1")));
+        assertEquals(stats.getFalsePositives(), catalog.filterStats().getFalsePositives());
+        assertEquals(2, catalog.filterStats().getDeletedLookups());
+
+        assertTrue(catalog.compactIfNeeded());
+        assertNull(catalog.find("S1"));
+        assertEquals(stats.getFalsePositives(), catalog.filterStats().getFalsePositives());
+        assertEquals(2, catalog.filterStats().getDeletedLookups());
+        assertEquals("Series 6", catalog.find("S6").getSeriesName());
+    }
+}
@@ -0,0 +1,143 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeriesColumnStoreTest {
+
+    private SeriesColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new SeriesColumnStore();
+    }
+
+    @Test
+    void testAppendAndRead() {
+        // Test that appended rows read back column by column
+        int row = store.append("S001", "Breaking Bad", 16, 62);
+
+        assertEquals(0, row);
+        assertEquals(1, store.size());
+        assertEquals("S001", store.getId(row));
+        assertEquals("Breaking Bad", store.getName(row));
+        assertEquals(16, store.getAge(row));
+        assertEquals(62, store.getEpisodes(row));
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() {
+        // Test that many rows with non-ASCII names survive column growth
+        for (int i = 0; i < 1000; i++) {
+            store.append("S" + i, "Série " + i, 2 + i % 17, i);
+        }
+
+        assertEquals(1000, store.size());
+        assertEquals("S999", store.getId(999));
+        assertEquals("Série 500", store.getName(500));
+        assertEquals(999L * 1000 / 2, store.totalEpisodes());
+    }
+
+    @Test
+    void testViewReadsAndWritesThrough() {
+        // Test that a SeriesModel view reflects and changes the stored row
+        int row = store.append(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+        SeriesModel view = store.view(row);
+
+        assertEquals("S001", view.getSeriesId());
+        assertEquals("16", view.getSeriesAge());
+
+        view.setSeriesName("Better Call Saul");
+        view.setSeriesAge("18");
+        view.setSeriesNumberOfEpisodes("50");
+
+        assertEquals("Better Call Saul", store.getName(row));
+        assertEquals(18, store.getAge(row));
+        assertEquals(50, store.getEpisodes(row));
+        assertThrows(UnsupportedOperationException.class, () -> view.setSeriesId("S002"));
+    }
+
+    @Test
+    void testViewFailsAfterCompactionMovesItsRow() {
+        // Test that a view held across a compaction neither reads nor writes the series now in its row
+        store.append("S001", "Breaking Bad", 16, 62);
+        int row = store.append("S002", "Dark", 16, 26);
+        store.append("S003", "Lost", 12, 121);
+        SeriesModel view = store.view(row);
+        assertEquals("S002", view.getSeriesId());
+        store.delete(0);
+        int[] remap = store.compact();
+
+        assertThrows(IllegalStateException.class, view::getSeriesId);
+        assertThrows(IllegalStateException.class, view::getSeriesName);
+        assertThrows(IllegalStateException.class, () -> view.setSeriesAge("18"));
+        assertThrows(IllegalStateException.class, () -> view.setSeriesName("Renamed"));
+        assertEquals("Dark", store.getName(remap[row]));
+        assertEquals(16, store.getAge(remap[row]));
+        assertEquals("Lost", store.getName(row));
+        assertEquals("Dark", store.view(remap[row]).getSeriesName());
+    }
+
+    @Test
+    void testCountByAge() {
+        // Test the age column scan
+        store.append("S001", "Breaking Bad", 16, 62);
+        store.append("S002", "Game of Thrones", 18, 73);
+        store.append("S003", "Dark", 16, 26);
+
+        assertEquals(2, store.countByAge(16));
+        assertEquals(0, store.countByAge(2));
+    }
+
+    @Test
+    void testRowOutOfRange() {
+        // Test that reading a missing row fails
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getId(0));
+        assertThrows(NumberFormatException.class, () -> store.append(new SeriesModel("S001", "Name", "16", "many")));
+    }
+
+    @Test
+    void testDeleteLeavesTombstone() {
+        // Test that a deleted row is skipped by scans and cannot be read, without moving later rows
+        store.append("S001", "Breaking Bad", 16, 62);
+        store.append("S002", "Game of Thrones", 18, 73);
+        store.append("S003", "Dark", 16, 26);
+
+        assertTrue(store.delete(0));
+        assertFalse(store.delete(0));
+        assertEquals(3, store.size());
+        assertEquals(2, store.liveSize());
+        assertEquals(99, store.totalEpisodes());
+        assertEquals(1, store.countByAge(16));
+        assertEquals("Game of Thrones", store.getName(1));
+        assertEquals(1, store.nextLiveRow(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getName(0));
+    }
+
+    @Test
+    void testCompactRemapsRows() {
+        // Test that compaction drops tombstones and stale name bytes and reports where rows moved
+        for (int i = 0; i < 100; i++) {
+            store.append("S" + i, "Series " + i, 2 + i % 17, i);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            store.delete(i);
+        }
+        store.setName(99, "Renamed");
+
+        int[] remap = store.compact();
+        assertEquals(50, store.size());
+        assertEquals(0, store.deletedCount());
+        assertEquals(-1, remap[0]);
+        assertEquals(0, remap[1]);
+        assertEquals(49, remap[99]);
+        assertEquals("S1", store.getId(0));
+        assertEquals("Renamed", store.getName(49));
+        assertEquals(99, store.getEpisodes(49));
+
+        int row = store.append("NEW", "New", 10, 5);
+        assertEquals(50, row);
+        assertEquals("NEW", store.getId(row));
+    }
+}
@@ -0,0 +1,108 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SeriesCsvImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testImportValidRowsAndReportErrors() throws Exception {
+        // Test that good rows are imported and bad rows are written with their line numbers
+        Path source = tempDir.resolve("series.csv");
+        Path errorFile = tempDir.resolve("errors.txt");
+        Files.write(source, List.of(
+                "id,name,age,episodes",
+                "S001,Breaking Bad,16,62",
+                "S002,\"Love, Death & Robots\",18,35",
+                "S003,Too Young,1,10",
+                "S004,Not A Number,abc,10",
+                "S005,Missing Field,12",
+                "S001,Duplicate,12,1"));
+
+        SeriesService service = new SeriesService();
+        SeriesCsvImporter.ImportResult result = SeriesCsvImporter.forFile(source).importFile(source, errorFile, service);
+
+        assertEquals(2, result.getAccepted());
+        assertEquals(4, result.getRejected());
+        assertEquals("Love, Death & Robots", service.findByNamePrefix("love").get(0).getSeriesName());
+
+        String errors = Files.readString(errorFile);
+        assertTrue(errors.contains("4: You have entered an incorrect age restriction: 1"));
+        assertTrue(errors.contains("5: You have entered an incorrect non-number age restriction!"));
+        assertTrue(errors.contains("6: Expected 4 fields"));
+        assertTrue(errors.contains("7: Series with Series ID: S001 already exists!"));
+    }
+
+    @Test
+    void testErrorFileKeepsLineOrderAndOriginalRows() throws Exception {
+        // Test that a duplicate is written with its original row, between the invalid rows around it
+        Path source = tempDir.resolve("series.csv");
+        Path errorFile = tempDir.resolve("errors.txt");
+        Files.write(source, List.of(
+                "S001,Breaking Bad,16,62",
+                "S002,Too Young,1,10",
+                "S001,  \"Breaking, Again\"  ,12,1",
+                "S003,Missing Field,12"));
+
+        SeriesCsvImporter.ImportResult result = new SeriesCsvImporter(',').importFile(source, errorFile, new SeriesService());
+
+        assertEquals(1, result.getAccepted());
+        assertEquals(List.of(
+                "2: You have entered an incorrect age restriction: 1: S002,Too Young,1,10",
+                "3: Series with Series ID: S001 already exists!: S001,  \"Breaking, Again\"  ,12,1",
+                "4: Expected 4 fields (id, name, age, episodes) but found 3: S003,Missing Field,12"),
+                Files.readAllLines(errorFile));
+    }
+
+    @Test
+    void testParallelChunksKeepFileOrder() throws Exception {
+        // Test that many small chunks on several threads import every row in file order
+        Path source = tempDir.resolve("series.tsv");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            lines.add("S" + i + "\tName " + i + "\t" + (2 + i % 17) + "\t" + i);
+        }
+        lines.add("S10\tRepeated\t12\t1");
+        Files.write(source, lines);
+
+        SeriesService service = new SeriesService();
+        SeriesCsvImporter.ImportResult result = new SeriesCsvImporter('\t', 64, 4).importFile(source, null, service);
+
+        assertEquals(5000, result.getAccepted());
+        assertEquals(1, result.getRejected());
+        assertEquals("S4999", service.list(4999, 1).get(0).getSeriesId());
+        assertEquals("Name 10", service.find("S10").get().getSeriesName());
+    }
+
+    @Test
+    void testSplitHandlesQuotes() {
+        // Test quoted delimiters and escaped quotes
+        SeriesCsvImporter importer = new SeriesCsvImporter(',');
+        assertEquals(List.of("S1", "He said \"hi\", twice", "12", "3"),
+                importer.split("S1,\"He said \"\"hi\"\", twice\",12,3"));
+    }
+
+    @Test
+    void testImportIsLogged() throws Exception {
+        // Test that imported series survive a restart of a durable catalog
+        Path source = tempDir.resolve("series.csv");
+        Files.write(source, List.of("S001,Breaking Bad,16,62", "S002,Game of Thrones,18,73"));
+        Path logFile = tempDir.resolve("series.wal");
+
+        SeriesService service = new SeriesService(logFile);
+        SeriesCsvImporter.forFile(source).importFile(source, null, service);
+        service.close();
+
+        SeriesService reopened = new SeriesService(logFile);
+        assertEquals(2, reopened.findByMinimumAge(2).size());
+        reopened.close();
+    }
+}
@@ -0,0 +1,57 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SeriesHashRingTest {
+
+    private static final int KEYS = 20_000;
+
+    @Test
+    void testKeysSpreadEvenlyOverNodes() {
+        // Test that every node owns close to its fair share of IDs and the same ID always maps to the same node
+        SeriesHashRing ring = new SeriesHashRing(List.of("node-a:1", "node-b:2", "node-c:3", "node-d:4"), SeriesHashRing.DEFAULT_VIRTUAL_NODES);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.nodeFor("S" + i), 1, Integer::sum);
+        }
+        assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            assertTrue(count > KEYS / 4 * 0.75 && count < KEYS / 4 * 1.25, "Uneven share: " + counts);
+        }
+        assertEquals(ring.nodeFor("S42"), new SeriesHashRing(List.of("node-a:1", "node-b:2", "node-c:3", "node-d:4"),
+                SeriesHashRing.DEFAULT_VIRTUAL_NODES).nodeFor("S42"));
+    }
+
+    @Test
+    void testAddingNodeMovesAboutOneNthOfKeysOnlyToIt() {
+        // Test that a fifth node takes about a fifth of the IDs and no ID moves between the old nodes
+        SeriesHashRing ring = new SeriesHashRing(List.of("node-a:1", "node-b:2", "node-c:3", "node-d:4"), SeriesHashRing.DEFAULT_VIRTUAL_NODES);
+        String[] before = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            before[i] = ring.nodeFor("S" + i);
+        }
+        assertTrue(ring.addNode("node-e:5"));
+        assertFalse(ring.addNode("node-e:5"));
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String owner = ring.nodeFor("S" + i);
+            if (!owner.equals(before[i])) {
+                assertEquals("node-e:5", owner);
+                moved++;
+            }
+        }
+        assertTrue(moved > KEYS / 5 * 0.75 && moved < KEYS / 5 * 1.25, "Moved " + moved + " of " + KEYS);
+
+        assertTrue(ring.removeNode("node-e:5"));
+        for (int i = 0; i < KEYS; i++) {
+            assertEquals(before[i], ring.nodeFor("S" + i));
+        }
+        assertEquals(List.of("node-a:1", "node-b:2", "node-c:3", "node-d:4"), ring.getNodes());
+        assertThrows(IllegalStateException.class, () -> new SeriesHashRing().nodeFor("S1"));
+    }
+}
@@ -0,0 +1,202 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+
+public class SeriesHttpServerTest {
+
+    private SeriesService service;
+    private SeriesHttpServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        service = new SeriesService();
+        server = new SeriesHttpServer(service, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        server.start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testCaptureThenGet() throws Exception {
+        // Test that a series posted over HTTP can be read back and is in the catalog
+        HttpResponse<String> created = send("POST", "/series",
+                "{\"seriesId\":\"S001\",\"seriesName\":\"Breaking Bad\",\"seriesAge\":\"16\",\"seriesNumberOfEpisodes\":62}");
+        assertEquals(201, created.statusCode());
+        assertEquals("/series/S001", created.headers().firstValue("Location").orElse(""));
+
+        HttpResponse<String> found = send("GET", "/series/S001", null);
+        assertEquals(200, found.statusCode());
+        Map<String, String> fields = SeriesJson.readObject(found.body());
+        assertEquals("Breaking Bad", fields.get("seriesName"));
+        assertEquals("62", fields.get("seriesNumberOfEpisodes"));
+        assertTrue(service.exists("S001"));
+    }
+
+    @Test
+    void testDuplicateAndMissing() throws Exception {
+        // Test the status codes for a duplicate capture and an unknown ID
+        String body = "{\"seriesName\":\"Dark\",\"seriesAge\":\"16\",\"seriesNumberOfEpisodes\":\"26\"}";
+        assertEquals(201, send("POST", "/series/S002", body).statusCode());
+        HttpResponse<String> duplicate = send("POST", "/series/S002", body);
+        assertEquals(409, duplicate.statusCode());
+        assertTrue(duplicate.body().contains("already exists!"));
+
+        assertEquals(404, send("GET", "/series/S999", null).statusCode());
+        assertEquals(404, send("PUT", "/series/S999", body).statusCode());
+        assertEquals(404, send("DELETE", "/series/S999", null).statusCode());
+    }
+
+    @Test
+    void testUpdateAndDelete() throws Exception {
+        // Test that PUT and DELETE change the shared catalog
+        service.capture(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+
+        HttpResponse<String> updated = send("PUT", "/series/S001",
+                "{\"seriesName\":\"Breaking Bad\",\"seriesAge\":\"18\",\"seriesNumberOfEpisodes\":\"62\"}");
+        assertEquals(200, updated.statusCode());
+        assertEquals("18", service.find("S001").orElseThrow().getSeriesAge());
+
+        assertEquals(204, send("DELETE", "/series/S001", null).statusCode());
+        assertFalse(service.exists("S001"));
+    }
+
+    @Test
+    void testConnectionStaysUsableAfterDelete() throws Exception {
+        // Test that requests sent right after a 204 on the same kept-alive connection are answered
+        for (int i = 0; i < 50; i++) {
+            service.capture(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+            assertEquals(204, send("DELETE", "/series/S001", null).statusCode());
+            assertEquals(404, send("DELETE", "/series/S001", null).statusCode());
+        }
+    }
+
+    @Test
+    void testInvalidRequests() throws Exception {
+        // Test that bad ages, bad JSON and mismatched IDs are rejected with 400
+        assertEquals(400, send("POST", "/series/S001",
+                "{\"seriesName\":\"Too Young\",\"seriesAge\":\"1\",\"seriesNumberOfEpisodes\":\"5\"}").statusCode());
+        assertEquals(400, send("POST", "/series", "{not json").statusCode());
+        assertEquals(400, send("POST", "/series/S001",
+                "{\"seriesId\":\"S002\",\"seriesName\":\"X\",\"seriesAge\":\"10\",\"seriesNumberOfEpisodes\":\"5\"}").statusCode());
+        assertEquals(400, send("GET", "/series?limit=-1", null).statusCode());
+        assertEquals(405, send("PATCH", "/series/S001", "{}").statusCode());
+        assertEquals(0, service.size());
+    }
+
+    @Test
+    void testPathMustHaveSeriesSegment() throws Exception {
+        // Test that paths which only start with "/series" name no series, rather than the characters after it
+        service.capture(new SeriesModel("bc123", "Breaking Bad", "16", "62"));
+        service.capture(new SeriesModel("foo", "Dark", "16", "26"));
+
+        assertEquals(404, send("GET", "/seriesabc123", null).statusCode());
+        assertEquals(404, send("DELETE", "/seriesXfoo", null).statusCode());
+        assertTrue(service.exists("foo"));
+        assertEquals(2, service.size());
+    }
+
+    @Test
+    void testPagedList() throws Exception {
+        // Test that GET /series returns the requested page with the total count
+        for (int i = 1; i <= 5; i++) {
+            service.capture(new SeriesModel("S00" + i, "Series " + i, "10", "1"));
+        }
+
+        HttpResponse<String> page = send("GET", "/series?offset=1&limit=2", null);
+        assertEquals(200, page.statusCode());
+        assertTrue(page.body().startsWith("{\"offset\":1,\"limit\":2,\"total\":5,\"series\":[{\"seriesId\":\"S002\""));
+        assertTrue(page.body().contains("\"S003\""));
+        assertFalse(page.body().contains("\"S004\""));
+    }
+
+    @Test
+    void testPageInIdOrderCarriesTotals() throws Exception {
+        // Test that order=id pages by series ID and sends the catalog totals with the page
+        for (int i = 5; i >= 1; i--) {
+            service.capture(new SeriesModel("S00" + i, "Series " + i, i % 2 == 0 ? "12" : "16", String.valueOf(i)));
+        }
+
+        HttpResponse<String> response = send("GET", "/series?order=id&offset=1&limit=2", null);
+        assertEquals(200, response.statusCode());
+        SeriesJson.Page page = SeriesJson.readPage(response.body());
+        assertEquals(5, page.getTotal());
+        assertEquals("S002", page.getSeries().get(0).getSeriesId());
+        assertEquals("S003", page.getSeries().get(1).getSeriesId());
+        assertEquals(2, page.getSeries().size());
+        assertEquals(15, page.getTotals().summary().getTotalEpisodes());
+        assertEquals(2, page.getTotals().summary(12).getSeriesCount());
+        assertEquals(5, page.getTotals().summary(16).getMaxEpisodes());
+        assertNull(SeriesJson.readPage(send("GET", "/series?offset=0&limit=2", null).body()).getTotals());
+        assertEquals(400, send("GET", "/series?order=name", null).statusCode());
+    }
+
+    @Test
+    void testPageAfterAnIdResumesThere() throws Exception {
+        // Test that after= returns the series following that ID, and cannot be mixed with an offset
+        for (int i = 5; i >= 1; i--) {
+            service.capture(new SeriesModel("S00" + i, "Series " + i, "12", "1"));
+        }
+
+        SeriesJson.Page first = SeriesJson.readPage(send("GET", "/series?order=id&limit=2", null).body());
+        assertEquals("S001", first.getSeries().get(0).getSeriesId());
+        assertEquals(5, first.getTotals().summary().getSeriesCount());
+        SeriesJson.Page next = SeriesJson.readPage(send("GET", "/series?order=id&after=S002&limit=2", null).body());
+        assertEquals("S003", next.getSeries().get(0).getSeriesId());
+        assertEquals("S004", next.getSeries().get(1).getSeriesId());
+        assertNull(next.getTotals());
+        assertEquals(5, next.getTotal());
+        assertEquals(400, send("GET", "/series?order=id&after=S002&offset=1", null).statusCode());
+    }
+
+    @Test
+    void testIdWithReservedCharactersIsOnePathSegment() throws Exception {
+        // Test that an ID holding "/", "?", "%", "+" and a space round-trips when percent-encoded
+        String id = "A/B?c=1 50%+";
+        String path = "/series/" + SeriesHttpServer.encodePathSegment(id);
+        assertEquals("/series/A%2FB%3Fc%3D1%2050%25%2B", path);
+        String body = "{\"seriesName\":\"Odd\",\"seriesAge\":\"12\",\"seriesNumberOfEpisodes\":\"1\"}";
+
+        HttpResponse<String> created = send("POST", path, body);
+        assertEquals(201, created.statusCode());
+        assertEquals(path, created.headers().firstValue("Location").orElse(""));
+        assertTrue(service.exists(id));
+        assertEquals(id, SeriesJson.readSeries(send("GET", path, null).body()).getSeriesId());
+        assertEquals(404, send("GET", "/series/A/B", null).statusCode());
+        assertEquals(204, send("DELETE", path, null).statusCode());
+        assertFalse(service.exists(id));
+    }
+
+    @Test
+    void testManyRequestsOnOneClient() throws Exception {
+        // Test that a run of requests over kept-alive connections all succeed
+        service.capture(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+        for (int i = 0; i < 200; i++) {
+            assertEquals(200, send("GET", "/series/S001", null).statusCode());
+        }
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, publisher)
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,67 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.Map;
+
+public class SeriesJsonTest {
+
+    @Test
+    void testWriteThenRead() {
+        // Test that a series with quotes, backslashes and newlines survives a round trip
+        SeriesModel series = new SeriesModel("S001", "The \"Office\" \\ US\n", "12", "201");
+        SeriesModel read = SeriesJson.readSeries(SeriesJson.write(series));
+
+        assertEquals("S001", read.getSeriesId());
+        assertEquals("The \"Office\" \\ US\n", read.getSeriesName());
+        assertEquals("12", read.getSeriesAge());
+        assertEquals("201", read.getSeriesNumberOfEpisodes());
+    }
+
+    @Test
+    void testReadNumbersAndNull() {
+        // Test that numbers and null are read as their text, and unicode escapes are decoded
+        Map<String, String> fields = SeriesJson.readObject(" { \"a\" : 16 , \"b\":null, \"c\":\"\\u00e9\" } ");
+        assertEquals("16", fields.get("a"));
+        assertNull(fields.get("b"));
+        assertEquals("\u00e9", fields.get("c"));
+        assertTrue(SeriesJson.readObject("{}").isEmpty());
+    }
+
+    @Test
+    void testRejectsMalformedJson() {
+        // Test that broken or nested JSON is rejected with IllegalArgumentException
+        assertThrows(IllegalArgumentException.class, () -> SeriesJson.readObject("{\"a\":1"));
+        assertThrows(IllegalArgumentException.class, () -> SeriesJson.readObject("{\"a\":[1]}"));
+        assertThrows(IllegalArgumentException.class, () -> SeriesJson.readObject("{\"a\":1} x"));
+        assertThrows(IllegalArgumentException.class, () -> SeriesJson.readObject("[]"));
+    }
+
+    @Test
+    void testWritePage() {
+        // Test the page envelope around a list of series
+        String json = SeriesJson.writePage(List.of(new SeriesModel("S001", "Dark", "16", "26")), 0, 10, 1);
+        assertEquals("{\"offset\":0,\"limit\":10,\"total\":1,\"series\":[{\"seriesId\":\"S001\",\"seriesName\":\"Dark\","
+                + "\"seriesAge\":\"16\",\"seriesNumberOfEpisodes\":\"26\"}]}", json);
+    }
+
+    @Test
+    void testReadPage() {
+        // Test that a written page reads back with its counts and series, and that malformed pages are rejected
+        String json = SeriesJson.writePage(List.of(new SeriesModel("S001", "Dark, \"German\"", "16", "26"),
+                new SeriesModel("S002", "Bluey", "2", "150")), 5, 2, 9);
+        SeriesJson.Page page = SeriesJson.readPage(" " + json + " ");
+        assertEquals(5, page.getOffset());
+        assertEquals(2, page.getLimit());
+        assertEquals(9, page.getTotal());
+        assertEquals(2, page.getSeries().size());
+        assertEquals("Dark, \"German\"", page.getSeries().get(0).getSeriesName());
+        assertEquals("150", page.getSeries().get(1).getSeriesNumberOfEpisodes());
+        assertTrue(SeriesJson.readPage(SeriesJson.writePage(List.of(), 0, 0, 3)).getSeries().isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> SeriesJson.readPage("{\"offset\":0,\"limit\":1,\"series\":[]}"));
+        assertThrows(IllegalArgumentException.class, () -> SeriesJson.readPage("{\"offset\":0,\"limit\":1,\"total\":1,\"series\":[{},]}"));
+        assertThrows(IllegalArgumentException.class, () -> SeriesJson.readObject("{\"a\":1,}"));
+    }
+}
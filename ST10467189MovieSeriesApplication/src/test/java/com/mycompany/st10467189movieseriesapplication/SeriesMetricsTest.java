@@ -0,0 +1,46 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.StringWriter;
+
+public class SeriesMetricsTest {
+
+    @Test
+    void testServiceRecordsEachOperation() throws Exception {
+        // Test that every catalog operation is counted and searches are split into hits and misses
+        SeriesService service = new SeriesService();
+        service.capture(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+        service.find("S001");
+        service.find("S999");
+        service.update(new SeriesModel("S001", "Breaking Bad", "18", "62"));
+        service.delete("S001");
+        service.report(new StringWriter(), 0, 10);
+
+        SeriesMetrics.Snapshot snapshot = service.metrics();
+        for (SeriesMetrics.Operation operation : SeriesMetrics.Operation.values()) {
+            int expected = operation == SeriesMetrics.Operation.SEARCH ? 2 : 1;
+            assertEquals(expected, snapshot.get(operation).getCount(), operation.name());
+        }
+        assertEquals(1, snapshot.getSearchHits());
+        assertEquals(1, snapshot.getSearchMisses());
+        SeriesMetrics.OperationStats search = snapshot.get(SeriesMetrics.Operation.SEARCH);
+        assertTrue(search.getP50() <= search.getP99() && search.getP99() <= search.getMax());
+    }
+
+    @Test
+    void testFormat() {
+        // Test that the console layout lists every operation and the search counters
+        SeriesMetrics metrics = new SeriesMetrics();
+        metrics.record(SeriesMetrics.Operation.CAPTURE, System.nanoTime());
+        metrics.recordSearch(true);
+
+        String text = metrics.snapshot().format();
+        assertTrue(text.startsWith("Catalog Metrics"));
+        for (SeriesMetrics.Operation operation : SeriesMetrics.Operation.values()) {
+            assertTrue(text.contains(operation.name()));
+        }
+        assertTrue(text.contains("SEARCH HITS: 1"));
+        assertTrue(text.contains("SEARCH MISSES: 0"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+
+public class SeriesNameIndexTest {
+
+    private SeriesNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SeriesNameIndex();
+        index.add("Breaking Bad", "S001");
+        index.add("Better Call Saul", "S002");
+        index.add("Game of Thrones", "S003");
+        index.add("breaking bad", "S004");
+    }
+
+    @Test
+    void testPrefixIgnoresCase() {
+        // Test that prefix search matches regardless of case, in name order
+        assertEquals(List.of("S002", "S001", "S004"), index.findByPrefix("b"));
+        assertEquals(List.of("S001", "S004"), index.findByPrefix("BREAK"));
+    }
+
+    @Test
+    void testPrefixWithNoMatches() {
+        // Test that an unknown prefix returns nothing
+        assertTrue(index.findByPrefix("Z").isEmpty());
+    }
+
+    @Test
+    void testEmptyPrefixReturnsEverything() {
+        // Test that an empty prefix lists all series
+        assertEquals(4, index.findByPrefix("").size());
+    }
+
+    @Test
+    void testRangeIsHalfOpen() {
+        // Test that range includes the lower bound and excludes the upper bound
+        assertEquals(List.of("S002", "S001", "S004"), index.findByRange("Better Call Saul", "Game of Thrones"));
+        assertTrue(index.findByRange("Z", "A").isEmpty());
+    }
+
+    @Test
+    void testRemove() {
+        // Test that removed entries are no longer returned
+        index.remove("Breaking Bad", "S001");
+        assertEquals(List.of("S004"), index.findByPrefix("break"));
+
+        index.remove("breaking bad", "S004");
+        assertTrue(index.findByPrefix("break").isEmpty());
+    }
+}
@@ -0,0 +1,80 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeriesOffHeapStoreTest {
+
+    @Test
+    void testCrudById() {
+        // Test that capture, find, update and delete behave like the in-memory catalog
+        SeriesOffHeapStore store = new SeriesOffHeapStore();
+        assertTrue(store.capture(new SeriesModel("S001", "Breaking Bad", "16", "62")));
+        assertFalse(store.capture(new SeriesModel("S001", "Duplicate", "12", "1")));
+        assertEquals("Breaking Bad", store.find("S001").get().getSeriesName());
+        assertTrue(store.update(new SeriesModel("S001", "Breaking Bad", "18", "63")));
+        assertFalse(store.update(new SeriesModel("S404", "Missing", "12", "1")));
+        assertEquals("63", store.find("S001").get().getSeriesNumberOfEpisodes());
+        assertThrows(IllegalArgumentException.class, () -> store.capture(new SeriesModel("S002", "Too Young", "1", "1")));
+
+        assertTrue(store.delete("S001"));
+        assertFalse(store.delete("S001"));
+        assertFalse(store.exists("S001"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testRecordsDecodeLazilyAndGoStaleAfterChange() {
+        // Test that a found record reads its fields from the slab and refuses to read after the series changed
+        SeriesOffHeapStore store = new SeriesOffHeapStore();
+        store.capture(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+        SeriesModel read = store.find("S001").get();
+        assertEquals("16", read.getSeriesAge());
+
+        store.update(new SeriesModel("S001", "Better Call Saul", "18", "50"));
+        assertEquals("16", read.getSeriesAge());
+        assertThrows(IllegalStateException.class, read::getSeriesName);
+        assertEquals("Better Call Saul", store.find("S001").get().getSeriesName());
+    }
+
+    @Test
+    void testFreedSlotsAreReusedAndHeapStaysFlat() {
+        // Test that deleting and recapturing reuses slots instead of adding slabs
+        SeriesOffHeapStore store = new SeriesOffHeapStore(1 << 12);
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(store.capture(new SeriesModel("S" + i, "Series " + i, "12", "1")));
+        }
+        int slabs = store.getSlabCount();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 10_000; i += 2) {
+                assertTrue(store.delete("S" + i));
+            }
+            for (int i = 0; i < 10_000; i += 2) {
+                assertTrue(store.capture(new SeriesModel("S" + i, "Series " + i, "12", "2")));
+            }
+        }
+        assertEquals(slabs, store.getSlabCount());
+        assertEquals(10_000, store.size());
+        for (int i = 0; i < 10_000; i += 333) {
+            assertEquals("Series " + i, store.find("S" + i).get().getSeriesName());
+        }
+    }
+
+    @Test
+    void testGrowingUpdateMovesToLargerSlotAndReportSkipsFreeSlots() throws Exception {
+        // Test that an update too big for its slot moves the record and the report lists each series once
+        SeriesOffHeapStore store = new SeriesOffHeapStore();
+        store.capture(new SeriesModel("S001", "Dark", "16", "26"));
+        store.capture(new SeriesModel("S002", "Bluey", "2", "150"));
+        store.capture(new SeriesModel("S003", "Severance", "16", "19"));
+        assertTrue(store.update(new SeriesModel("S001", "Dark, the German series about time travel", "16", "26")));
+        store.delete("S002");
+
+        StringBuilder out = new StringBuilder();
+        assertEquals(2, store.report(out, 0, 10));
+        assertTrue(out.toString().contains("Dark, the German series about time travel"));
+        assertTrue(out.toString().contains("Severance"));
+        assertFalse(out.toString().contains("Bluey"));
+        assertThrows(IllegalArgumentException.class, () -> new SeriesOffHeapStore(5000));
+    }
+}
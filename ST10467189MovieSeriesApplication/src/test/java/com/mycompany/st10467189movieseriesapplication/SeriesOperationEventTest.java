@@ -0,0 +1,75 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class SeriesOperationEventTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEventsRecordedWhenEnabled() throws Exception {
+        // Test that each catalog operation emits one event with its fields when the event is enabled
+        SeriesService service = new SeriesService();
+        Path file = tempDir.resolve("enabled.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(SeriesOperationEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            service.capture(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+            service.capture(new SeriesModel("S001", "Duplicate", "12", "1"));
+            service.find("S001");
+            service.find("S999");
+            service.update(new SeriesModel("S001", "Breaking Bad", "18", "62"));
+            service.delete("S001");
+            service.report(new StringWriter(), 0, 10);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = catalogEvents(file);
+        assertEquals(List.of("CAPTURE", "CAPTURE", "SEARCH", "SEARCH", "UPDATE", "DELETE", "REPORT"),
+                events.stream().map(e -> e.getString("operation")).collect(Collectors.toList()));
+        assertEquals("S001", events.get(0).getString("seriesId"));
+        assertTrue(events.get(0).getBoolean("found"));
+        assertFalse(events.get(1).getBoolean("found"));
+        assertTrue(events.get(2).getBoolean("found"));
+        assertTrue(events.get(2).getBoolean("indexUsed"));
+        assertEquals(1, events.get(2).getLong("recordsScanned"));
+        assertFalse(events.get(3).getBoolean("found"));
+        assertEquals(0, events.get(3).getLong("recordsScanned"));
+        assertTrue(events.get(4).getBoolean("found"));
+        assertTrue(events.get(5).getBoolean("found"));
+    }
+
+    @Test
+    void testNoEventsByDefault() throws Exception {
+        // Test that a recording that does not enable the event sees none
+        SeriesService service = new SeriesService();
+        Path file = tempDir.resolve("default.jfr");
+        try (Recording recording = new Recording()) {
+            recording.start();
+            service.capture(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+            service.find("S001");
+            recording.stop();
+            recording.dump(file);
+        }
+        assertTrue(catalogEvents(file).isEmpty());
+    }
+
+    private static List<RecordedEvent> catalogEvents(Path file) throws Exception {
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("series.CatalogOperation"))
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,115 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SeriesReportTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<SeriesModel> seriesList;
+
+    @BeforeEach
+    void setUp() {
+        seriesList = new ArrayList<>();
+        for (int i = 1; i <= 600; i++) {
+            seriesList.add(new SeriesModel("S" + i, "Series Name " + i, "12", String.valueOf(i)));
+        }
+    }
+
+    @Test
+    void testFullReportKeepsFormat() throws Exception {
+        // Test that the buffered report has the same layout as the console report
+        StringBuilder out = new StringBuilder();
+        int written = SeriesReport.write(seriesList.subList(0, 1), out, 0, Integer.MAX_VALUE);
+
+        String nl = System.lineSeparator();
+        assertEquals(1, written);
+        assertEquals("Sample Report Screen Shot" + nl
+                + "Series 1" + nl
+                + "-------------------------------------" + nl
+                + "SERIES ID: S1" + nl
+                + "SERIES NAME: Series Name 1" + nl
+                + "SERIES AGE RESTRICTION: 12" + nl
+                + "NUMBER OF EPISODES: 1" + nl
+                + nl, out.toString());
+    }
+
+    @Test
+    void testPagination() throws Exception {
+        // Test that offset and page size select a numbered slice of the catalog
+        StringBuilder out = new StringBuilder();
+        int written = SeriesReport.write(seriesList, out, 300, 10);
+
+        String report = out.toString();
+        assertEquals(10, written);
+        assertTrue(report.contains("Series 301"));
+        assertTrue(report.contains("SERIES ID: S310"));
+        assertFalse(report.contains("SERIES ID: S300" + System.lineSeparator()));
+        assertFalse(report.contains("SERIES ID: S311"));
+    }
+
+    @Test
+    void testOffsetPastEnd() throws Exception {
+        // Test that a page past the end only has the title
+        StringBuilder out = new StringBuilder();
+        assertEquals(0, SeriesReport.write(seriesList, out, 1000, 10));
+        assertEquals("Sample Report Screen Shot" + System.lineSeparator(), out.toString());
+    }
+
+    @Test
+    void testNegativeArgumentsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SeriesReport.write(seriesList, new StringBuilder(), -1, 10));
+    }
+
+    @Test
+    void testStreamsToWriterAcrossFlushes() throws Exception {
+        // Test that a report larger than one flush batch reaches a file intact
+        StringBuilder expected = new StringBuilder();
+        SeriesReport.write(seriesList, expected, 0, Integer.MAX_VALUE);
+
+        Path reportFile = tempDir.resolve("report.txt");
+        try (Writer out = Files.newBufferedWriter(reportFile)) {
+            assertEquals(600, SeriesReport.write(seriesList, out, 0, Integer.MAX_VALUE));
+        }
+        assertEquals(expected.toString(), Files.readString(reportFile));
+    }
+
+    @Test
+    void testSeriesReportToFile() throws Exception {
+        // Test that Series writes its report to a file
+        Path reportFile = tempDir.resolve("report.txt");
+        assertEquals(0, new Series().seriesReport(reportFile));
+        assertTrue(Files.readString(reportFile).startsWith("Sample Report Screen Shot"));
+    }
+
+    @Test
+    void testSummaryFooterOnLastPage() throws Exception {
+        // Test that the summary follows the last series but not an earlier page
+        SeriesStatistics statistics = new SeriesStatistics();
+        for (SeriesModel series : seriesList) {
+            statistics.add(series);
+        }
+        String footer = SeriesReport.summary(statistics);
+        assertTrue(footer.contains("TOTAL SERIES: 600"));
+        assertTrue(footer.contains("TOTAL EPISODES: 180300"));
+        assertTrue(footer.contains("AVERAGE EPISODES: 300.5"));
+        assertTrue(footer.contains("AGE 12: 600 series, 180300 episodes (min 1, max 600)"));
+
+        StringBuilder firstPage = new StringBuilder();
+        SeriesReport.write(seriesList, firstPage, 0, 10, footer);
+        assertFalse(firstPage.toString().contains("Catalog Summary"));
+
+        StringBuilder lastPage = new StringBuilder();
+        SeriesReport.write(seriesList, lastPage, 590, 10, footer);
+        assertTrue(lastPage.toString().endsWith(footer));
+    }
+}
@@ -0,0 +1,159 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SeriesRepositoryTest {
+
+    private SeriesRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new SeriesRepository();
+    }
+
+    @Test
+    void testAddAndFindById() {
+        // Test that an added series can be found by its ID
+        assertTrue(repository.add(new SeriesModel("S001", "Breaking Bad", "16", "62")));
+
+        SeriesModel found = repository.findById("S001");
+        assertNotNull(found);
+        assertEquals("Breaking Bad", found.getSeriesName());
+        assertEquals(1, repository.size());
+    }
+
+    @Test
+    void testAddRejectsDuplicateId() {
+        // Test that a second series with the same ID is not added
+        repository.add(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+
+        assertFalse(repository.add(new SeriesModel("S001", "Shadow Record", "10", "1")));
+        assertEquals(1, repository.size());
+        assertEquals("Breaking Bad", repository.findById("S001").getSeriesName());
+    }
+
+    @Test
+    void testUpsertReplacesExistingFields() {
+        // Test that upsert updates an existing series in place
+        repository.add(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+
+        assertNotNull(repository.upsert(new SeriesModel("S001", "Better Call Saul", "18", "50")));
+        assertNull(repository.upsert(new SeriesModel("S002", "Game of Thrones", "18", "73")));
+
+        assertEquals(2, repository.size());
+        assertEquals("Better Call Saul", repository.findById("S001").getSeriesName());
+        assertEquals("18", repository.findById("S001").getSeriesAge());
+    }
+
+    @Test
+    void testUpdateUnknownIdReturnsNull() {
+        // Test that updating a missing series changes nothing
+        assertNull(repository.update("NONEXISTENT", "Name", "10", "5"));
+        assertEquals(0, repository.size());
+    }
+
+    @Test
+    void testRemove() {
+        // Test that a removed series can no longer be found
+        repository.add(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+
+        assertNotNull(repository.remove("S001"));
+        assertNull(repository.findById("S001"));
+        assertNull(repository.remove("S001"));
+        assertEquals(0, repository.size());
+    }
+
+    @Test
+    void testFindAllKeepsCaptureOrder() {
+        // Test that iteration follows the order series were captured
+        repository.add(new SeriesModel("S003", "Stranger Things", "14", "25"));
+        repository.add(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+        repository.add(new SeriesModel("S002", "Game of Thrones", "18", "73"));
+        repository.remove("S001");
+
+        List<String> ids = new ArrayList<>();
+        for (SeriesModel series : repository.findAll()) {
+            ids.add(series.getSeriesId());
+        }
+        assertEquals(List.of("S003", "S002"), ids);
+    }
+
+    @Test
+    void testNameIndexFollowsUpdatesAndRemoves() {
+        // Test that name searches see renamed and removed series
+        repository.add(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+        repository.add(new SeriesModel("S002", "Game of Thrones", "18", "73"));
+
+        repository.update("S001", "Better Call Saul", "18", "50");
+        assertTrue(repository.findByNamePrefix("Breaking").isEmpty());
+        assertEquals("S001", repository.findByNamePrefix("better").get(0).getSeriesId());
+
+        repository.remove("S002");
+        assertTrue(repository.findByNameRange("A", "Z").stream().noneMatch(s -> s.getSeriesId().equals("S002")));
+    }
+
+    @Test
+    void testAgeIndexFollowsUpdatesAndRemoves() {
+        // Test that age filters see changed and removed age restrictions
+        repository.add(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+        repository.add(new SeriesModel("S002", "Bluey", "2", "150"));
+
+        assertEquals(1, repository.findSuitableForAge(13).size());
+        repository.update("S001", "Breaking Bad", "12", "62");
+        assertEquals(2, repository.findSuitableForAge(13).size());
+        assertEquals(0, repository.countByAge(16));
+
+        repository.remove("S002");
+        assertEquals(0, repository.countByAge(2));
+        assertEquals("S001", repository.findByMinimumAge(10).get(0).getSeriesId());
+    }
+
+    @Test
+    void testViewKeepsVersionItWasOpenedAt() {
+        // Test that an open view does not see updates, removes or adds made after it was opened
+        repository.add(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+        repository.add(new SeriesModel("S002", "Bluey", "2", "150"));
+
+        try (SeriesRepository.View view = repository.openView()) {
+            repository.update("S001", "Better Call Saul", "18", "50");
+            repository.remove("S002");
+            repository.add(new SeriesModel("S003", "Dark", "16", "26"));
+
+            List<String> names = new ArrayList<>();
+            for (SeriesModel series : view) {
+                names.add(series.getSeriesName());
+            }
+            assertEquals(List.of("Breaking Bad", "Bluey"), names);
+        }
+
+        List<String> latest = new ArrayList<>();
+        for (SeriesModel series : repository.findAll()) {
+            latest.add(series.getSeriesName());
+        }
+        assertEquals(List.of("Better Call Saul", "Dark"), latest);
+    }
+
+    @Test
+    void testOldVersionsReclaimedWhenViewsClose() {
+        // Test that versions kept for an open view are dropped once it closes, and none are kept without views
+        repository.add(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+        repository.add(new SeriesModel("S002", "Bluey", "2", "150"));
+        repository.update("S001", "Breaking Bad", "16", "63");
+        assertEquals(0, repository.retainedVersionCount());
+
+        SeriesRepository.View view = repository.openView();
+        repository.update("S001", "Breaking Bad", "16", "64");
+        repository.update("S001", "Breaking Bad", "16", "65");
+        repository.remove("S002");
+        assertTrue(repository.retainedVersionCount() > 0);
+
+        view.close();
+        assertEquals(0, repository.retainedVersionCount());
+        assertEquals("65", repository.findById("S001").getSeriesNumberOfEpisodes());
+        assertEquals(1, repository.findAll().size());
+    }
+}
@@ -0,0 +1,291 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.stream.Collectors;
+
+public class SeriesServiceTest {
+
+    private SeriesService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SeriesService();
+    }
+
+    @Test
+    void testCaptureAndFind() {
+        // Test that a captured series is returned by find without any console I/O
+        assertTrue(service.capture(new SeriesModel("S001", "Breaking Bad", "16", "62")));
+
+        SeriesModel found = service.find("S001").orElseThrow();
+        assertEquals("Breaking Bad", found.getSeriesName());
+        assertTrue(service.find("S999").isEmpty());
+    }
+
+    @Test
+    void testCaptureStoresACopy() {
+        // Test that changing the caller's object later does not change the catalog
+        SeriesModel series = new SeriesModel("S001", "Breaking Bad", "16", "62");
+        service.capture(series);
+        series.setSeriesName("Changed Outside");
+
+        assertEquals("Breaking Bad", service.find("S001").get().getSeriesName());
+        assertEquals(1, service.findByNamePrefix("Breaking").size());
+    }
+
+    @Test
+    void testCaptureRejectsDuplicateId() {
+        service.capture(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+        assertFalse(service.capture(new SeriesModel("S001", "Shadow", "16", "1")));
+        assertEquals(1, service.size());
+    }
+
+    @Test
+    void testInvalidAgeIsRejected() {
+        // Test that the service applies the same 2-18 rule as the console
+        assertThrows(IllegalArgumentException.class, () -> service.capture(new SeriesModel("S001", "Name", "19", "1")));
+        assertThrows(IllegalArgumentException.class, () -> service.capture(new SeriesModel("S001", "Name", "abc", "1")));
+        service.capture(new SeriesModel("S001", "Name", "2", "1"));
+        assertThrows(IllegalArgumentException.class, () -> service.update(new SeriesModel("S001", "Name", "1", "1")));
+    }
+
+    @Test
+    void testUpdateAndDelete() {
+        service.capture(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+
+        assertTrue(service.update(new SeriesModel("S001", "Better Call Saul", "18", "50")));
+        assertEquals("Better Call Saul", service.find("S001").get().getSeriesName());
+        assertFalse(service.update(new SeriesModel("S999", "Missing", "10", "1")));
+
+        assertTrue(service.delete("S001"));
+        assertFalse(service.delete("S001"));
+        assertEquals(0, service.size());
+    }
+
+    @Test
+    void testListPages() {
+        // Test that list returns pages in capture order
+        for (int i = 1; i <= 5; i++) {
+            service.capture(new SeriesModel("S00" + i, "Series " + i, "10", "1"));
+        }
+
+        List<SeriesModel> page = service.list(2, 2);
+        assertEquals(2, page.size());
+        assertEquals("S003", page.get(0).getSeriesId());
+        assertEquals("S004", page.get(1).getSeriesId());
+        assertTrue(service.list(10, 2).isEmpty());
+    }
+
+    @Test
+    void testConsoleFrontEndSharesService() {
+        // Test that the console class and the API see the same data
+        Series console = new Series(service);
+        service.capture(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+        assertEquals(1, console.findSeriesByNamePrefix("breaking").size());
+        assertSame(service, console.getService());
+    }
+
+    @Test
+    void testConcurrentWritersAndReports() throws Exception {
+        // Test that writers on many threads do not lose changes and reports never fail mid-iteration
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        String id = "T" + thread + "-" + i;
+                        assertTrue(service.capture(new SeriesModel(id, "Series " + i, "10", "1")));
+                        assertTrue(service.update(new SeriesModel(id, "Renamed " + i, "12", "2")));
+                        if (i % 2 == 0) {
+                            assertTrue(service.delete(id));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            tasks.add(pool.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    service.report(new StringBuilder(), 0, Integer.MAX_VALUE);
+                }
+                return null;
+            }));
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1000, service.size());
+        assertEquals(1000, service.countByAge(12));
+        assertEquals(0, service.countByAge(10));
+        assertEquals(1000, service.findByNamePrefix("renamed").size());
+        assertEquals(1000, service.consistentView().size());
+    }
+
+    @Test
+    void testStatisticsFollowChanges() {
+        // Test that the aggregates track capture, update and delete without a scan
+        service.capture(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+        service.capture(new SeriesModel("S002", "Dark", "16", "26"));
+        service.update(new SeriesModel("S002", "Dark", "18", "30"));
+        service.delete("S001");
+
+        assertEquals(1, service.statistics().getSeriesCount());
+        assertEquals(30, service.statistics().getTotalEpisodes());
+        assertEquals(0, service.statistics(16).getSeriesCount());
+        assertEquals(30, service.statistics(18).getMaxEpisodes());
+    }
+
+    @Test
+    void testReportDoesNotBlockWriters() throws Exception {
+        // Test that a writer finishes while a report is being written, and the report keeps the version it started with
+        service.capture(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+        service.capture(new SeriesModel("S002", "Dark", "16", "26"));
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        StringBuilder report = new StringBuilder();
+        try {
+            service.report(new Appendable() {
+                private boolean updated;
+
+                @Override
+                public Appendable append(CharSequence text) {
+                    if (!updated) {
+                        updated = true;
+                        try {
+                            assertTrue(writer.submit(() -> service.update(new SeriesModel("S002", "Dark Renamed", "18", "30")))
+                                    .get(10, TimeUnit.SECONDS));
+                        } catch (Exception e) {
+                            throw new AssertionError("The update waited for the report", e);
+                        }
+                    }
+                    report.append(text);
+                    return this;
+                }
+
+                @Override
+                public Appendable append(CharSequence text, int start, int end) {
+                    return append(text.subSequence(start, end));
+                }
+
+                @Override
+                public Appendable append(char c) {
+                    return append(String.valueOf(c));
+                }
+            }, 0, 10);
+        } finally {
+            writer.shutdownNow();
+        }
+
+        assertTrue(report.toString().contains("Dark"));
+        assertFalse(report.toString().contains("Dark Renamed"));
+        assertEquals("Dark Renamed", service.find("S002").get().getSeriesName());
+    }
+
+    @Test
+    void testChangeStreamFollowsCheckpoint() throws Exception {
+        // Test that a checkpoint plus the changes after it describes the catalog
+        service.capture(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+        SeriesService.ChangeCheckpoint checkpoint = service.changeCheckpoint();
+        assertEquals(1, checkpoint.getSeries().size());
+        assertEquals(1, checkpoint.getSequence());
+
+        service.update(new SeriesModel("S001", "Breaking Bad", "18", "62"));
+        service.capture(new SeriesModel("S002", "Dark", "16", "26"));
+        service.delete("S001");
+        assertFalse(service.update(new SeriesModel("S404", "Missing", "10", "1")));
+
+        List<SeriesChangeStream.Change> changes = service.changes().subscribe(checkpoint.getSequence() + 1)
+                .poll(10, 0, TimeUnit.MILLISECONDS);
+        assertEquals(3, changes.size());
+        assertEquals(SeriesChangeStream.Type.UPDATE, changes.get(0).getType());
+        assertEquals("18", changes.get(0).getSeries().getSeriesAge());
+        assertEquals("S002", changes.get(1).getSeriesId());
+        assertEquals(SeriesChangeStream.Type.DELETE, changes.get(2).getType());
+    }
+
+    @Test
+    void testReportSliceKeepsOnlyTheFirstSeries() {
+        // Test that a slice holds the first series in the order, ties in ID order, with totals for the whole catalog
+        SeriesService catalog = new SeriesService();
+        for (int i = 9; i >= 0; i--) {
+            catalog.capture(new SeriesModel("S00" + i, "Series " + i, i < 5 ? "12" : "16", String.valueOf(i)));
+        }
+
+        SeriesService.ReportSlice slice = catalog.reportSlice(3, SeriesShardedCatalog.BY_ID);
+        assertEquals(List.of("S000", "S001", "S002"), slice.getSeries().stream().map(SeriesModel::getSeriesId).collect(Collectors.toList()));
+        assertEquals(10, slice.getTotals().summary().getSeriesCount());
+        assertEquals(45, slice.getTotals().summary().getTotalEpisodes());
+        assertEquals(5, slice.getTotals().summary(12).getSeriesCount());
+
+        SeriesService.ReportSlice byAge = catalog.reportSlice(6, Comparator.comparing(SeriesModel::getSeriesAge).reversed());
+        assertEquals(List.of("S005", "S006", "S007", "S008", "S009", "S000"),
+                byAge.getSeries().stream().map(SeriesModel::getSeriesId).collect(Collectors.toList()));
+        assertEquals(10, catalog.reportSlice(100, SeriesShardedCatalog.BY_ID).getSeries().size());
+        assertTrue(catalog.reportSlice(0, SeriesShardedCatalog.BY_ID).getSeries().isEmpty());
+    }
+
+    @Test
+    void testImportChecksAndCopiesEverySeries() {
+        // Test that a batch with a bad age or a null ID adds nothing, and that stored series are copies
+        SeriesService catalog = new SeriesService();
+        SeriesModel first = new SeriesModel("S001", "Breaking Bad", "16", "62");
+        assertThrows(IllegalArgumentException.class, () -> catalog.importSeries(List.of(first, new SeriesModel("S002", "Too Young", "1", "5"))));
+        assertThrows(IllegalArgumentException.class, () -> catalog.importSeries(List.of(first, new SeriesModel(null, "No ID", "12", "5"))));
+        assertEquals(0, catalog.size());
+
+        SeriesModel again = new SeriesModel("S001", "Duplicate", "12", "1");
+        List<SeriesModel> duplicates = catalog.importSeries(List.of(first, again));
+        assertSame(again, duplicates.get(0));
+        first.setSeriesName("Changed outside the catalog");
+        assertEquals("Breaking Bad", catalog.find("S001").orElseThrow().getSeriesName());
+        assertNotSame(first, catalog.find("S001").orElseThrow());
+    }
+
+    @Test
+    void testListPageCountsTheSameVersion() {
+        // Test that a page in capture order comes with the catalog size it was read at
+        SeriesService catalog = new SeriesService();
+        for (int i = 0; i < 5; i++) {
+            catalog.capture(new SeriesModel("S00" + i, "Series " + i, "12", "1"));
+        }
+
+        SeriesService.ListPage page = catalog.listPage(3, 10);
+        assertEquals(List.of("S003", "S004"), page.getSeries().stream().map(SeriesModel::getSeriesId).collect(Collectors.toList()));
+        assertEquals(5, page.getTotal());
+        assertThrows(IllegalArgumentException.class, () -> catalog.listPage(-1, 10));
+    }
+
+    @Test
+    void testPagesByIdResumeAfterTheLastIdSeen() {
+        // Test that pages in ID order continue after the last ID, unshifted by captures and deletes in between
+        SeriesService catalog = new SeriesService();
+        for (int i = 9; i >= 0; i--) {
+            catalog.capture(new SeriesModel("S0" + i + "0", "Series " + i, "12", String.valueOf(i)));
+        }
+
+        SeriesService.ReportSlice first = catalog.pageById(null, 4);
+        assertEquals(List.of("S000", "S010", "S020", "S030"), first.getSeries().stream().map(SeriesModel::getSeriesId).collect(Collectors.toList()));
+        assertEquals(10, first.getTotals().summary().getSeriesCount());
+
+        catalog.capture(new SeriesModel("S001", "Before the page", "12", "1"));
+        catalog.capture(new SeriesModel("S035", "Inside the next page", "12", "1"));
+        catalog.delete("S040");
+        SeriesService.ReportSlice second = catalog.pageById("S030", 4);
+        assertEquals(List.of("S035", "S050", "S060", "S070"), second.getSeries().stream().map(SeriesModel::getSeriesId).collect(Collectors.toList()));
+        assertNull(second.getTotals());
+        assertEquals(List.of("S080", "S090"), catalog.pageById("S070", 4).getSeries().stream().map(SeriesModel::getSeriesId).collect(Collectors.toList()));
+        assertTrue(catalog.pageById("S090", 4).getSeries().isEmpty());
+    }
+}
@@ -0,0 +1,102 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class SeriesShardedCatalogTest {
+
+    private SeriesShardedCatalog catalog;
+    private SeriesService single;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new SeriesShardedCatalog(4, new ForkJoinPool(4));
+        single = new SeriesService();
+        for (int i = 0; i < 1000; i++) {
+            SeriesModel series = new SeriesModel("S" + i, "Series " + (i % 50), String.valueOf(2 + i % 17), String.valueOf(i));
+            catalog.capture(series);
+            single.capture(series);
+        }
+    }
+
+    @Test
+    void testPointOperationsRouteToOneShard() {
+        // Test that capture, find, update and delete work by ID and the series spread over every shard
+        assertFalse(catalog.capture(new SeriesModel("S1", "Duplicate", "12", "1")));
+        assertTrue(catalog.update(new SeriesModel("S1", "Renamed", "12", "1")));
+        assertEquals("Renamed", catalog.find("S1").get().getSeriesName());
+        assertTrue(catalog.delete("S1"));
+        assertFalse(catalog.exists("S1"));
+        assertEquals(999, catalog.size());
+
+        for (int size : catalog.shardSizes()) {
+            assertTrue(size > 100);
+        }
+    }
+
+    @Test
+    void testAggregatesMatchSingleCatalog() {
+        // Test that fanned-out counts and statistics add up to what one catalog reports
+        assertEquals(single.countByAge(12), catalog.countByAge(12));
+        assertEquals(single.statistics().getTotalEpisodes(), catalog.statistics().getTotalEpisodes());
+        assertEquals(single.statistics().getMaxEpisodes(), catalog.statistics().getMaxEpisodes());
+        assertEquals(single.statistics().getAverageEpisodes(), catalog.statistics().getAverageEpisodes(), 1e-9);
+        assertEquals(single.statistics(16).getMinEpisodes(), catalog.statistics(16).getMinEpisodes());
+    }
+
+    @Test
+    void testFilterAndReportOrderIsDeterministic() throws Exception {
+        // Test that ordered results are merged across shards in the requested order
+        Comparator<SeriesModel> byEpisodes = Comparator.comparingInt(series -> Integer.parseInt(series.getSeriesNumberOfEpisodes()));
+        List<SeriesModel> matches = catalog.filter(series -> series.getSeriesName().equals("Series 7"), byEpisodes);
+        assertEquals(20, matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            assertEquals(String.valueOf(7 + 50 * i), matches.get(i).getSeriesNumberOfEpisodes());
+        }
+        assertEquals(20, catalog.filter(series -> series.getSeriesName().equals("Series 7"), null).size());
+
+        StringBuilder first = new StringBuilder();
+        StringBuilder second = new StringBuilder();
+        assertEquals(1000, catalog.report(first, 0, Integer.MAX_VALUE));
+        catalog.report(second, 0, Integer.MAX_VALUE);
+        assertEquals(first.toString(), second.toString());
+        assertTrue(first.indexOf("SERIES ID: S0") < first.indexOf("SERIES ID: S1" + System.lineSeparator()));
+        assertTrue(first.indexOf("SERIES ID: S1" + System.lineSeparator()) < first.indexOf("SERIES ID: S10" + System.lineSeparator()));
+        assertTrue(first.toString().contains("TOTAL SERIES: 1000"));
+
+        StringBuilder expectedFooter = new StringBuilder();
+        single.report(expectedFooter, 1000, 10);
+        assertTrue(first.toString().endsWith(expectedFooter.substring(expectedFooter.indexOf("Catalog Summary"))));
+    }
+
+    @Test
+    void testReportPageMatchesSingleCatalogSortedById() throws Exception {
+        // Test that a page from the middle and the last page hold the same series as one catalog sorted by ID
+        List<SeriesModel> sorted = single.consistentView();
+        sorted.sort(SeriesShardedCatalog.BY_ID);
+        StringBuilder expected = new StringBuilder();
+        SeriesReport.write(sorted, expected, 500, 20);
+        StringBuilder page = new StringBuilder();
+        assertEquals(20, catalog.report(page, 500, 20));
+        assertEquals(expected.toString(), page.toString());
+
+        StringBuilder last = new StringBuilder();
+        assertEquals(3, catalog.report(last, 997, 20));
+        StringBuilder expectedLast = new StringBuilder();
+        SeriesReport.write(sorted, expectedLast, 997, 20, SeriesReport.summary(single.statistics(), single::statistics));
+        assertEquals(expectedLast.toString(), last.toString());
+
+        // Ties in the requested order come out in ID order
+        Comparator<SeriesModel> byAge = Comparator.comparing(SeriesModel::getSeriesAge);
+        sorted.sort(byAge.thenComparing(SeriesShardedCatalog.BY_ID));
+        StringBuilder expectedByAge = new StringBuilder();
+        SeriesReport.write(sorted, expectedByAge, 40, 30);
+        StringBuilder pageByAge = new StringBuilder();
+        catalog.report(pageByAge, 40, 30, byAge);
+        assertEquals(expectedByAge.toString(), pageByAge.toString());
+    }
+}
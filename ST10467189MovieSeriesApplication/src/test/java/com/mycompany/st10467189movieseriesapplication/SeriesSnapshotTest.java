@@ -0,0 +1,216 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SeriesSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteAndOpenRoundTrip() throws Exception {
+        // Test that every field of every record reads back unchanged
+        Path file = tempDir.resolve("series.snapshot");
+        List<SeriesModel> seriesList = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            seriesList.add(new SeriesModel("S" + i, "Série " + i, String.valueOf(2 + i % 17), String.valueOf(i)));
+        }
+        SeriesSnapshot.write(file, seriesList);
+
+        SeriesSnapshot snapshot = SeriesSnapshot.open(file);
+        assertEquals(500, snapshot.size());
+        SeriesModel record = snapshot.get(321);
+        assertEquals("S321", record.getSeriesId());
+        assertEquals("Série 321", record.getSeriesName());
+        assertEquals(String.valueOf(2 + 321 % 17), record.getSeriesAge());
+        assertEquals("321", record.getSeriesNumberOfEpisodes());
+    }
+
+    @Test
+    void testEmptyCatalog() throws Exception {
+        // Test that an empty catalog produces a valid snapshot
+        Path file = tempDir.resolve("series.snapshot");
+        SeriesSnapshot.write(file, new ArrayList<>());
+        assertEquals(0, SeriesSnapshot.open(file).size());
+    }
+
+    @Test
+    void testRecordSettersOverrideMappedValues() throws Exception {
+        // Test that a loaded record can be updated in memory
+        Path file = tempDir.resolve("series.snapshot");
+        SeriesSnapshot.write(file, List.of(new SeriesModel("S001", "Breaking Bad", "16", "62")));
+
+        SeriesModel record = SeriesSnapshot.open(file).get(0);
+        record.setSeriesName("Better Call Saul");
+        assertEquals("Better Call Saul", record.getSeriesName());
+        assertEquals("S001", record.getSeriesId());
+    }
+
+    @Test
+    void testRecordDecodedConcurrentlyReadsSameValue() throws Exception {
+        // Test that threads racing to decode a field all read the mapped value, and a setter is never undone
+        Path file = tempDir.resolve("series.snapshot");
+        SeriesSnapshot.write(file, List.of(new SeriesModel("S001", "Breaking Bad", "16", "62")));
+        SeriesSnapshot snapshot = SeriesSnapshot.open(file);
+        for (int round = 0; round < 200; round++) {
+            SeriesModel record = snapshot.get(0);
+            Thread[] readers = new Thread[4];
+            String[] names = new String[readers.length];
+            for (int i = 0; i < readers.length; i++) {
+                int reader = i;
+                readers[i] = new Thread(() -> names[reader] = record.getSeriesName());
+                readers[i].start();
+            }
+            for (int i = 0; i < readers.length; i++) {
+                readers[i].join();
+                assertEquals("Breaking Bad", names[i]);
+            }
+            record.setSeriesAge("18");
+            assertEquals("18", record.getSeriesAge());
+        }
+    }
+
+    @Test
+    void testRewriteLeavesOpenSnapshotReadable() throws Exception {
+        // Test that saving again goes to a new generation file while records of the mapped one still read
+        Path file = tempDir.resolve("series.snapshot");
+        SeriesSnapshot.write(file, List.of(new SeriesModel("S001", "Breaking Bad", "16", "62")));
+        Path first = SeriesSnapshot.currentFile(file);
+        SeriesModel old = SeriesSnapshot.open(file).get(0);
+
+        SeriesSnapshot.write(file, List.of(new SeriesModel("S002", "Dark", "16", "26")));
+        assertNotEquals(first, SeriesSnapshot.currentFile(file));
+        assertEquals("Breaking Bad", old.getSeriesName());
+        assertEquals("Dark", SeriesSnapshot.open(file).get(0).getSeriesName());
+
+        SeriesSnapshot.write(file, List.of(new SeriesModel("S003", "Bluey", "2", "150")));
+        assertEquals("Bluey", SeriesSnapshot.open(file).get(0).getSeriesName());
+        assertEquals(2, tempDir.toFile().list((directory, name) -> name.startsWith("series.snapshot")).length);
+    }
+
+    @Test
+    void testCatalogOverTheLimitKeepsThePreviousGeneration() throws Exception {
+        // Test that a last record taking the file past the size limit fails before the snapshot path moves on
+        Path file = tempDir.resolve("series.snapshot");
+        SeriesSnapshot.write(file, List.of(new SeriesModel("S001", "Breaking Bad", "16", "62")));
+        Path current = SeriesSnapshot.currentFile(file);
+        // Each record is 25 bytes: the check before the second one sees 57 bytes, the finished file is 82
+        List<SeriesModel> tooLarge = List.of(new SeriesModel("S1", "Name", "12", "1"), new SeriesModel("S2", "Name", "12", "1"));
+
+        assertThrows(IOException.class, () -> SeriesSnapshot.write(file, tooLarge, 60));
+        assertEquals(current, SeriesSnapshot.currentFile(file));
+        assertEquals("Breaking Bad", SeriesSnapshot.open(file).get(0).getSeriesName());
+        assertFalse(Files.exists(file.resolveSibling("series.snapshot.tmp")));
+        SeriesSnapshot.write(file, tooLarge, 82);
+        assertEquals(2, SeriesSnapshot.open(file).size());
+    }
+
+    @Test
+    void testSingleFileSnapshotIsMigrated() throws Exception {
+        // Test that a snapshot path holding the records itself opens and is moved to a generation file
+        Path file = tempDir.resolve("series.snapshot");
+        SeriesSnapshot.write(file, List.of(new SeriesModel("S001", "Breaking Bad", "16", "62")));
+        Files.move(SeriesSnapshot.currentFile(file), file, StandardCopyOption.REPLACE_EXISTING);
+
+        assertEquals("Breaking Bad", SeriesSnapshot.open(file).get(0).getSeriesName());
+        assertEquals(file.resolveSibling("series.snapshot.1"), SeriesSnapshot.currentFile(file));
+        SeriesSnapshot.write(file, List.of(new SeriesModel("S002", "Dark", "16", "26")));
+        assertEquals("Dark", SeriesSnapshot.open(file).get(0).getSeriesName());
+    }
+
+    @Test
+    void testCorruptHeaderIsRejected() throws Exception {
+        // Test that a damaged header fails the checksum
+        Path file = tempDir.resolve("series.snapshot");
+        SeriesSnapshot.write(file, List.of(new SeriesModel("S001", "Breaking Bad", "16", "62")));
+        Path data = SeriesSnapshot.currentFile(file);
+        byte[] bytes = Files.readAllBytes(data);
+        bytes[9] ^= 0x01;
+        Files.write(data, bytes);
+
+        assertThrows(IOException.class, () -> SeriesSnapshot.open(file));
+    }
+
+    @Test
+    void testTruncatedFileIsRejected() throws Exception {
+        // Test that a snapshot missing its tail is detected
+        Path file = tempDir.resolve("series.snapshot");
+        SeriesSnapshot.write(file, List.of(new SeriesModel("S001", "Breaking Bad", "16", "62")));
+        Path data = SeriesSnapshot.currentFile(file);
+        byte[] bytes = Files.readAllBytes(data);
+        Files.write(data, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertThrows(IOException.class, () -> SeriesSnapshot.open(file));
+    }
+
+    @Test
+    void testLoadDecodesOnlyIdsUntilIndexesAreNeeded() throws Exception {
+        // Test that startup reads just the IDs, and writes made before the indexes exist are in them once built
+        Path snapshotFile = tempDir.resolve("series.snapshot");
+        List<SeriesModel> seriesList = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            seriesList.add(new SeriesModel("S" + i, "Series " + i, "12", "10"));
+        }
+        SeriesSnapshot.write(snapshotFile, seriesList);
+
+        SeriesService service = new SeriesService(snapshotFile, tempDir.resolve("series.wal"));
+        SeriesSnapshot.SnapshotRecord loaded = (SeriesSnapshot.SnapshotRecord) service.find("S50").get();
+        assertTrue(loaded.isLoaded(SeriesSnapshot.SnapshotRecord.ID));
+        assertFalse(loaded.isLoaded(SeriesSnapshot.SnapshotRecord.NAME));
+        assertFalse(loaded.isLoaded(SeriesSnapshot.SnapshotRecord.AGE));
+        assertFalse(loaded.isLoaded(SeriesSnapshot.SnapshotRecord.EPISODES));
+
+        assertTrue(service.capture(new SeriesModel("S100", "Series 100", "16", "5")));
+        assertTrue(service.update(new SeriesModel("S1", "Renamed", "18", "20")));
+        assertTrue(service.delete("S2"));
+
+        assertEquals(98, service.countByAge(12));
+        assertEquals(100, service.statistics().getSeriesCount());
+        assertEquals(98 * 10 + 5 + 20, service.statistics().getTotalEpisodes());
+        assertEquals("S1", service.findByNamePrefix("renamed").get(0).getSeriesId());
+        assertTrue(service.findByNamePrefix("Series 2").stream().noneMatch(series -> series.getSeriesId().equals("S2")));
+        assertTrue(loaded.isLoaded(SeriesSnapshot.SnapshotRecord.NAME));
+        service.close();
+    }
+
+    @Test
+    void testSeriesLoadsSnapshotThenLog() throws Exception {
+        // Test that a restart sees the snapshot plus the changes logged after it
+        Path snapshotFile = tempDir.resolve("series.snapshot");
+        Path logFile = tempDir.resolve("series.wal");
+        InputStream originalIn = System.in;
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        try {
+            Series series = new Series(snapshotFile, logFile);
+            System.setIn(new ByteArrayInputStream("S001\nBreaking Bad\n16\n62\n".getBytes()));
+            series.captureSeries();
+            series.saveSnapshot();
+            assertEquals(0, Files.size(logFile));
+
+            System.setIn(new ByteArrayInputStream("S002\nGame of Thrones\n18\n73\n".getBytes()));
+            series.captureSeries();
+            series.close();
+
+            Series reopened = new Series(snapshotFile, logFile);
+            assertEquals(2, reopened.findSeriesSuitableForAge(18).size());
+            reopened.close();
+        } finally {
+            System.setIn(originalIn);
+            System.setOut(originalOut);
+        }
+    }
+}
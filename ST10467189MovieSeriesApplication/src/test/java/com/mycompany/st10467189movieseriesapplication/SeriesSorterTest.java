@@ -0,0 +1,106 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public class SeriesSorterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<SeriesModel> seriesList;
+
+    @BeforeEach
+    void setUp() {
+        // Shuffled names, ages cycling 2-18 and episodes that repeat, so there are many ties
+        Random random = new Random(42);
+        seriesList = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            seriesList.add(new SeriesModel("S" + i, "Name " + random.nextInt(100000), String.valueOf(2 + i % 17),
+                    String.valueOf(random.nextInt(50))));
+        }
+    }
+
+    @Test
+    void testInMemorySortByName() throws Exception {
+        // Test that a small input is sorted by name, ignoring case, without touching disk
+        List<SeriesModel> small = List.of(new SeriesModel("S1", "dark", "16", "26"),
+                new SeriesModel("S2", "Breaking Bad", "16", "62"), new SeriesModel("S3", "Andor", "13", "12"));
+        try (SeriesSorter.SortedSeries sorted = new SeriesSorter(SeriesSorter.SortKey.NAME, false).sort(small)) {
+            assertFalse(sorted.isSpilled());
+            assertEquals(List.of("S3", "S2", "S1"), ids(sorted));
+        }
+    }
+
+    @Test
+    void testSpilledSortMatchesInMemorySort() throws Exception {
+        // Test that an external merge of many runs gives the same order as an in-memory stable sort
+        List<SeriesModel> expected = new ArrayList<>(seriesList);
+        expected.sort((a, b) -> Integer.compare(Integer.parseInt(b.getSeriesNumberOfEpisodes()),
+                Integer.parseInt(a.getSeriesNumberOfEpisodes())));
+
+        SeriesSorter sorter = new SeriesSorter(SeriesSorter.SortKey.EPISODES, true, true, 7, tempDir);
+        try (SeriesSorter.SortedSeries sorted = sorter.sort(seriesList)) {
+            assertTrue(sorted.isSpilled());
+            assertEquals(ids(expected), ids(sorted));
+        }
+        try (Stream<Path> left = Files.list(tempDir)) {
+            assertEquals(0, left.count());
+        }
+    }
+
+    @Test
+    void testUnstableSortStillOrdersKeys() throws Exception {
+        // Test that an unstable spilled sort is ordered by age even if ties move
+        SeriesSorter sorter = new SeriesSorter(SeriesSorter.SortKey.AGE, false, false, 50, tempDir);
+        try (SeriesSorter.SortedSeries sorted = sorter.sort(seriesList)) {
+            int previous = 0;
+            int count = 0;
+            for (SeriesModel series : sorted) {
+                int age = Integer.parseInt(series.getSeriesAge());
+                assertTrue(age >= previous);
+                previous = age;
+                count++;
+            }
+            assertEquals(1000, count);
+        }
+    }
+
+    @Test
+    void testSortedReport() throws Exception {
+        // Test that the service report can be ordered and is numbered in sorted order
+        SeriesService service = new SeriesService();
+        service.capture(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+        service.capture(new SeriesModel("S002", "Dark", "16", "26"));
+        service.capture(new SeriesModel("S003", "Andor", "13", "12"));
+
+        StringBuilder out = new StringBuilder();
+        assertEquals(3, service.report(out, 0, 10, new SeriesSorter(SeriesSorter.SortKey.EPISODES, true)));
+        String report = out.toString();
+        assertTrue(report.indexOf("S001") < report.indexOf("S002"));
+        assertTrue(report.indexOf("S002") < report.indexOf("S003"));
+        assertTrue(report.contains("Catalog Summary"));
+    }
+
+    @Test
+    void testInvalidMemoryLimit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SeriesSorter(SeriesSorter.SortKey.NAME, false, true, 0, null));
+    }
+
+    private static List<String> ids(Iterable<SeriesModel> seriesList) {
+        List<String> ids = new ArrayList<>();
+        for (SeriesModel series : seriesList) {
+            ids.add(series.getSeriesId());
+        }
+        return ids;
+    }
+}
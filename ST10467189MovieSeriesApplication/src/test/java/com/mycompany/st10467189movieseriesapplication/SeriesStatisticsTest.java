@@ -0,0 +1,95 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SeriesStatisticsTest {
+
+    private SeriesStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new SeriesStatistics();
+        statistics.add(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+        statistics.add(new SeriesModel("S002", "Game of Thrones", "18", "73"));
+        statistics.add(new SeriesModel("S003", "Dark", "16", "26"));
+    }
+
+    @Test
+    void testOverallTotals() {
+        // Test count, sum, min, max and average for the whole catalog
+        SeriesStatistics.Summary summary = statistics.summary();
+        assertEquals(3, summary.getSeriesCount());
+        assertEquals(161, summary.getTotalEpisodes());
+        assertEquals(26, summary.getMinEpisodes());
+        assertEquals(73, summary.getMaxEpisodes());
+        assertEquals(161 / 3.0, summary.getAverageEpisodes(), 1e-9);
+    }
+
+    @Test
+    void testTotalsPerAge() {
+        // Test that each age restriction keeps its own totals
+        assertEquals(2, statistics.summary(16).getSeriesCount());
+        assertEquals(88, statistics.summary(16).getTotalEpisodes());
+        assertEquals(1, statistics.summary(18).getSeriesCount());
+        assertEquals(0, statistics.summary(10).getSeriesCount());
+        assertEquals(0, statistics.summary(99).getSeriesCount());
+    }
+
+    @Test
+    void testRemoveRestoresMinAndMax() {
+        // Test that removing the largest and smallest series moves max and min
+        statistics.remove(new SeriesModel("S002", "Game of Thrones", "18", "73"));
+        statistics.remove(new SeriesModel("S003", "Dark", "16", "26"));
+
+        SeriesStatistics.Summary summary = statistics.summary();
+        assertEquals(1, summary.getSeriesCount());
+        assertEquals(62, summary.getMinEpisodes());
+        assertEquals(62, summary.getMaxEpisodes());
+        assertEquals(0, statistics.summary(18).getMaxEpisodes());
+    }
+
+    @Test
+    void testNonNumericEpisodesOnlyCountSeries() {
+        // Test that episodes that are not whole numbers do not skew the episode figures
+        statistics.add(new SeriesModel("S004", "Unknown", "16", "many"));
+        SeriesStatistics.Summary summary = statistics.summary();
+        assertEquals(4, summary.getSeriesCount());
+        assertEquals(161, summary.getTotalEpisodes());
+        assertEquals(161 / 3.0, summary.getAverageEpisodes(), 1e-9);
+    }
+
+    @Test
+    void testConcurrentWriters() throws Exception {
+        // Test that concurrent adds and removes leave exact totals
+        SeriesStatistics concurrent = new SeriesStatistics();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    SeriesModel series = new SeriesModel("T" + thread + "-" + i, "Name", "12", String.valueOf(i));
+                    concurrent.add(series);
+                    if (i % 2 == 1) {
+                        concurrent.remove(series);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        SeriesStatistics.Summary summary = concurrent.summary(12);
+        assertEquals(2000, summary.getSeriesCount());
+        assertEquals(4 * 249500, summary.getTotalEpisodes());
+        assertEquals(0, summary.getMinEpisodes());
+        assertEquals(998, summary.getMaxEpisodes());
+    }
+}
@@ -3,11 +3,13 @@ package com.mycompany.st10467189movieseriesapplication;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.io.InputStream;
+import java.nio.file.Path;
 
 public class SeriesTest {
     
@@ -94,6 +96,24 @@ public class SeriesTest {
         assertTrue(output.contains("NUMBER OF EPISODES: 62"));
     }
     
+    @Test
+    void testCaptureSeriesRejectsDuplicateId() {
+        // Capture a series, then try to capture another with the same ID
+        String captureInput = "S001\nBreaking Bad\n16\n62\n";
+        System.setIn(new ByteArrayInputStream(captureInput.getBytes()));
+        series.captureSeries();
+        
+        outputStream.reset();
+        
+        String duplicateInput = "S001\n";
+        System.setIn(new ByteArrayInputStream(duplicateInput.getBytes()));
+        series.captureSeries();
+        
+        String output = outputStream.toString();
+        assertTrue(output.contains("Series with Series ID: S001 already exists!"));
+        assertFalse(output.contains("Series processed successfully!!!"));
+    }
+    
     @Test
     void testSearchSeriesNotFound() {
         String input = "NONEXISTENT\n";
@@ -105,6 +125,53 @@ public class SeriesTest {
         assertTrue(output.contains("Series with Series ID: NONEXISTENT was not found!"));
     }
     
+    @Test
+    void testSearchSeriesByNamePrefix() {
+        // Capture two series, then search by the start of one name
+        String captureInput = "S001\nBreaking Bad\n16\n62\n";
+        System.setIn(new ByteArrayInputStream(captureInput.getBytes()));
+        series.captureSeries();
+        captureInput = "S002\nGame of Thrones\n18\n73\n";
+        System.setIn(new ByteArrayInputStream(captureInput.getBytes()));
+        series.captureSeries();
+        
+        outputStream.reset();
+        
+        System.setIn(new ByteArrayInputStream("break\n".getBytes()));
+        series.searchSeriesByName();
+        
+        String output = outputStream.toString();
+        assertTrue(output.contains("SERIES ID: S001"));
+        assertFalse(output.contains("SERIES ID: S002"));
+    }
+    
+    @Test
+    void testSearchSeriesByNameNotFound() {
+        System.setIn(new ByteArrayInputStream("Nothing\n".getBytes()));
+        series.searchSeriesByName();
+        
+        String output = outputStream.toString();
+        assertTrue(output.contains("No series found with a name starting with: Nothing"));
+    }
+    
+    @Test
+    void testSearchSeriesByNameSuggestsCloseMatches() {
+        // A misspelt name finds nothing by prefix, so the closest names are offered
+        String captureInput = "S001\nBreaking Bad\n16\n62\n";
+        System.setIn(new ByteArrayInputStream(captureInput.getBytes()));
+        series.captureSeries();
+        
+        outputStream.reset();
+        
+        System.setIn(new ByteArrayInputStream("Braking Bad\n".getBytes()));
+        series.searchSeriesByName();
+        
+        String output = outputStream.toString();
+        assertTrue(output.contains("No series found with a name starting with: Braking Bad"));
+        assertTrue(output.contains("Did you mean:"));
+        assertTrue(output.contains("SERIES ID: S001"));
+    }
+    
     @Test
     void testUpdateSeriesFound() {
         // First capture a series
@@ -279,7 +346,7 @@ public class SeriesTest {
     
     @Test
     void testAgeValidationBelowBoundary() {
-        String input = "S001\nTest1\n1\n10\n";
+        String input = "S001\nTest1\n1\n10\n12\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
         
         series.captureSeries();
@@ -291,7 +358,7 @@ public class SeriesTest {
     
     @Test
     void testAgeValidationAboveBoundary() {
-        String input = "S001\nTest1\n19\n10\n";
+        String input = "S001\nTest1\n19\n10\n12\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
         
         series.captureSeries();
@@ -300,5 +367,27 @@ public class SeriesTest {
         assertTrue(output.contains("You have entered an incorrect age restriction: 19"));
         assertTrue(output.contains("Please re-enter the series age (2-18):"));
     }
-}
 
+    @Test
+    void testConsoleOverDiskBackedStore(@TempDir Path tempDir) throws Exception {
+        // Test that the console menu works the same over the B+tree storage backend
+        Series diskSeries = new Series(new SeriesBTreeStore(tempDir.resolve("series.btree"), 16));
+        try {
+            System.setIn(new ByteArrayInputStream("S001\nBreaking Bad\n16\n62\n".getBytes()));
+            diskSeries.captureSeries();
+            System.setIn(new ByteArrayInputStream("S001\n".getBytes()));
+            diskSeries.searchSeries();
+            System.setIn(new ByteArrayInputStream("S001\nBetter Call Saul\n18\n50\n".getBytes()));
+            diskSeries.updateSeries();
+
+            String output = outputStream.toString();
+            assertTrue(output.contains("SERIES NAME: Breaking Bad"));
+            assertTrue(output.contains("Series updated successfully!"));
+            assertEquals("Better Call Saul", diskSeries.getStore().find("S001").get().getSeriesName());
+            assertNull(diskSeries.getService());
+            assertThrows(UnsupportedOperationException.class, () -> diskSeries.findSeriesByNamePrefix("Better"));
+        } finally {
+            diskSeries.close();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+
+public class SeriesTextIndexTest {
+
+    private SeriesTextIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SeriesTextIndex();
+        index.add("Breaking Bad", "S001");
+        index.add("Better Call Saul", "S002");
+        index.add("Game of Thrones", "S003");
+        index.add("Pokémon", "S004");
+    }
+
+    @Test
+    void testWordsAreNormalized() {
+        // Test that words are lower-cased, stripped of accents and split on punctuation
+        assertEquals(List.of("pokemon", "the", "series", "xy"), SeriesTextIndex.words("Pokémon: The Series - XY"));
+        assertTrue(SeriesTextIndex.words(null).isEmpty());
+    }
+
+    @Test
+    void testMisspeltQueryFindsTitle() {
+        // Test that a misspelt title still finds the series
+        List<SeriesTextIndex.Match> matches = index.search("Braking Bda", 10, SeriesTextIndex.DEFAULT_MIN_SIMILARITY);
+        assertFalse(matches.isEmpty());
+        assertEquals("S001", matches.get(0).getSeriesId());
+
+        assertEquals("S004", index.search("pokemon", 10, SeriesTextIndex.DEFAULT_MIN_SIMILARITY).get(0).getSeriesId());
+    }
+
+    @Test
+    void testExactWordsRankFirst() {
+        // Test that a series containing every query word outranks a fuzzy match
+        index.add("Thrones", "S005");
+        List<SeriesTextIndex.Match> matches = index.search("game thrones", 10, SeriesTextIndex.DEFAULT_MIN_SIMILARITY);
+        assertEquals("S003", matches.get(0).getSeriesId());
+        assertTrue(matches.get(0).getScore() > 1.0);
+    }
+
+    @Test
+    void testNoMatchAndLimit() {
+        // Test that unrelated queries find nothing and the limit is respected
+        assertTrue(index.search("zzzz", 10, SeriesTextIndex.DEFAULT_MIN_SIMILARITY).isEmpty());
+        assertTrue(index.search("", 10, SeriesTextIndex.DEFAULT_MIN_SIMILARITY).isEmpty());
+        assertEquals(1, index.search("saul bad", 1, 0.0).size());
+    }
+
+    @Test
+    void testCommonTrigramsDoNotExpandIntoTheWholeCatalog() {
+        // Test that on a catalog where most names share "the", a query scores only the names sharing its rare trigrams
+        for (int i = 0; i < 2 * SeriesTextIndex.MAX_CANDIDATES; i++) {
+            index.add("The Show " + i, "T" + i);
+        }
+        index.add("The Darkest Hour", "S006");
+
+        assertTrue(index.candidates("the darkest hour", SeriesTextIndex.DEFAULT_MIN_SIMILARITY).size() < 10);
+        List<SeriesTextIndex.Match> matches = index.search("the darkest hour", 10, SeriesTextIndex.DEFAULT_MIN_SIMILARITY);
+        assertEquals("S006", matches.get(0).getSeriesId());
+        assertTrue(matches.get(0).getScore() > 1.0);
+        assertEquals("S006", index.search("teh darkst hour", 10, SeriesTextIndex.DEFAULT_MIN_SIMILARITY).get(0).getSeriesId());
+
+        assertEquals(SeriesTextIndex.MAX_CANDIDATES, index.candidates("the", SeriesTextIndex.DEFAULT_MIN_SIMILARITY).size());
+        assertEquals(5, index.search("the", 5, SeriesTextIndex.DEFAULT_MIN_SIMILARITY).size());
+    }
+
+    @Test
+    void testRemoveIsIncremental() {
+        // Test that a removed series is no longer found and others are unaffected
+        index.remove("Breaking Bad", "S001");
+        assertTrue(index.search("breaking bad", 10, SeriesTextIndex.DEFAULT_MIN_SIMILARITY).stream()
+                .noneMatch(m -> m.getSeriesId().equals("S001")));
+        assertEquals("S002", index.search("better call saul", 10, SeriesTextIndex.DEFAULT_MIN_SIMILARITY).get(0).getSeriesId());
+    }
+}
@@ -0,0 +1,186 @@
+package com.mycompany.st10467189movieseriesapplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+public class SeriesWriteAheadLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReplayRebuildsRepository() throws Exception {
+        // Test that capture, update and delete records replay in order
+        Path logFile = tempDir.resolve("series.wal");
+        try (SeriesWriteAheadLog log = new SeriesWriteAheadLog(logFile)) {
+            log.appendCapture(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+            log.appendCapture(new SeriesModel("S002", "Game of Thrones", "18", "73"));
+            log.appendUpdate("S001", "Better Call Saul", "18", "50");
+            log.appendDelete("S002");
+        }
+
+        SeriesRepository repository = new SeriesRepository();
+        try (SeriesWriteAheadLog log = new SeriesWriteAheadLog(logFile)) {
+            assertEquals(4, log.replay(repository));
+        }
+        assertEquals(1, repository.size());
+        assertEquals("Better Call Saul", repository.findById("S001").getSeriesName());
+        assertNull(repository.findById("S002"));
+    }
+
+    @Test
+    void testFieldsOver64KbReplay() throws Exception {
+        // Test that a name longer than writeUTF() allows is logged and read back whole
+        Path logFile = tempDir.resolve("series.wal");
+        String longName = "Série ".repeat(20_000);
+        try (SeriesService catalog = new SeriesService(logFile)) {
+            assertTrue(catalog.capture(new SeriesModel("S001", longName, "16", "62")));
+            assertTrue(catalog.update(new SeriesModel("S001", longName + "!", "18", "63")));
+        }
+        try (SeriesService catalog = new SeriesService(logFile)) {
+            assertEquals(longName + "!", catalog.find("S001").orElseThrow().getSeriesName());
+            assertEquals("18", catalog.find("S001").orElseThrow().getSeriesAge());
+        }
+    }
+
+    @Test
+    void testRecordsWithWriteUtfFieldsStillReplay() throws Exception {
+        // Test that a log written before fields had int lengths replays unchanged
+        Path logFile = tempDir.resolve("series.wal");
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeByte(SeriesWriteAheadLog.CAPTURE);
+        for (String field : new String[] {"S001", "Breaking Bad", "16", "62"}) {
+            out.writeUTF(field);
+        }
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        Files.write(logFile, ByteBuffer.allocate(8 + bytes.length).putInt(bytes.length).putInt((int) crc.getValue()).put(bytes).array());
+
+        SeriesRepository repository = new SeriesRepository();
+        try (SeriesWriteAheadLog log = new SeriesWriteAheadLog(logFile)) {
+            assertEquals(1, log.replay(repository));
+            log.appendUpdate("S001", "Better Call Saul", "18", "50");
+        }
+        repository = new SeriesRepository();
+        try (SeriesWriteAheadLog log = new SeriesWriteAheadLog(logFile)) {
+            assertEquals(2, log.replay(repository));
+        }
+        assertEquals("Better Call Saul", repository.findById("S001").getSeriesName());
+    }
+
+    @Test
+    void testTornTailIsTruncated() throws Exception {
+        // Test that a half-written last record is dropped and new records follow the good ones
+        Path logFile = tempDir.resolve("series.wal");
+        try (SeriesWriteAheadLog log = new SeriesWriteAheadLog(logFile)) {
+            log.appendCapture(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+        }
+        long goodSize = Files.size(logFile);
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 1, 2, 3}));
+        }
+
+        try (SeriesWriteAheadLog log = new SeriesWriteAheadLog(logFile)) {
+            assertEquals(1, log.replay(new SeriesRepository()));
+            assertEquals(goodSize, Files.size(logFile));
+            log.appendCapture(new SeriesModel("S002", "Game of Thrones", "18", "73"));
+        }
+
+        SeriesRepository repository = new SeriesRepository();
+        try (SeriesWriteAheadLog log = new SeriesWriteAheadLog(logFile)) {
+            assertEquals(2, log.replay(repository));
+        }
+        assertNotNull(repository.findById("S002"));
+    }
+
+    @Test
+    void testCorruptRecordStopsReplay() throws Exception {
+        // Test that a record with a bad checksum and everything after it are discarded
+        Path logFile = tempDir.resolve("series.wal");
+        try (SeriesWriteAheadLog log = new SeriesWriteAheadLog(logFile)) {
+            log.appendCapture(new SeriesModel("S001", "Breaking Bad", "16", "62"));
+            log.appendCapture(new SeriesModel("S002", "Game of Thrones", "18", "73"));
+        }
+        byte[] bytes = Files.readAllBytes(logFile);
+        bytes[bytes.length - 1] ^= 0x7f;
+        Files.write(logFile, bytes);
+
+        SeriesRepository repository = new SeriesRepository();
+        try (SeriesWriteAheadLog log = new SeriesWriteAheadLog(logFile)) {
+            assertEquals(1, log.replay(repository));
+        }
+        assertNull(repository.findById("S002"));
+    }
+
+    @Test
+    void testConcurrentAppendsShareSyncs() throws Exception {
+        // Test that concurrent writers all reach disk without one fsync each
+        Path logFile = tempDir.resolve("series.wal");
+        int threads = 8;
+        int perThread = 50;
+        try (SeriesWriteAheadLog log = new SeriesWriteAheadLog(logFile)) {
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int writer = t;
+                writers.add(new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        try {
+                            log.appendCapture(new SeriesModel("S" + writer + "-" + i, "Name", "10", "1"));
+                        } catch (Exception e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }));
+            }
+            writers.forEach(Thread::start);
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            assertTrue(log.getSyncCount() <= threads * perThread);
+        }
+
+        SeriesRepository repository = new SeriesRepository();
+        try (SeriesWriteAheadLog log = new SeriesWriteAheadLog(logFile)) {
+            assertEquals(threads * perThread, log.replay(repository));
+        }
+        assertEquals(threads * perThread, repository.size());
+    }
+
+    @Test
+    void testSeriesSurvivesRestart() throws Exception {
+        // Test that series captured through the console are back after reopening the log
+        Path logFile = tempDir.resolve("series.wal");
+        InputStream originalIn = System.in;
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        try {
+            Series series = new Series(logFile);
+            System.setIn(new ByteArrayInputStream("S001\nBreaking Bad\n16\n62\n".getBytes()));
+            series.captureSeries();
+            series.close();
+
+            Series reopened = new Series(logFile);
+            assertEquals(1, reopened.findSeriesByNamePrefix("Breaking").size());
+            reopened.close();
+        } finally {
+            System.setIn(originalIn);
+            System.setOut(originalOut);
+        }
+    }
+}
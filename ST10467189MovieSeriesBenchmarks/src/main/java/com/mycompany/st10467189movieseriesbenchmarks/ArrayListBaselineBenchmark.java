@@ -0,0 +1,126 @@
+package com.mycompany.st10467189movieseriesbenchmarks;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import com.mycompany.st10467189movieseriesapplication.SeriesModel;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The original catalog: an ArrayList of SeriesModel searched by a linear
+ * scan, with the same operations and sizes as SeriesServiceBenchmark.
+ * The report uses the original six println-style appends per series.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ArrayListBaselineBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    private ArrayList<SeriesModel> seriesCollection;
+    private String[] ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void fillCatalog() {
+        seriesCollection = new ArrayList<>();
+        ids = CatalogData.ids(size);
+        for (int i = 0; i < size; i++) {
+            seriesCollection.add(CatalogData.series(ids[i], i));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeCaptured() {
+        seriesCollection.subList(size, seriesCollection.size()).clear();
+    }
+
+    @Benchmark
+    public boolean capture() {
+        int i = seriesCollection.size();
+        return seriesCollection.add(new SeriesModel("NEW" + i, "New Series " + i, "12", "10"));
+    }
+
+    @Benchmark
+    public SeriesModel searchHit() {
+        return find(nextId());
+    }
+
+    @Benchmark
+    public SeriesModel searchMiss() {
+        return find(CatalogData.MISSING_ID);
+    }
+
+    @Benchmark
+    public SeriesModel update() {
+        SeriesModel series = find(nextId());
+        series.setSeriesName("Updated " + series.getSeriesId());
+        series.setSeriesAge("16");
+        series.setSeriesNumberOfEpisodes("20");
+        return series;
+    }
+
+    // Deletes a series and puts it back where it was, so later scans see the same layout
+    @Benchmark
+    public boolean deleteAndRecapture() {
+        String seriesId = nextId();
+        for (int i = 0; i < seriesCollection.size(); i++) {
+            if (seriesCollection.get(i).getSeriesId().equals(seriesId)) {
+                SeriesModel series = seriesCollection.remove(i);
+                seriesCollection.add(i, series);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public int report() throws IOException {
+        int number = 0;
+        for (SeriesModel series : seriesCollection) {
+            number++;
+            CatalogData.DISCARD.append("Series " + number).append(System.lineSeparator());
+            CatalogData.DISCARD.append("-------------------------------------").append(System.lineSeparator());
+            CatalogData.DISCARD.append("SERIES ID: " + series.getSeriesId()).append(System.lineSeparator());
+            CatalogData.DISCARD.append("SERIES NAME: " + series.getSeriesName()).append(System.lineSeparator());
+            CatalogData.DISCARD.append("SERIES AGE RESTRICTION: " + series.getSeriesAge()).append(System.lineSeparator());
+            CatalogData.DISCARD.append("NUMBER OF EPISODES: " + series.getSeriesNumberOfEpisodes()).append(System.lineSeparator());
+        }
+        return number;
+    }
+
+    private SeriesModel find(String seriesId) {
+        for (SeriesModel series : seriesCollection) {
+            if (series.getSeriesId().equals(seriesId)) {
+                return series;
+            }
+        }
+        return null;
+    }
+
+    private String nextId() {
+        String seriesId = ids[next];
+        next = next + 1 == ids.length ? 0 : next + 1;
+        return seriesId;
+    }
+}
@@ -0,0 +1,58 @@
+package com.mycompany.st10467189movieseriesbenchmarks;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import com.mycompany.st10467189movieseriesapplication.SeriesModel;
+import java.util.Random;
+
+/**
+ * Test data shared by the benchmarks. IDs are visited in a fixed shuffled
+ * order so lookups do not walk the catalog in capture order.
+ */
+final class CatalogData {
+
+    static final String MISSING_ID = "MISSING";
+
+    // Swallows report output so only the rendering is measured
+    static final Appendable DISCARD = new Appendable() {
+        @Override
+        public Appendable append(CharSequence csq) {
+            return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            return this;
+        }
+    };
+
+    private CatalogData() {
+    }
+
+    static String[] ids(int size) {
+        String[] ids = new String[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = "S" + i;
+        }
+        Random random = new Random(42);
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String swap = ids[i];
+            ids[i] = ids[j];
+            ids[j] = swap;
+        }
+        return ids;
+    }
+
+    // Ages cycle through 2-18 and names repeat every 1000 series
+    static SeriesModel series(String seriesId, int i) {
+        return new SeriesModel(seriesId, "Series " + (i % 1000) + " " + seriesId,
+                String.valueOf(2 + i % 17), String.valueOf(1 + i % 200));
+    }
+}
@@ -0,0 +1,114 @@
+package com.mycompany.st10467189movieseriesbenchmarks;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import com.mycompany.st10467189movieseriesapplication.SeriesHttpServer;
+import com.mycompany.st10467189movieseriesapplication.SeriesService;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Requests per second through SeriesHttpServer over loopback, with
+ * several client threads sharing one kept-alive HttpClient. serverThreads
+ * is the server's pool size, 0 meaning virtual threads where the JDK has
+ * them.
+ *
+ * The forked JVM gets -Dsun.net.httpserver.nodelay=true, as the
+ * application's startup sets it; without it each response waits for a
+ * delayed ACK and the numbers measure that instead of the server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dsun.net.httpserver.nodelay=true"})
+@Threads(8)
+public class SeriesHttpBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"0", "4"})
+    public int serverThreads;
+
+    private SeriesService service;
+    private SeriesHttpServer server;
+    private HttpClient client;
+    private String base;
+    private String[] ids;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        service = new SeriesService();
+        ids = CatalogData.ids(size);
+        for (int i = 0; i < size; i++) {
+            service.capture(CatalogData.series(ids[i], i));
+        }
+        server = new SeriesHttpServer(service, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), serverThreads);
+        server.start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        base = "http://localhost:" + server.getPort() + "/series";
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Benchmark
+    public int getHit() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(base + "/" + nextId())).GET().build());
+    }
+
+    @Benchmark
+    public int getMiss() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(base + "/" + CatalogData.MISSING_ID)).GET().build());
+    }
+
+    @Benchmark
+    public int update() throws IOException, InterruptedException {
+        String seriesId = nextId();
+        String body = "{\"seriesName\":\"Updated " + seriesId + "\",\"seriesAge\":\"16\",\"seriesNumberOfEpisodes\":\"20\"}";
+        return send(HttpRequest.newBuilder(URI.create(base + "/" + seriesId))
+                .PUT(HttpRequest.BodyPublishers.ofString(body)).build());
+    }
+
+    // One page of 100 series, so the JSON writing shows up next to the request overhead
+    @Benchmark
+    public int page() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(base + "?offset=0&limit=100")).GET().build());
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        return response.statusCode() + response.body().length;
+    }
+
+    private String nextId() {
+        return ids[Math.floorMod(next.getAndIncrement(), ids.length)];
+    }
+}
@@ -0,0 +1,110 @@
+package com.mycompany.st10467189movieseriesbenchmarks;
+/**
+ *
+ * @author ST10467189 Leonard McDermott
+ */
+import com.mycompany.st10467189movieseriesapplication.SeriesModel;
+import com.mycompany.st10467189movieseriesapplication.SeriesService;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Catalog operations on the in-memory SeriesService, the engine behind
+ * the console menu. ArrayListBaselineBenchmark runs the same operations
+ * on the original ArrayList catalog for comparison.
+ *
+ * Each operation keeps the catalog at its starting size: captures are
+ * removed again after each iteration, and a delete puts the series back
+ * so the next delete has something to remove.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class SeriesServiceBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    private SeriesService service;
+    private String[] ids;
+    private int next;
+    private int captured;
+
+    @Setup(Level.Trial)
+    public void fillCatalog() {
+        service = new SeriesService();
+        ids = CatalogData.ids(size);
+        for (int i = 0; i < size; i++) {
+            service.capture(CatalogData.series(ids[i], i));
+        }
+    }
+
+    // Takes the captured series out again so every iteration starts from the same catalog
+    @TearDown(Level.Iteration)
+    public void removeCaptured() {
+        for (int i = 0; i < captured; i++) {
+            service.delete("NEW" + i);
+        }
+        captured = 0;
+    }
+
+    @Benchmark
+    public boolean capture() {
+        int i = captured++;
+        return service.capture(new SeriesModel("NEW" + i, "New Series " + i, "12", "10"));
+    }
+
+    @Benchmark
+    public Optional<SeriesModel> searchHit() {
+        return service.find(nextId());
+    }
+
+    @Benchmark
+    public Optional<SeriesModel> searchMiss() {
+        return service.find(CatalogData.MISSING_ID);
+    }
+
+    @Benchmark
+    public boolean update() {
+        String seriesId = nextId();
+        return service.update(new SeriesModel(seriesId, "Updated " + seriesId, "16", "20"));
+    }
+
+    // Deletes a series and captures it again, so the delete always finds something
+    @Benchmark
+    public boolean deleteAndRecapture() {
+        String seriesId = nextId();
+        SeriesModel series = service.find(seriesId).orElseThrow();
+        boolean deleted = service.delete(seriesId);
+        service.capture(series);
+        return deleted;
+    }
+
+    @Benchmark
+    public int report() throws IOException {
+        return service.report(CatalogData.DISCARD, 0, Integer.MAX_VALUE);
+    }
+
+    private String nextId() {
+        String seriesId = ids[next];
+        next = next + 1 == ids.length ? 0 : next + 1;
+        return seriesId;
+    }
+}